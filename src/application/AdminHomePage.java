@@ -49,6 +49,7 @@ public class AdminHomePage {
         Button discussionBoardBtn = new Button("Discussion Board");
         discussionBoardBtn.setPrefWidth(200);
         discussionBoardBtn.setOnAction(e -> {
+            if (dbHelper != null) dbHelper.closeConnection();
             DiscussionBoardPage dbPage = new DiscussionBoardPage(stage, userName, "admin");
             stage.setScene(dbPage.createScene());
         });
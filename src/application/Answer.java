@@ -1,6 +1,9 @@
 package application;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 
 //create an answer class
 public class Answer {
@@ -13,6 +16,21 @@ public class Answer {
     private boolean isAccepted;
     private boolean isCorrect;
 
+    //columns a DAO update has to write: each setter of a stored field marks its column
+    public enum Field {
+        CONTENT("content"), IS_ACCEPTED("isAccepted"), IS_CORRECT("isCorrect");
+
+        private final String column;
+
+        Field(String column) {
+            this.column = column;
+        }
+        public String column() {
+            return column;
+        }
+    }
+    private final Set<Field> dirtyFields = EnumSet.noneOf(Field.class);
+
     //constructor getter and setter
     public Answer(int questionId, String content, String authorUserName) {
         this.questionId = questionId;
@@ -26,6 +44,10 @@ public class Answer {
 
     //constructor with all fields for db retrieval
     public Answer(int answerId, int questionId, String content, String authorUserName, LocalDateTime createdAt, LocalDateTime updatedAt, boolean isAccepted) {
+        this(answerId, questionId, content, authorUserName, createdAt, updatedAt, isAccepted, false);
+    }
+    public Answer(int answerId, int questionId, String content, String authorUserName, LocalDateTime createdAt, LocalDateTime updatedAt,
+                  boolean isAccepted, boolean isCorrect) {
 	    this.answerId = answerId;
 	    this.questionId = questionId;
 	    this.content = content;
@@ -33,7 +55,7 @@ public class Answer {
 	    this.createdAt = createdAt;
 	    this.updatedAt = updatedAt;
 	    this.isAccepted = isAccepted;
-	    this.isCorrect = false;
+	    this.isCorrect = isCorrect;
     }
 
     //getters and setters
@@ -48,6 +70,7 @@ public class Answer {
     public void setCorrect(boolean correct) {
         this.isCorrect = correct;
         this.updatedAt = LocalDateTime.now();
+        dirtyFields.add(Field.IS_CORRECT);
     }
     public int getQuestionId() {
         return questionId;
@@ -76,6 +99,7 @@ public class Answer {
     public void setContent(String content) {
         this.content = content;
         this.updatedAt = LocalDateTime.now(); //update the updatedAt time
+        dirtyFields.add(Field.CONTENT);
     }
     public void setAuthorUserName(String authorUserName) {
         this.authorUserName = authorUserName;
@@ -89,28 +113,55 @@ public class Answer {
     public void setIsAccepted(boolean isAccepted) {
         this.isAccepted = isAccepted;
         this.updatedAt = LocalDateTime.now(); //update the updatedAt time
+        dirtyFields.add(Field.IS_ACCEPTED);
     }
     //accept the answer
     public void markAsAccepted() {
         this.isAccepted = true;
         this.updatedAt = LocalDateTime.now(); //update the updatedAt time
+        dirtyFields.add(Field.IS_ACCEPTED);
     }
     //not accept the answer
     public void markAsNotAccepted() {
         this.isAccepted = false;
         this.updatedAt = LocalDateTime.now(); //update the updatedAt time
+        dirtyFields.add(Field.IS_ACCEPTED);
     }
 
     // allow a student to mark the answer as correct
     public void markAsCorrectByStudent() {
         this.isCorrect = true;
         this.updatedAt = LocalDateTime.now();
+        dirtyFields.add(Field.IS_CORRECT);
     }
 
     // allow an admin to mark the answer as correct
     public void markAsCorrectByAdmin() {
         this.isCorrect = true;
         this.updatedAt = LocalDateTime.now();
+        dirtyFields.add(Field.IS_CORRECT);
+    }
+
+    //an independent copy with the same fields and the same unsaved changes
+    public Answer copy() {
+        Answer copy = new Answer(answerId, questionId, content, authorUserName, createdAt, updatedAt, isAccepted, isCorrect);
+        copy.dirtyFields.addAll(dirtyFields);
+        return copy;
+    }
+
+    //fields changed since the answer was loaded or last saved
+    public Set<Field> getDirtyFields() {
+        return Collections.unmodifiableSet(EnumSet.copyOf(dirtyFields));
+    }
+    public boolean isDirty() {
+        return !dirtyFields.isEmpty();
+    }
+    //called once the stored row matches these fields
+    public void markClean(Set<Field> fields) {
+        dirtyFields.removeAll(fields);
+    }
+    public void markClean() {
+        dirtyFields.clear();
     }
     @Override
     public String toString() {
@@ -1,41 +1,34 @@
 package application;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 //manages the collection of answers and allows CRUD operations
 public class Answers {
-    private List<Answer> answerList;
+    //in insertion order, indexed by answer id and grouped by question id
+    private final IndexedList<Answer> answerList = new IndexedList<>(Answer::getAnswerId, Answer::getQuestionId);
     // constructor
     public Answers() {
-        this.answerList = new ArrayList<>();
     }
     // constructor with initial list
     public Answers(List<Answer> answers) {
-        this.answerList = new ArrayList<>(answers);
+        answers.forEach(answerList::add);
     }
     // add a new answer
     public void addAnswer(Answer answer) {
         answerList.add(answer);
     }
-    // get all answers
+    // get all answers, as a read-only view
     public List<Answer> getAllAnswers() {
-        return new ArrayList<>(answerList);
+        return answerList.all();
     }
     // get a specific answer by ID
     public Answer getAnswerById(int answerId) {
-        return answerList.stream()
-            .filter(a -> a.getAnswerId() == answerId)
-            .findFirst()
-            .orElse(null);
+        return answerList.get(answerId);
     }
     // get all answers for a specific question
     public Answers getAnswersForQuestion(int questionId) {
-        List<Answer> filtered = answerList.stream()
-            .filter(a -> a.getQuestionId() == questionId)
-            .collect(Collectors.toList());
-        return new Answers(filtered);
+        return new Answers(answerList.group(questionId));
     }
     // update an existing answer
     public boolean updateAnswer(int answerId, String newContent) {
@@ -48,38 +41,37 @@ public class Answers {
     }
     // remove  answer
     public boolean deleteAnswer(int answerId) {
-        return answerList.removeIf(a -> a.getAnswerId() == answerId);
+        return answerList.removeById(answerId);
     }
     // remove all answers for a specific question
     public boolean deleteAnswersForQuestion(int questionId) {
-        return answerList.removeIf(a -> a.getQuestionId() == questionId);
+        return answerList.removeGroup(questionId);
     }
     // search by content
     public Answers searchByContent(String keyword) {
-        List<Answer> filtered = answerList.stream()
+        List<Answer> filtered = answerList.all().stream()
             .filter(a -> a.getContent().toLowerCase().contains(keyword.toLowerCase()))
             .collect(Collectors.toList());
         return new Answers(filtered);
     }
     // author filter
     public Answers filterByAuthor(String authorUserName) {
-        List<Answer> filtered = answerList.stream()
+        List<Answer> filtered = answerList.all().stream()
             .filter(a -> authorUserName.equals(a.getAuthorUserName()))
             .collect(Collectors.toList());
         return new Answers(filtered);
     }
     // accepted status filter
     public Answers filterByAcceptedStatus(boolean isAccepted) {
-        List<Answer> filtered = answerList.stream()
+        List<Answer> filtered = answerList.all().stream()
             .filter(a -> a.getIsAccepted() == isAccepted)
             .collect(Collectors.toList());
         return new Answers(filtered);
     }
     // search answers for a specific question
     public Answers searchAnswersForQuestion(int questionId, String keyword) {
-        List<Answer> filtered = answerList.stream()
-            .filter(a -> a.getQuestionId() == questionId &&
-                        a.getContent().toLowerCase().contains(keyword.toLowerCase()))
+        List<Answer> filtered = answerList.group(questionId).stream()
+            .filter(a -> a.getContent().toLowerCase().contains(keyword.toLowerCase()))
             .collect(Collectors.toList());
         return new Answers(filtered);
     }
@@ -97,8 +89,6 @@ public class Answers {
     }
     // get count of answers for question
     public int getAnswerCountForQuestion(int questionId) {
-        return (int) answerList.stream()
-            .filter(a -> a.getQuestionId() == questionId)
-            .count();
+        return answerList.group(questionId).size();
     }
 }
\ No newline at end of file
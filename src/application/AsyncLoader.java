@@ -0,0 +1,153 @@
+package application;
+
+import javafx.application.Platform;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * The AsyncLoader class runs database calls for a page off the JavaFX application thread.
+ *
+ * <p> Each load is identified by a key such as "questions" or "answers". Starting a new load
+ * for a key supersedes the one still running for it: the old result is dropped instead of
+ * being shown, so quickly changing the selection only ever displays the latest data.
+ * Results and errors are delivered on the JavaFX application thread. Writes go through
+ * {@link #submit}, which runs them on the same executor but never drops them. </p>
+ *
+ * <p> Superseded calls are left to finish rather than interrupted, because interrupting a
+ * thread inside H2's file I/O closes the database file. </p>
+ */
+public class AsyncLoader {
+
+    // one virtual thread per database call, shared by every page
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("db-loader-", 0).factory());
+
+    /**
+     * A database call that produces a value.
+     */
+    public interface DataCall<T> {
+        T call() throws Exception;
+    }
+
+    // only touched on the JavaFX application thread
+    private final Map<String, Long> latest = new HashMap<>();
+    private final Map<String, Future<?>> running = new HashMap<>();
+    private long sequence;
+    private boolean closed;
+
+    /**
+     * Runs a call in the background and hands its result to onSuccess on the JavaFX thread,
+     * unless another load with the same key was started in the meantime.
+     * @param key identifies what is being loaded; a newer load with the same key wins
+     * @param call the database work
+     * @param onSuccess receives the result on the JavaFX thread
+     * @param onError receives the failure on the JavaFX thread
+     */
+    public <T> void load(String key, DataCall<T> call, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        if (closed) {
+            return;
+        }
+        long ticket = ++sequence;
+        latest.put(key, ticket);
+        Future<?> previous = running.remove(key);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        Future<?> future = EXECUTOR.submit(() -> {
+            try {
+                T result = call.call();
+                Platform.runLater(() -> {
+                    if (isCurrent(key, ticket)) {
+                        finished(key);
+                        onSuccess.accept(result);
+                    }
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    if (isCurrent(key, ticket)) {
+                        finished(key);
+                        onError.accept(e);
+                    }
+                });
+            }
+        });
+        running.put(key, future);
+    }
+
+    /**
+     * Runs a write in the background and hands its result to onSuccess on the JavaFX thread.
+     * Unlike a load it is never superseded or cancelled, so the write always happens; once the
+     * page was left only its callbacks are skipped.
+     * @param call the database work
+     * @param onSuccess receives the result on the JavaFX thread
+     * @param onError receives the failure on the JavaFX thread
+     */
+    public <T> void submit(DataCall<T> call, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        if (closed) {
+            return;
+        }
+        EXECUTOR.submit(() -> {
+            try {
+                T result = call.call();
+                Platform.runLater(() -> {
+                    if (!closed) {
+                        onSuccess.accept(result);
+                    }
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    if (!closed) {
+                        onError.accept(e);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Forgets any pending load for the key so its result is never delivered.
+     * @param key the load to drop
+     */
+    public void cancel(String key) {
+        latest.remove(key);
+        Future<?> previous = running.remove(key);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    /**
+     * Drops every pending load; used when the page is left.
+     */
+    public void cancelAll() {
+        closed = true;
+        latest.clear();
+        for (Future<?> future : running.values()) {
+            future.cancel(false);
+        }
+        running.clear();
+    }
+
+    /**
+     * Returns true while a load for the key has not delivered its result yet.
+     */
+    public boolean isLoading(String key) {
+        return running.containsKey(key);
+    }
+
+    // a delivered load forgets its key, so keys made per item do not pile up
+    private void finished(String key) {
+        latest.remove(key);
+        running.remove(key);
+    }
+
+    private boolean isCurrent(String key, long ticket) {
+        Long current = latest.get(key);
+        return !closed && current != null && current == ticket;
+    }
+}
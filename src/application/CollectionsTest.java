@@ -0,0 +1,83 @@
+package application;
+
+import static org.junit.Assert.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CollectionsTest {
+
+    private static Answer answer(int answerId, int questionId) {
+        LocalDateTime now = LocalDateTime.now();
+        return new Answer(answerId, questionId, "Answer " + answerId, "author", now, now, false);
+    }
+
+    @Test
+    public void testQuestionsLookUpAndDeleteById() {
+        Questions questions = new Questions();
+        for (int id = 1; id <= 1_000; id++) {
+            Question question = new Question("Title " + id, "Content " + id, "author");
+            question.setQuestionId(id);
+            questions.addQuestion(question);
+        }
+        assertEquals("Title 500", questions.getQuestionById(500).getTitle());
+        assertNull(questions.getQuestionById(1_001));
+
+        assertTrue(questions.deleteQuestion(500));
+        assertFalse(questions.deleteQuestion(500));
+        assertNull(questions.getQuestionById(500));
+        assertEquals("Title 501", questions.getQuestionById(501).getTitle());
+        assertEquals(999, questions.size());
+        assertEquals(1, questions.getAllQuestions().get(0).getQuestionId());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAllQuestionsIsReadOnly() {
+        Questions questions = new Questions();
+        questions.getAllQuestions().add(new Question("Title", "Content", "author"));
+    }
+
+    @Test
+    public void testAnswersGroupByQuestionInOrder() {
+        Answers answers = new Answers();
+        for (int id = 1; id <= 30; id++) {
+            answers.addAnswer(answer(id, id % 3));
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (Answer a : answers.getAnswersForQuestion(1).getAllAnswers()) {
+            ids.add(a.getAnswerId());
+        }
+        assertEquals(List.of(1, 4, 7, 10, 13, 16, 19, 22, 25, 28), ids);
+        assertEquals(10, answers.getAnswerCountForQuestion(0));
+        assertEquals(0, answers.getAnswerCountForQuestion(7));
+
+        assertTrue(answers.deleteAnswersForQuestion(1));
+        assertEquals(0, answers.getAnswerCountForQuestion(1));
+        assertNull(answers.getAnswerById(4));
+        assertEquals(20, answers.size());
+        assertEquals(2, answers.getAnswerById(2).getQuestionId());
+    }
+
+    @Test
+    public void testRepliesAndMessagesById() {
+        LocalDateTime now = LocalDateTime.now();
+        Replies replies = new Replies();
+        replies.addReply(new Reply(7, 1, "First", "author", now, now));
+        replies.addReply(new Reply(8, 2, "Second", "author", now, now));
+        assertEquals("Second", replies.getReplyById(8).getContent());
+        assertEquals(1, replies.getRepliesForAnswer(1).getAllReplies().size());
+        assertTrue(replies.deleteRepliesForAnswer(1));
+        assertNull(replies.getReplyById(7));
+
+        Messages messages = new Messages();
+        Message message = new Message("Title", "Content", "sender", "receiver");
+        message.setMessageId(42);
+        messages.addMessage(message);
+        assertSame(message, messages.getMessageById(42));
+        assertTrue(messages.deleteMessage(42));
+        assertTrue(messages.isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package application;
+
+import java.time.LocalDateTime;
+
+/*******
+ * <p> Title: ConversationSummary Class. </p>
+ *
+ * <p> Description: What a conversation list shows of one conversation: who it is with, its
+ * last message with the start of its content, and how many of its messages there are and
+ * how many are unread. </p>
+ *
+ */
+public class ConversationSummary {
+    private final int conversationId;
+    private final String title;
+    private final String otherUserName;
+    private final int lastMessageId;
+    private final String lastAuthorUserName;
+    private final String lastPreview;
+    private final LocalDateTime lastAt;
+    private final int messageCount;
+    private final int unreadCount;
+
+	/**
+	  * This method creates a ConversationSummary object.
+	  *
+	  * @param conversationId		the id of the first message of the conversation
+	  * @param title				the title of the conversation
+	  * @param otherUserName		the user the viewer is talking with
+	  * @param lastMessageId		the id of the newest message
+	  * @param lastAuthorUserName	who sent the newest message
+	  * @param lastPreview			the start of the newest message's content
+	  * @param lastAt				when the newest message was sent
+	  * @param messageCount			how many messages the conversation has
+	  * @param unreadCount			how many of them the viewer has not opened
+	  *
+	  */
+    public ConversationSummary(int conversationId, String title, String otherUserName, int lastMessageId,
+                               String lastAuthorUserName, String lastPreview, LocalDateTime lastAt,
+                               int messageCount, int unreadCount) {
+        this.conversationId = conversationId;
+        this.title = title;
+        this.otherUserName = otherUserName;
+        this.lastMessageId = lastMessageId;
+        this.lastAuthorUserName = lastAuthorUserName;
+        this.lastPreview = lastPreview;
+        this.lastAt = lastAt;
+        this.messageCount = messageCount;
+        this.unreadCount = unreadCount;
+    }
+
+    //getters
+    public int getConversationId() {
+        return conversationId;
+    }
+    public String getTitle() {
+        return title;
+    }
+    public String getOtherUserName() {
+        return otherUserName;
+    }
+    public int getLastMessageId() {
+        return lastMessageId;
+    }
+    public String getLastAuthorUserName() {
+        return lastAuthorUserName;
+    }
+    public String getLastPreview() {
+        return lastPreview;
+    }
+    public LocalDateTime getLastAt() {
+        return lastAt;
+    }
+    public int getMessageCount() {
+        return messageCount;
+    }
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ConversationSummary{" +
+                "conversationId=" + conversationId +
+                ", title='" + title + '\'' +
+                ", otherUserName='" + otherUserName + '\'' +
+                ", messageCount=" + messageCount +
+                '}';
+    }
+}
@@ -4,12 +4,17 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import databasePart1.DataChangeBus;
+import databasePart1.DataChangeEvent;
 import databasePart1.DiscussionBoardDAO;
 import databasePart1.DatabaseHelper;
+import databasePart1.PageCursor;
+import databasePart1.QuestionCriteria;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -21,7 +26,7 @@ public class DiscussionBoardPage {
     private DiscussionBoardDAO dao;
 
     //UI components
-    private ListView<Question> questionListView;
+    private ListView<QuestionSummary> questionListView;
     private TextArea questionDetailArea;
     private ListView<Answer> answerListView;
     private ListView<Reply> replyListView;
@@ -39,6 +44,30 @@ public class DiscussionBoardPage {
     private Button markCorrectBtn;
     private Button markHelpfulBtn;
 
+    //runs the database reads off the JavaFX thread
+    private final AsyncLoader loader = new AsyncLoader();
+    //answer to re-select once the answers of the re-selected question arrive
+    private int pendingAnswerId = -1;
+    //the thread of the selected question, with trust flags for the current user
+    private QuestionThread currentThread;
+    //questions on each side of the selected one whose threads are loaded ahead
+    private static final int PREFETCH_NEIGHBOURS = 2;
+
+    //paging of the question list; nextPage fetches the page after the last one shown, null at the end
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 10;
+    private AsyncLoader.DataCall<QuestionPage> nextPage;
+    private boolean pageLoading;
+
+    //committed changes from the DAOs, so the rows they touch are patched instead of reloading the list
+    private DataChangeBus.Subscription changes;
+    //true while a row is being replaced, so the selection listener does not reload the detail twice
+    private boolean patchingRow;
+
+    //a page of question summaries to show and the call that fetches the page after it
+    private record QuestionPage(List<QuestionSummary> questions, AsyncLoader.DataCall<QuestionPage> next) {
+    }
+
     public DiscussionBoardPage(Stage stage, String currentUserName, String currentUserRole) {
         this.stage = stage;
         this.currentUserName = currentUserName;
@@ -51,6 +80,8 @@ public class DiscussionBoardPage {
         } catch (SQLException e) {
             showError("Failed to connect to the database");
         }
+        //events arrive on the thread that committed the change
+        changes = DataChangeBus.getInstance().subscribe(change -> Platform.runLater(() -> applyChange(change)));
     }
 
     //create the scene for UI
@@ -121,9 +152,9 @@ public class DiscussionBoardPage {
         questionListView.setPrefHeight(600);
 
         //cell factory for question list
-        questionListView.setCellFactory(lv -> new ListCell<Question>() {
+        questionListView.setCellFactory(lv -> new ListCell<QuestionSummary>() {
             @Override
-            protected void updateItem(Question question, boolean empty) {
+            protected void updateItem(QuestionSummary question, boolean empty) {
                 super.updateItem(question, empty);
                 if (empty || question == null) {
                     setText(null);
@@ -137,12 +168,19 @@ public class DiscussionBoardPage {
                     } catch (SQLException e) {
                         // Ignore error, just don't show star
                     }
-                    setText(status + " " + question.getTitle() + " (" + question.getAuthorUserName() + star + ")");
+                    int answers = question.getAnswerCount();
+                    setText(status + " " + question.getTitle() + " (" + question.getAuthorUserName() + star + ")"
+                            + " · " + answers + (answers == 1 ? " answer" : " answers"));
+                    loadNextPageIfNear(getIndex());
                 }
             }
         });
 
-        questionListView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> displayQuestionDetail(newVal));
+        questionListView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
+            if (!patchingRow) {
+                displayQuestionDetail(newVal);
+            }
+        });
 
         loadQuestions();
         questionsBox.getChildren().addAll(questionLabel, questionListView);
@@ -188,12 +226,8 @@ public class DiscussionBoardPage {
 
                     String authorName = answer.getAuthorUserName();
                     String star = "";
-                    try {
-                        if (dbHelper != null && dao.isReviewerTrusted(currentUserName, authorName)) {
-                            star = " ★";
-                        }
-                    } catch (SQLException e) {
-                        // Ignore error, just don't show star
+                    if (dbHelper != null && currentThread != null && currentThread.isAuthorTrusted(authorName)) {
+                        star = " ★";
                     }
                     Label contentLabel = new Label(String.format(
                         "%s\n(by %s%s at %s)",
@@ -271,12 +305,8 @@ public class DiscussionBoardPage {
                 } else {
                     String reviewerName = reply.getAuthorUserName();
                     String star = "";
-                    try {
-                        if (dbHelper != null && dao.isReviewerTrusted(currentUserName, reviewerName)) {
-                            star = " ★";
-                        }
-                    } catch (SQLException e) {
-                        // Ignore error
+                    if (dbHelper != null && currentThread != null && currentThread.isAuthorTrusted(reviewerName)) {
+                        star = " ★";
                     }
                     setText(reply.getContent() + "\n - " + reviewerName + star + " (" + reply.getCreatedAt().toLocalDate() + ")");
                 }
@@ -408,17 +438,15 @@ public class DiscussionBoardPage {
                 showError("You cannot add yourself as a trusted reviewer");
                 return;
             }
-            try {
-                if (dao.addTrustedReviewer(currentUserName, reviewerName)) {
+            loader.submit(() -> dao.addTrustedReviewer(currentUserName, reviewerName), added -> {
+                if (added) {
                     showInfo("Added " + reviewerName + " to trusted reviewers");
                     reviewerField.clear();
                     refreshTrustedReviewersList(dialogPane); // refresh the list
                 } else {
                     showError("Failed to add reviewer. They may not exist or already be trusted.");
                 }
-            } catch (SQLException ex) {
-                showError("Failed to add trusted reviewer: " + ex.getMessage());
-            }
+            }, ex -> showError("Failed to add trusted reviewer: " + ex.getMessage()));
         });
 
         addReviewerBox.getChildren().addAll(new Label("Add Reviewer:"), reviewerField, addButton);
@@ -448,16 +476,14 @@ public class DiscussionBoardPage {
                 removeButton.setOnAction(e -> {
                     String reviewer = getItem();
                     if (reviewer != null) {
-                        try {
-                            if (dao.removeTrustedReviewer(currentUserName, reviewer)) {
+                        loader.submit(() -> dao.removeTrustedReviewer(currentUserName, reviewer), removed -> {
+                            if (removed) {
                                 showInfo("Removed " + reviewer + " from trusted reviewers");
                                 refreshTrustedReviewersList(dialogPane);
                             } else {
                                 showError("Failed to remove trusted reviewer");
                             }
-                        } catch (SQLException ex) {
-                            showError("Failed to remove trusted reviewer: " + ex.getMessage());
-                        }
+                        }, ex -> showError("Failed to remove trusted reviewer: " + ex.getMessage()));
                     }
                 });
                 hbox.getChildren().addAll(nameLabel, spacer, removeButton);
@@ -485,18 +511,19 @@ public class DiscussionBoardPage {
         dialog.getDialogPane().setContent(dialogPane);
         dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
         dialog.showAndWait();
+        //redraw the stars with the changed trust list
+        refreshData();
     }
 
     // helper method to refresh the trusted reviewers list in the dialog
     private void refreshTrustedReviewersList(BorderPane dialogPane) {
-        try {
-            ListView<String> trustedListView = (ListView<String>) ((VBox) dialogPane.getCenter()).getChildren().get(1);
-            List<String> trustedReviewers = dao.getTrustedReviewers(currentUserName);
+        ListView<String> trustedListView = (ListView<String>) ((VBox) dialogPane.getCenter()).getChildren().get(1);
+        showLoading(trustedListView, false);
+        loader.load("trusted", () -> dao.getTrustedReviewers(currentUserName), trustedReviewers -> {
             ObservableList<String> trustedList = FXCollections.observableArrayList(trustedReviewers);
             trustedListView.setItems(trustedList);
-        } catch (SQLException e) {
-            showError("Failed to load trusted reviewers: " + e.getMessage());
-        }
+            trustedListView.setPlaceholder(new Label("No trusted reviewers"));
+        }, e -> showError("Failed to load trusted reviewers: " + e.getMessage()));
     }
 
     //crud operations.
@@ -550,13 +577,9 @@ public class DiscussionBoardPage {
                     newQuestion.setCategory(category.trim());
                 }
 
-                try {
-                    dao.createQuestion(newQuestion);
-                    showInfo("Question created successfully!");
-                    refreshData();
-                } catch (SQLException e) {
-                    showError("Failed to create question: " + e.getMessage());
-                }
+                loader.submit(() -> dao.createQuestion(newQuestion),
+                        questionId -> showInfo("Question created successfully!"),
+                        e -> showError("Failed to create question: " + e.getMessage()));
             }
         });
     }
@@ -609,19 +632,16 @@ public class DiscussionBoardPage {
                     showError(error);
                     return;
                 }
-                //update the question
-                selectedQuestion.setTitle(title.trim());
-                selectedQuestion.setContent(content.trim());
+                //update a copy; the change event reloads the shown question once it is saved
+                Question question = selectedQuestion.copy();
+                question.setTitle(title.trim());
+                question.setContent(content.trim());
                 if (category != null && !category.trim().isEmpty()) {
-                    selectedQuestion.setCategory(category.trim());
-                }
-                try {
-                    dao.updateQuestion(selectedQuestion);
-                    showInfo("Question updated successfully!");
-                    refreshData();
-                } catch (SQLException e) {
-                    showError("Failed to update question: " + e.getMessage());
+                    question.setCategory(category.trim());
                 }
+                loader.submit(() -> dao.updateQuestion(question),
+                        updated -> showInfo("Question updated successfully!"),
+                        e -> showError("Failed to update question: " + e.getMessage()));
             }
         });
 }
@@ -645,33 +665,12 @@ public class DiscussionBoardPage {
 
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    // First, get all answers for this question to delete their reviews
-                    Answers answers = dao.getAnswersForQuestion(selectedQuestion.getQuestionId());
-                    
-                    // Delete all reviews for each answer first
-                    for (Answer answer : answers.getAllAnswers()) {
-                        try {
-                            // Delete all reviews for this answer
-                            dao.deleteRepliesForAnswer(answer.getAnswerId());
-                        } catch (SQLException e) {
-                            // Log but continue with deletion
-                            System.err.println("Failed to delete reviews for answer: " + e.getMessage());
-                        }
-                    }
-                    
-                    // Then delete all answers for this question
-                    dao.deleteAnswersForQuestion(selectedQuestion.getQuestionId());
-                    
-                    // Finally delete the question
-                    dao.deleteQuestion(selectedQuestion.getQuestionId());
-                    
+                // the question, its answers and all their reviews go in one transaction
+                int questionId = selectedQuestion.getQuestionId();
+                loader.submit(() -> dao.deleteQuestionCascade(questionId), deleted -> {
                     showInfo("Question deleted successfully");
                     selectedQuestion = null;
-                    refreshData();
-                } catch (SQLException e) {
-                    showError("Failed to delete question: " + e.getMessage());
-                }
+                }, e -> showError("Failed to delete question: " + e.getMessage()));
             }
         });
     }
@@ -695,25 +694,11 @@ public class DiscussionBoardPage {
                 return;
             }
             Answer newAnswer = new Answer(selectedQuestion.getQuestionId(), response.trim(), currentUserName);
-            try {
-                // Save the new answer to the database
-                dao.createAnswer(newAnswer);
-
-                // Update the question's answered status
-                selectedQuestion.setIsAnswered(true);
-                dao.updateQuestion(selectedQuestion);
-
-                // Refresh the question list to show the checkmark
-                refreshQuestionsList();
-                
-                // Add the new answer to the ListView without removing existing items
-                answerListView.getItems().add(newAnswer);
-                answerListView.refresh();
-
+            // a new answer is not accepted, so the question's answered status does not change
+            loader.submit(() -> dao.createAnswer(newAnswer), created -> {
+                // the change event patches the question row and reloads its answers
                 showInfo("Answer added successfully!");
-            } catch (SQLException e) {
-                showError("Failed to add answer: " + e.getMessage());
-            }
+            }, e -> showError("Failed to add answer: " + e.getMessage()));
         });
     }
 
@@ -738,14 +723,11 @@ public class DiscussionBoardPage {
                 showError(error);
                 return;
             }
-            selectedAnswer.setContent(content.trim());
-            try {
-                dao.updateAnswer(selectedAnswer);
-                showInfo("Answer updated successfully!");
-                displayQuestionDetail(selectedQuestion);
-            } catch (SQLException e) {
-                showError("Failed to update answer: " + e.getMessage());
-            }
+            Answer answer = selectedAnswer.copy();
+            answer.setContent(content.trim());
+            loader.submit(() -> dao.updateAnswer(answer),
+                    updated -> showInfo("Answer updated successfully!"),
+                    e -> showError("Failed to update answer: " + e.getMessage()));
         });
     }
     //delete an answer
@@ -766,13 +748,10 @@ public class DiscussionBoardPage {
 
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    dao.deleteAnswer(selectedAnswer.getAnswerId());
-                    showInfo("Answer deleted successfully");
-                    displayQuestionDetail(selectedQuestion);
-                } catch (SQLException e) {
-                    showError("Failed to delete answer: " + e.getMessage());
-                }
+                int answerId = selectedAnswer.getAnswerId();
+                loader.submit(() -> dao.deleteAnswerCascade(answerId),
+                        deleted -> showInfo("Answer deleted successfully"),
+                        e -> showError("Failed to delete answer: " + e.getMessage()));
             }
         });
     }
@@ -796,13 +775,9 @@ public class DiscussionBoardPage {
                 return;
             }
             Reply newReply = new Reply(selectedAnswer.getAnswerId(), response.trim(), currentUserName);
-            try {
-                dao.createReply(newReply);
-                showInfo("Reply added successfully!");
-                displayAnswerDetail(selectedAnswer);
-            } catch (SQLException e) {
-                showError("Failed to add reply: " + e.getMessage());
-            }
+            loader.submit(() -> dao.createReply(newReply),
+                    replyId -> showInfo("Reply added successfully!"),
+                    e -> showError("Failed to add reply: " + e.getMessage()));
         });
     }
     //edit a reply
@@ -827,14 +802,11 @@ public class DiscussionBoardPage {
                 showError(error);
                 return;
             }
-            selectedReply.setContent(content.trim());
-            try {
-                dao.updateReply(selectedReply);
-                showInfo("Reply updated successfully!");
-                displayAnswerDetail(selectedAnswer);
-            } catch (SQLException e) {
-                showError("Failed to update reply: " + e.getMessage());
-            }
+            Reply reply = selectedReply.copy();
+            reply.setContent(content.trim());
+            loader.submit(() -> dao.updateReply(reply),
+                    updated -> showInfo("Reply updated successfully!"),
+                    e -> showError("Failed to update reply: " + e.getMessage()));
         });
     }
     //delete a reply
@@ -856,31 +828,133 @@ public class DiscussionBoardPage {
 
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    dao.deleteReply(selectedReply.getReplyId());
-                    showInfo("Reply deleted successfully");
-                    displayAnswerDetail(selectedAnswer);
-                } catch (SQLException e) {
-                    showError("Failed to delete reply: " + e.getMessage());
-                }
+                int replyId = selectedReply.getReplyId();
+                loader.submit(() -> dao.deleteReply(replyId),
+                        deleted -> showInfo("Reply deleted successfully"),
+                        e -> showError("Failed to delete reply: " + e.getMessage()));
             }
         });
     }
 
     //helper methods
 
-    //load questions
+    //load the first page of questions in the background, keeping the selected question selected
     private void loadQuestions() {
-        try {
-            Questions questions = dao.getAllQuestions();
-            ObservableList<Question> questionList = FXCollections.observableArrayList(questions.getAllQuestions());
-            questionListView.setItems(questionList);
-        } catch (SQLException e) { showError("Failed to load questions: " + e.getMessage());}
+        loadFirstPage(() -> {
+            dao.getTrustedReviewerSet(currentUserName); // warm the trust cache for the list cells
+            return listPage(null);
+        }, "Failed to load questions: ");
     }
-        //display question detail
-        private void displayQuestionDetail(Question question) {
-            selectedQuestion = question;
+
+    //replace the question list with the first page of a listing, search or filter
+    private void loadFirstPage(AsyncLoader.DataCall<QuestionPage> call, String failure) {
+        nextPage = null;
+        pageLoading = false;
+        showLoading(questionListView, false);
+        loader.load("questions", call, page -> {
+            showQuestions(page.questions());
+            nextPage = page.next();
+        }, e -> showError(failure + e.getMessage()));
+    }
+
+    //fetch the next page once the list is scrolled close to its last loaded question
+    private void loadNextPageIfNear(int index) {
+        if (nextPage == null || pageLoading
+                || index < questionListView.getItems().size() - PREFETCH_DISTANCE) {
+            return;
+        }
+        pageLoading = true;
+        loader.load("questions", nextPage, page -> {
+            pageLoading = false;
+            questionListView.getItems().addAll(page.questions());
+            nextPage = page.next();
+        }, e -> {
+            pageLoading = false;
+            showError("Failed to load more questions: " + e.getMessage());
+        });
+    }
+
+    //newest questions after the cursor, keyset paged on (createdAt, questionId)
+    private QuestionPage listPage(PageCursor after) throws SQLException {
+        List<QuestionSummary> questions = dao.getQuestionSummariesPage(after, PAGE_SIZE);
+        if (questions.size() < PAGE_SIZE) {
+            return new QuestionPage(questions, null);
+        }
+        QuestionSummary last = questions.get(questions.size() - 1);
+        PageCursor next = PageCursor.after(last.getCreatedAt(), last.getQuestionId());
+        return new QuestionPage(questions, () -> listPage(next));
+    }
+
+    //questions matching the criteria from the offset on, filtered by the database in one query
+    private QuestionPage criteriaPage(QuestionCriteria criteria, int offset) throws SQLException {
+        List<QuestionSummary> questions = dao.findQuestionSummaries(criteria, PAGE_SIZE, offset);
+        if (questions.size() < PAGE_SIZE) {
+            return new QuestionPage(questions, null);
+        }
+        return new QuestionPage(questions, () -> criteriaPage(criteria, offset + PAGE_SIZE));
+    }
+
+    //the search keyword, trusted-only box and filter box combined into one set of conditions
+    private QuestionCriteria currentCriteria() {
+        QuestionCriteria criteria = new QuestionCriteria();
+        String keyword = searchField.getText();
+        if (DiscussionBoardValidator.validateSearchQuery(keyword) == null) {
+            criteria.keyword(keyword);
+        }
+        if (trustedOnlyCheckBox != null && trustedOnlyCheckBox.isSelected()) {
+            criteria.trustedBy(currentUserName);
+        }
+        String filter = filterComboBox.getValue();
+        if ("Answered".equals(filter)) {
+            criteria.answered(true);
+        } else if ("Unanswered".equals(filter)) {
+            criteria.answered(false);
+        } else if ("My Questions".equals(filter)) {
+            criteria.author(currentUserName);
+        }
+        return criteria;
+    }
+
+    //list the questions matching the criteria, or the plain keyset-paged list when there are none
+    private void showMatching(QuestionCriteria criteria, String failure) {
+        if (criteria.isEmpty()) {
+            loadQuestions();
+        } else {
+            loadFirstPage(() -> criteriaPage(criteria, 0), failure);
+        }
+    }
+
+    //show a loaded question list and restore the selection by id
+    private void showQuestions(List<QuestionSummary> questions) {
+        QuestionSummary kept = questionListView.getSelectionModel().getSelectedItem();
+        int keepQuestionId = kept != null ? kept.getQuestionId() : -1;
+        int keepAnswerId = selectedAnswer != null ? selectedAnswer.getAnswerId() : -1;
+        ObservableList<QuestionSummary> questionList = FXCollections.observableArrayList(questions);
+        questionListView.setItems(questionList);
+        questionListView.setPlaceholder(new Label("No questions"));
+        for (int i = 0; i < questionList.size(); i++) {
+            if (questionList.get(i).getQuestionId() == keepQuestionId) {
+                pendingAnswerId = keepAnswerId;
+                questionListView.getSelectionModel().select(i);
+                break;
+            }
+        }
+    }
+
+    //show a loading placeholder while a list is fetched in the background
+    private static <T> void showLoading(ListView<T> listView, boolean clear) {
+        if (clear) {
+            listView.setItems(FXCollections.observableArrayList());
+        }
+        listView.setPlaceholder(new Label("Loading..."));
+    }
+
+        //display question detail; the list only holds summaries, the content comes with the thread
+        private void displayQuestionDetail(QuestionSummary question) {
+            selectedQuestion = null;
             if(question == null){
+                loader.cancel("answers");
+                currentThread = null;
                 questionDetailArea.clear();
                 answerListView.setItems(FXCollections.observableArrayList());
                 return;
@@ -890,45 +964,153 @@ public class DiscussionBoardPage {
             "Category: " + (question.getCategory() != null ? question.getCategory() : "N/A") + "\n" +
             "Created At: " + question.getCreatedAt().toLocalDate() + "\n" +
             "Status: " + (question.getIsAnswered() ? "Answered" : "Unanswered") + "\n\n" +
-            "Content:\n" + question.getContent();
-            questionDetailArea.setText(details);
-
-            //load answers
-            try {
-                Answers answers = dao.getAnswersForQuestion(question.getQuestionId());
-                ObservableList<Answer> answerList = FXCollections.observableArrayList(answers.getAllAnswers());
+            "Content:\n";
+            questionDetailArea.setText(details + "Loading...");
+
+            //load the whole thread; the neighbours in the list are read ahead in the background
+            int keepAnswerId = pendingAnswerId;
+            pendingAnswerId = -1;
+            List<Integer> neighbours = neighbourIds(question);
+            showLoading(answerListView, true);
+            loader.load("answers", () -> dao.getThread(question.getQuestionId(), currentUserName, neighbours), thread -> {
+                if (thread == null) {
+                    showError("This question no longer exists");
+                    return;
+                }
+                currentThread = thread;
+                selectedQuestion = thread.getQuestion();
+                questionDetailArea.setText(details + selectedQuestion.getContent());
+                ObservableList<Answer> answerList = FXCollections.observableArrayList(thread.getAnswers().getAllAnswers());
                 answerListView.setItems(answerList);
-            } catch (SQLException e) { showError("Failed to load answers: " + e.getMessage());}
+                answerListView.setPlaceholder(new Label("No answers yet"));
+                for (int i = 0; i < answerList.size(); i++) {
+                    if (answerList.get(i).getAnswerId() == keepAnswerId) {
+                        answerListView.getSelectionModel().select(i);
+                        break;
+                    }
+                }
+            }, e -> showError("Failed to load answers: " + e.getMessage()));
         }
         //display answer's reviews
         private void displayAnswerDetail(Answer answer) {
             selectedAnswer = answer;
             if (answer == null) {
+                loader.cancel("replies");
                 replyListView.setItems(FXCollections.observableArrayList());
                 return;
             }
-            try {
-                Replies replies = dao.getRepliesForAnswer(answer.getAnswerId());
-                ObservableList<Reply> replyList = FXCollections.observableArrayList(replies.getAllReplies());
-                
-                // Check if we need to filter by trusted reviewers
-                CheckBox trustedReviewsOnlyCheckBox = findTrustedReviewsCheckBox();
-                if (trustedReviewsOnlyCheckBox != null && trustedReviewsOnlyCheckBox.isSelected()) {
-                    try {
-                        List<String> trustedReviewers = dao.getTrustedReviewers(currentUserName);
-                        replyList = replyList.filtered(reply -> 
-                            trustedReviewers.contains(reply.getAuthorUserName())
-                        );
-                    } catch (SQLException e) {
-                        // If filtering fails, show all reviews
-                        showError("Failed to filter trusted reviews: " + e.getMessage());
+            // Check if we need to filter by trusted reviewers
+            CheckBox trustedReviewsOnlyCheckBox = findTrustedReviewsCheckBox();
+            boolean trustedOnly = trustedReviewsOnlyCheckBox != null && trustedReviewsOnlyCheckBox.isSelected();
+
+            //the thread is cached once the question was opened, so this is normally answered from memory
+            showLoading(replyListView, true);
+            loader.load("replies", () -> dao.getThread(answer.getQuestionId(), currentUserName), thread -> {
+                List<Reply> replies = new java.util.ArrayList<>();
+                if (thread != null) {
+                    currentThread = thread;
+                    for (Reply reply : thread.getReplies(answer.getAnswerId()).getAllReplies()) {
+                        if (!trustedOnly || thread.isAuthorTrusted(reply.getAuthorUserName())) {
+                            replies.add(reply);
+                        }
                     }
                 }
-                
-                replyListView.setItems(replyList);
-            } catch (SQLException e) { 
-                showError("Failed to load reviews: " + e.getMessage());
+                replyListView.setItems(FXCollections.observableArrayList(replies));
+                replyListView.setPlaceholder(new Label("No reviews yet"));
+            }, e -> showError("Failed to load reviews: " + e.getMessage()));
+        }
+
+        //patch the question list after a committed change; only the question it touched is read again
+        private void applyChange(DataChangeEvent change) {
+            if (change.entity() == DataChangeEvent.Entity.MESSAGE || questionListView == null) {
+                return;
             }
+            //the trust stars in the list come from the viewer's trusted list, read again off the FX thread
+            if (change.entity() == DataChangeEvent.Entity.TRUST) {
+                if (currentUserName.equals(change.userName())) {
+                    loader.load("trust-change", () -> dao.getTrustedReviewerSet(currentUserName),
+                            trusted -> questionListView.refresh(),
+                            e -> showError("Failed to update trusted reviewers: " + e.getMessage()));
+                }
+                return;
+            }
+            int questionId = change.questionId();
+            int index = indexOfQuestion(questionId);
+            if (change.entity() == DataChangeEvent.Entity.QUESTION && change.kind() == DataChangeEvent.Kind.DELETED) {
+                if (index >= 0) {
+                    questionListView.getItems().remove(index);
+                }
+                return;
+            }
+            //a new question belongs at the top of the plain list; a search or filter is left alone
+            boolean newInList = change.entity() == DataChangeEvent.Entity.QUESTION
+                    && change.kind() == DataChangeEvent.Kind.CREATED && currentCriteria().isEmpty();
+            if (index < 0 && !newInList) {
+                return;
+            }
+            loader.load("change-" + questionId, () -> dao.getQuestionSummary(questionId),
+                    summary -> patchQuestionRow(questionId, summary),
+                    e -> showError("Failed to update the question list: " + e.getMessage()));
+        }
+
+        //replace, add or remove the row of one question; an open question is shown again with its answer kept
+        private void patchQuestionRow(int questionId, QuestionSummary summary) {
+            ObservableList<QuestionSummary> items = questionListView.getItems();
+            int index = indexOfQuestion(questionId);
+            if (summary == null) {
+                if (index >= 0) {
+                    items.remove(index);
+                }
+                return;
+            }
+            if (index < 0) {
+                items.add(0, summary);
+                return;
+            }
+            boolean selected = questionListView.getSelectionModel().getSelectedIndex() == index;
+            patchingRow = true;
+            try {
+                items.set(index, summary);
+                if (selected) {
+                    questionListView.getSelectionModel().select(index);
+                }
+            } finally {
+                patchingRow = false;
+            }
+            if (selected) {
+                pendingAnswerId = selectedAnswer != null ? selectedAnswer.getAnswerId() : -1;
+                displayQuestionDetail(summary);
+            }
+        }
+
+        //position of the question in the list, or -1
+        private int indexOfQuestion(int questionId) {
+            List<QuestionSummary> items = questionListView.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).getQuestionId() == questionId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        //ids of the questions next to this one in the list, nearest first
+        private List<Integer> neighbourIds(QuestionSummary question) {
+            List<QuestionSummary> items = questionListView.getItems();
+            int index = items.indexOf(question);
+            List<Integer> ids = new java.util.ArrayList<>();
+            if (index < 0) {
+                return ids;
+            }
+            for (int distance = 1; distance <= PREFETCH_NEIGHBOURS; distance++) {
+                if (index + distance < items.size()) {
+                    ids.add(items.get(index + distance).getQuestionId());
+                }
+                if (index - distance >= 0) {
+                    ids.add(items.get(index - distance).getQuestionId());
+                }
+            }
+            return ids;
         }
 
         // Helper method to find the trusted reviews checkbox
@@ -966,38 +1148,7 @@ public class DiscussionBoardPage {
                     return;
                 }
             }
-            
-            try {
-                Questions allQuestions = dao.getAllQuestions();
-                Questions searchResults;
-                
-                // If there's a search keyword, use search, otherwise use all questions
-                if (keyword != null && !keyword.trim().isEmpty()) {
-                    searchResults = allQuestions.search(keyword.trim());
-                } else {
-                    searchResults = allQuestions;
-                }
-
-                // If trusted only checkbox is checked, filter questions by trusted reviewers
-                if (trustedOnlyCheckBox != null && trustedOnlyCheckBox.isSelected()) {
-                    try {
-                        List<String> trustedReviewers = dao.getTrustedReviewers(currentUserName);
-                        // Filter questions that are authored by trusted reviewers
-                        Questions filteredResults = new Questions();
-                        for (Question q : searchResults.getAllQuestions()) {
-                            if (trustedReviewers.contains(q.getAuthorUserName())) {
-                                filteredResults.addQuestion(q);
-                            }
-                        }
-                        searchResults = filteredResults;
-                    } catch (SQLException e) {
-                        // If filtering fails, show all results
-                    }
-                }
-
-                ObservableList<Question> resultList = FXCollections.observableArrayList(searchResults.getAllQuestions());
-                questionListView.setItems(resultList);
-            } catch (SQLException e) { showError("Failed to search questions: " + e.getMessage());}
+            showMatching(currentCriteria(), "Failed to search questions: ");
         }
         
         //clear search
@@ -1012,48 +1163,20 @@ public class DiscussionBoardPage {
 
         //filter questions
         private void applyFilter() {
-            try {
-                Questions allQuestions = dao.getAllQuestions();
-                Questions filtered;
-                String filter = filterComboBox.getValue();
-
-                switch (filter) {
-                    case "Answered":
-                        filtered = allQuestions.filterByAnsweredStatus(true);
-                        break;
-                    case "Unanswered":
-                        filtered = allQuestions.filterByAnsweredStatus(false);
-                        break;
-                    case "My Questions":
-                        filtered = allQuestions.filterByAuthor(currentUserName);
-                        break;
-                    default:
-                        filtered = allQuestions;
-                        break;
-                }
-                ObservableList<Question> resultList = FXCollections.observableArrayList(filtered.getAllQuestions());
-                questionListView.setItems(resultList);
-            } catch (SQLException e) { showError("Failed to filter questions: " + e.getMessage());}
+            showMatching(currentCriteria(), "Failed to filter questions: ");
         }
-        //refresh data
+        //refresh data; the reload re-selects the current question and answer, which reloads their details
         private void refreshData() {
             loadQuestions();
-            if(selectedQuestion != null) {
-                try {
-                    Question refreshed = dao.getQuestionById(selectedQuestion.getQuestionId());
-                    displayQuestionDetail(refreshed);
-                }catch (SQLException e) {displayQuestionDetail(null);}
-            }
-            if(selectedAnswer != null) {
-                try {
-                    Answer refreshed = dao.getAnswerById(selectedAnswer.getAnswerId());
-                    displayAnswerDetail(refreshed);
-                }catch (SQLException e) {displayAnswerDetail(null);}
-            }
         }
 
     //navigate to home page for role
     private void goBack() {
+        //stop listening, drop pending loads and hand the connections back to the pool before leaving the page
+        changes.cancel();
+        loader.cancelAll();
+        if (dao != null) dao.closeConnection();
+        if (dbHelper != null) dbHelper.closeConnection();
         if(currentUserRole.equals("admin")) {
             AdminHomePage adminHomePage = new AdminHomePage(stage,currentUserName);
             stage.setScene(adminHomePage.createScene());
@@ -1087,48 +1210,19 @@ public class DiscussionBoardPage {
             return;
         }
 
-        try {
-            boolean wasAccepted = selected.getIsAccepted();
-
-            if (wasAccepted) {
-                // Unmark this answer
-                selected.setIsAccepted(false);
-                dao.updateAnswer(selected);
-
-                // Update the question to "unanswered" if no accepted answers remain
-                boolean anyAccepted = answerListView.getItems().stream().anyMatch(a -> a != selected && a.getIsAccepted());
-                selectedQuestion.setIsAnswered(anyAccepted);
-                dao.updateQuestion(selectedQuestion);
-
-                markCorrectBtn.setText("Mark as Correct");
-            } else {
-                // Unmark all other answers for this question
-                for (Answer ans : answerListView.getItems()) {
-                    if (ans.getIsAccepted()) {
-                        ans.setIsAccepted(false);
-                        dao.updateAnswer(ans);
-                    }
-                }
-
-                // Mark the selected answer as accepted
-                selected.setIsAccepted(true);
-                dao.updateAnswer(selected);
-
-                // Update the question as answered
-                selectedQuestion.setIsAnswered(true);
-                dao.updateQuestion(selectedQuestion);
-
-                markCorrectBtn.setText("Mark as Incorrect");
+        boolean wasAccepted = selected.getIsAccepted();
+        int questionId = selectedQuestion.getQuestionId();
+        int answerId = selected.getAnswerId();
+
+        // the database flips every flag and the question status in one transaction; its change
+        // event reloads the question and its answers, so nothing is changed here
+        loader.submit(() -> wasAccepted
+                ? dao.unacceptAnswer(questionId, answerId)
+                : dao.acceptAnswer(questionId, answerId), changed -> {
+            if (!changed) {
+                showError("This answer no longer belongs to the question");
             }
-
-            answerListView.refresh();
-            questionListView.getItems().set(questionListView.getSelectionModel().getSelectedIndex(), selectedQuestion);
-            questionListView.refresh();
-            displayQuestionDetail(selectedQuestion);
-
-        } catch (SQLException e) {
-            showError("Failed to update answer status: " + e.getMessage());
-        }
+        }, e -> showError("Failed to update answer status: " + e.getMessage()));
     }
 
     // Mark selected answer as helpful (student only)
@@ -1139,52 +1233,18 @@ public class DiscussionBoardPage {
             return;
         }
 
-        try {
-            boolean isHelpful = selected.isCorrect();
-
-            if (isHelpful) {
-                // Unmark
-                selected.setCorrect(false);
-                dao.updateAnswer(selected);
-            } else {
-                // Unmark any previously helpful answers for this question
-                for (Answer ans : answerListView.getItems()) {
-                    if (ans.isCorrect()) {
-                        ans.setCorrect(false);
-                        dao.updateAnswer(ans);
-                    }
-                }
-                // Mark selected as helpful
-                selected.setCorrect(true);
-                dao.updateAnswer(selected);
-            }
-
-            answerListView.refresh();
-            displayQuestionDetail(selectedQuestion);
-
-        } catch (SQLException e) {
-            showError("Error updating helpful status: " + e.getMessage());
-        }
-    }
-    
-    // Helper method to refresh the questions list display
-    private void refreshQuestionsList() {
-        try {
-            Questions questions = dao.getAllQuestions();
-            ObservableList<Question> questionList = FXCollections.observableArrayList(questions.getAllQuestions());
-            questionListView.setItems(questionList);
-            
-            // Re-select the current question to maintain selection
-            if (selectedQuestion != null) {
-                for (int i = 0; i < questionList.size(); i++) {
-                    if (questionList.get(i).getQuestionId() == selectedQuestion.getQuestionId()) {
-                        questionListView.getSelectionModel().select(i);
-                        break;
-                    }
-                }
+        boolean isHelpful = selected.isCorrect();
+        int questionId = selectedQuestion.getQuestionId();
+        int answerId = selected.getAnswerId();
+
+        // marking one answer unmarks any previously helpful answer in the same update; the
+        // change event reloads the answers
+        loader.submit(() -> isHelpful
+                ? dao.unmarkHelpful(questionId, answerId)
+                : dao.markHelpful(questionId, answerId), changed -> {
+            if (!changed) {
+                showError("This answer no longer belongs to the question");
             }
-        } catch (SQLException e) {
-            showError("Failed to refresh questions: " + e.getMessage());
-        }
+        }, e -> showError("Error updating helpful status: " + e.getMessage()));
     }
 }
@@ -359,7 +359,7 @@ public class DisussionBoardPage {
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
                 try {
-                    dao.deleteQuestion(selectedQuestion.getQuestionId());
+                    dao.deleteQuestionCascade(selectedQuestion.getQuestionId());
                     showInfo("Question deleted successfully");
                     selectedQuestion = null;
                     refreshData();
@@ -450,7 +450,7 @@ public class DisussionBoardPage {
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
                 try {
-                    dao.deleteAnswer(selectedAnswer.getAnswerId());
+                    dao.deleteAnswerCascade(selectedAnswer.getAnswerId());
                     showInfo("Answer deleted successfully");
                     displayQuestionDetail(selectedQuestion);
                 } catch (SQLException e) {
@@ -553,6 +553,7 @@ public class DisussionBoardPage {
     
     //navigate to home page for role
     private void goBack() {
+        if (dao != null) dao.closeConnection();
         if(currentUserRole.equals("Admin")) {
             AdminHomePage adminHomePage = new AdminHomePage(stage,currentUserName);
             stage.setScene(adminHomePage.createScene());
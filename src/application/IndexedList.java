@@ -0,0 +1,98 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+//items in insertion order, with a hash index on their id and optionally one on a parent id
+//ids are read when an item is added, so set an item's id before adding it
+final class IndexedList<T> {
+    private final ToIntFunction<T> idOf;
+    private final ToIntFunction<T> groupOf;
+    private final List<T> items = new ArrayList<>();
+    private final List<T> view = Collections.unmodifiableList(items);
+    private final IntMap<T> byId = new IntMap<>();
+    private final IntMap<List<T>> byGroup;
+
+    //groupOf may be null when there is no parent id to group by
+    IndexedList(ToIntFunction<T> idOf, ToIntFunction<T> groupOf) {
+        this.idOf = idOf;
+        this.groupOf = groupOf;
+        this.byGroup = groupOf != null ? new IntMap<>() : null;
+    }
+
+    void add(T item) {
+        items.add(item);
+        index(item);
+    }
+
+    //read-only view, in insertion order
+    List<T> all() {
+        return view;
+    }
+
+    //first item added with this id, or null
+    T get(int id) {
+        return byId.get(id);
+    }
+
+    //read-only view of the items with this parent id, in insertion order
+    List<T> group(int groupId) {
+        List<T> group = byGroup.get(groupId);
+        return group != null ? Collections.unmodifiableList(group) : List.of();
+    }
+
+    //removes every item with this id
+    boolean removeById(int id) {
+        return byId.get(id) != null && removeIf(item -> idOf.applyAsInt(item) == id);
+    }
+
+    //removes every item with this parent id
+    boolean removeGroup(int groupId) {
+        return byGroup.get(groupId) != null && removeIf(item -> groupOf.applyAsInt(item) == groupId);
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    void clear() {
+        items.clear();
+        byId.clear();
+        if (byGroup != null) {
+            byGroup.clear();
+        }
+    }
+
+    //removal is rare, so the indexes are simply rebuilt
+    private boolean removeIf(Predicate<T> filter) {
+        if (!items.removeIf(filter)) {
+            return false;
+        }
+        byId.clear();
+        if (byGroup != null) {
+            byGroup.clear();
+        }
+        for (T item : items) {
+            index(item);
+        }
+        return true;
+    }
+
+    private void index(T item) {
+        byId.putIfAbsent(idOf.applyAsInt(item), item);
+        if (byGroup != null) {
+            List<T> group = byGroup.get(groupOf.applyAsInt(item));
+            if (group == null) {
+                group = byGroup.putIfAbsent(groupOf.applyAsInt(item), new ArrayList<>());
+            }
+            group.add(item);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package application;
+
+import java.util.Arrays;
+
+//a hash map from int keys to values, without boxing the keys; open addressing with linear probing
+final class IntMap<V> {
+    private static final int EMPTY = 0; //key 0 is kept apart, so 0 can mark a free slot
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private V zeroValue;
+    private boolean hasZero;
+
+    IntMap() {
+        this(8);
+    }
+    IntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    //value for the key, or null
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        if (key == EMPTY) {
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    //stores the value unless the key already has one; returns the value now held
+    @SuppressWarnings("unchecked")
+    V putIfAbsent(int key, V value) {
+        if (key == EMPTY) {
+            if (!hasZero) {
+                hasZero = true;
+                zeroValue = value;
+            }
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return value;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+        zeroValue = null;
+        hasZero = false;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                int i = mix(oldKeys[j]) & mask;
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    //spread sequential ids over the table
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -18,6 +18,9 @@ public class Message {
     private String receiverUserName;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private LocalDateTime readAt;
+    private int conversationId;
+    private int parentMessageId;
 
     //constructor getter and setter
 	/**
@@ -36,6 +39,45 @@ public class Message {
         this.receiverUserName = receiverUserName;
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
+    }
+	/**
+	  * This method creates a Message object from a stored row.
+	  * 
+	  * @param messageId		the id of the message
+	  * @param title			the title that summarizes the content of message
+	  * @param content			the message content
+	  * @param authorUserName	the username of the sender of message
+	  * @param receiverUserName	the username of the receiver of message
+	  * @param createdAt		when the message was sent
+	  * @param updatedAt		when the message was last changed
+	  * 
+	  */
+    public Message(int messageId, String title, String content, String authorUserName, String receiverUserName,
+                   LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(messageId, title, content, authorUserName, receiverUserName, createdAt, updatedAt, null, messageId, 0);
+    }
+	/**
+	  * This method creates a Message object from a stored row, with its read time and its
+	  * place in a conversation.
+	  * 
+	  * @param readAt			when the receiver first opened the message, or null if unread
+	  * @param conversationId	the id of the first message of the conversation
+	  * @param parentMessageId	the id of the message this one replies to, or 0
+	  * 
+	  */
+    public Message(int messageId, String title, String content, String authorUserName, String receiverUserName,
+                   LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime readAt,
+                   int conversationId, int parentMessageId) {
+        this.messageId = messageId;
+        this.title = title;
+        this.content = content;
+        this.authorUserName = authorUserName;
+        this.receiverUserName = receiverUserName;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.readAt = readAt;
+        this.conversationId = conversationId;
+        this.parentMessageId = parentMessageId;
     }
     //getters and setters
     /**
@@ -87,6 +129,39 @@ public class Message {
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
+    /**
+     * 
+     * @return when the receiver first opened the message, or null if unread
+     */
+    public LocalDateTime getReadAt() {
+        return readAt;
+    }
+    public boolean isRead() {
+        return readAt != null;
+    }
+    /**
+     * 
+     * @return id of the first message of the conversation; set when the message is sent
+     */
+    public int getConversationId() {
+        return conversationId;
+    }
+    public void setConversationId(int conversationId) {
+        this.conversationId = conversationId;
+    }
+    /**
+     * 
+     * @return id of the message this one replies to, or 0 if it starts a conversation
+     */
+    public int getParentMessageId() {
+        return parentMessageId;
+    }
+    /**
+     * @param parentMessageId id of the message this one replies to
+     */
+    public void setParentMessageId(int parentMessageId) {
+        this.parentMessageId = parentMessageId;
+    }
     /**
      * @return title of message, and updated time
      */
@@ -0,0 +1,72 @@
+package application;
+
+import java.time.LocalDateTime;
+
+/*******
+ * <p> Title: MessageSummary Class. </p>
+ *
+ * <p> Description: What the inbox list shows of a message: everything except its content,
+ * which is only loaded once the message is opened. </p>
+ *
+ */
+public class MessageSummary {
+    private final int messageId;
+    private final String title;
+    private final String authorUserName;
+    private final String receiverUserName;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime readAt;
+
+	/**
+	  * This method creates a MessageSummary object.
+	  *
+	  * @param messageId		the id of the message
+	  * @param title			the title of the message
+	  * @param authorUserName	the username of the sender of message
+	  * @param receiverUserName	the username of the receiver of message
+	  * @param createdAt		when the message was sent
+	  * @param readAt			when the receiver first opened the message, or null if unread
+	  *
+	  */
+    public MessageSummary(int messageId, String title, String authorUserName, String receiverUserName,
+                          LocalDateTime createdAt, LocalDateTime readAt) {
+        this.messageId = messageId;
+        this.title = title;
+        this.authorUserName = authorUserName;
+        this.receiverUserName = receiverUserName;
+        this.createdAt = createdAt;
+        this.readAt = readAt;
+    }
+
+    //getters
+    public int getMessageId() {
+        return messageId;
+    }
+    public String getTitle() {
+        return title;
+    }
+    public String getAuthorUserName() {
+        return authorUserName;
+    }
+    public String getReceiverUserName() {
+        return receiverUserName;
+    }
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    public LocalDateTime getReadAt() {
+        return readAt;
+    }
+    public boolean isRead() {
+        return readAt != null;
+    }
+
+    @Override
+    public String toString() {
+        return "MessageSummary{" +
+                "messageId=" + messageId +
+                ", title='" + title + '\'' +
+                ", authorUserName='" + authorUserName + '\'' +
+                '}';
+    }
+}
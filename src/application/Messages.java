@@ -1,6 +1,5 @@
 package application;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -13,31 +12,30 @@ import java.util.stream.Collectors;
 
 //manages the collection of messages
 public class Messages {
-    private List<Message> messageList;
+    //in insertion order, indexed by message id
+    private final IndexedList<Message> messageList = new IndexedList<>(Message::getMessageId, null);
     
     // constructor
 	/**
-	  * This method creates a new Messages object.
-	  * Creates an empty ArrayList
+	  * This method creates a new, empty Messages object.
 	  */
     public Messages() {
-        this.messageList = new ArrayList<>();
     }
     
     // constructor with list of messages
 	/**
 	  * This method creates a new Messages object.
-	  * Then saves passed message into the ArrayList.
+	  * Then adds the passed messages in order.
 	  * 
-	  * @param messages		the message object to be passed into the ArrayList.
+	  * @param messages		the message objects to be added.
 	  */
     public Messages(List<Message> messages) {
-        this.messageList = new ArrayList<>(messages);
+        messages.forEach(messageList::add);
     }
 	/**
-	  * This method adds a single message to the ArrayList.
+	  * This method adds a single message to the collection.
 	  * 
-	  * @param messages		the message object to be passed into the ArrayList.
+	  * @param messages		the message object to be added.
 	  */
     // add a message
     
@@ -47,11 +45,11 @@ public class Messages {
     
     // get all messages
 	/**
-	  * This method gets all the messages from the ArrayList.
+	  * This method gets all the messages, as a read-only view.
 	  * 
 	  */
     public List<Message> getAllMessages() {
-        return new ArrayList<>(messageList);
+        return messageList.all();
     }
     
     // search by message id
@@ -61,21 +59,18 @@ public class Messages {
 	  * @param messageId		the message id to be returned
 	  */
     public Message getMessageById(int messageId) {
-        return messageList.stream()
-            .filter(q -> q.getMessageId() == messageId)
-            .findFirst()
-            .orElse(null);
+        return messageList.get(messageId);
     }
     
     
     // remove message
 	/**
-	  * This method removes a message from the ArrayList.
+	  * This method removes a message from the collection.
 	  * 
 	  * @param messageId		the message id to be removed from the messagesList.
 	  */
     public boolean deleteMessage(int messageId) {
-        return messageList.removeIf(q -> q.getMessageId() == messageId);
+        return messageList.removeById(messageId);
     }
     
     // author filter
@@ -85,7 +80,7 @@ public class Messages {
 	  * @param authorUserName		the username of the messages to be displayed.
 	  */
     public Messages filterByAuthor(String authorUserName) {
-        List<Message> filtered = messageList.stream()
+        List<Message> filtered = messageList.all().stream()
             .filter(q -> authorUserName.equals(q.getAuthorUserName()))
             .collect(Collectors.toList());
         return new Messages(filtered);
@@ -1,9 +1,14 @@
 package application;
 
 import databasePart1.MessagesDAO;
+import databasePart1.PageCursor;
 import static org.junit.Assert.*;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.After;
 import org.junit.Before;
@@ -74,4 +79,106 @@ public class MessagesTesting {
 		
 		assertEquals(0, zeroMessageUser.size());
 	}
+
+	@Test
+	public void testMessageSummaries() throws SQLException {
+		String receiver = "summary" + System.nanoTime();
+		int first = dao.createMessage(new Message("Summary 1.", "First summary body.", "sender", receiver));
+		int second = dao.createMessage(new Message("Summary 2.", "Second summary body.", "sender", receiver));
+		
+		List<MessageSummary> summaries = dao.getUserMessageSummaries(receiver);
+		assertEquals(2, summaries.size());
+		Set<Integer> ids = new HashSet<>();
+		for (MessageSummary summary : summaries) {
+			ids.add(summary.getMessageId());
+			assertEquals("sender", summary.getAuthorUserName());
+		}
+		assertEquals(Set.of(first, second), ids);
+		
+		// the body is read on demand
+		Message opened = dao.getMessageById(second);
+		assertEquals("Second summary body.", opened.getContent());
+	}
+
+	@Test
+	public void testUnreadCountAndInboxPages() throws SQLException {
+		String receiver = "inbox" + System.nanoTime();
+		List<Integer> sent = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			sent.add(dao.createMessage(new Message("Inbox " + i + ".", "Inbox body " + i + ".", "sender", receiver)));
+		}
+		assertEquals(5, dao.getUnreadCount(receiver));
+		
+		// two pages of two and a last one of one, newest first, each message once
+		List<Integer> paged = new ArrayList<>();
+		PageCursor cursor = null;
+		List<MessageSummary> page;
+		do {
+			page = dao.getInboxPage(receiver, false, cursor, 2);
+			for (MessageSummary summary : page) {
+				paged.add(summary.getMessageId());
+				assertFalse(summary.isRead());
+			}
+			if (!page.isEmpty()) {
+				MessageSummary last = page.get(page.size() - 1);
+				cursor = PageCursor.after(last.getCreatedAt(), last.getMessageId());
+			}
+		} while (page.size() == 2);
+		assertEquals(5, paged.size());
+		assertEquals(new HashSet<>(sent), new HashSet<>(paged));
+		
+		assertTrue(dao.markRead(sent.get(0)));
+		assertFalse(dao.markRead(sent.get(0)));
+		assertEquals(4, dao.getUnreadCount(receiver));
+		assertTrue(dao.getMessageById(sent.get(0)).isRead());
+		assertEquals(4, dao.getInboxPage(receiver, true, null, 10).size());
+		
+		assertEquals(4, dao.markAllRead(receiver));
+		assertEquals(0, dao.getUnreadCount(receiver));
+		assertTrue(dao.getInboxPage(receiver, true, null, 10).isEmpty());
+		assertEquals(0, dao.getUnreadCount("nobody" + System.nanoTime()));
+	}
+
+	@Test
+	public void testConversations() throws SQLException {
+		String alice = "alice" + System.nanoTime();
+		String bob = "bob" + System.nanoTime();
+		Message first = new Message("Lunch.", "Lunch tomorrow?", alice, bob);
+		dao.createMessage(first);
+		assertEquals(first.getMessageId(), first.getConversationId());
+		
+		Message answer = new Message("Lunch.", "Sure, at noon.", bob, alice);
+		answer.setParentMessageId(first.getMessageId());
+		dao.createMessage(answer);
+		Message thanks = new Message("Lunch.", "Great, see you there. Please bring the printed notes from the last project meeting, thanks!", alice, bob);
+		thanks.setParentMessageId(answer.getMessageId());
+		dao.createMessage(thanks);
+		dao.createMessage(new Message("Other.", "Something else.", bob, alice));
+		
+		List<Message> conversation = dao.getConversation(answer.getMessageId(), 10);
+		assertEquals(3, conversation.size());
+		assertEquals(first.getMessageId(), conversation.get(0).getMessageId());
+		assertEquals(answer.getMessageId(), conversation.get(2).getParentMessageId());
+		for (Message m : conversation) {
+			assertEquals(first.getMessageId(), m.getConversationId());
+		}
+		
+		List<ConversationSummary> conversations = dao.getConversations(bob, 10);
+		assertEquals(2, conversations.size());
+		ConversationSummary lunch = conversations.get(1);
+		assertEquals(first.getMessageId(), lunch.getConversationId());
+		assertEquals(alice, lunch.getOtherUserName());
+		assertEquals(thanks.getMessageId(), lunch.getLastMessageId());
+		assertEquals(3, lunch.getMessageCount());
+		assertEquals(2, lunch.getUnreadCount());
+		assertEquals(thanks.getContent().substring(0, 80), lunch.getLastPreview());
+		assertEquals("Other.", conversations.get(0).getTitle());
+		assertTrue(dao.getConversation(-1, 10).isEmpty());
+		
+		// a cut conversation keeps its latest messages and the one asked for
+		List<Message> cut = dao.getConversation(first.getMessageId(), 2);
+		assertEquals(2, cut.size());
+		assertEquals(first.getMessageId(), cut.get(0).getMessageId());
+		assertEquals(thanks.getMessageId(), cut.get(1).getMessageId());
+	}
 }
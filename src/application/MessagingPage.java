@@ -4,13 +4,18 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import databasePart1.DataChangeBus;
+import databasePart1.DataChangeEvent;
 import databasePart1.MessagesDAO;
+import databasePart1.PageCursor;
 
 import java.sql.SQLException;
+import java.util.List;
 
 /*******
  * <p> Title: MessagingPage Class. </p>
@@ -25,11 +30,25 @@ public class MessagingPage {
     private String currentUserRole;
     private MessagesDAO dao;
     //UI components
-    private ListView<Message> inboxListView;
+    private ListView<MessageSummary> inboxListView;
     private TextArea messageDetailArea;
+    private Label messageLabel;
+    private CheckBox unreadOnlyCheckBox;
     
     //currently selected message
-    private Message selectedMessage;
+    private MessageSummary selectedMessage;
+    //runs the database reads off the JavaFX thread
+    private final AsyncLoader loader = new AsyncLoader();
+    //new messages from the DAO, so they are added to the inbox without reloading it
+    private DataChangeBus.Subscription changes;
+    //true while a row is being replaced, so the selection listener does not reload the message
+    private boolean patchingRow;
+
+    //paging of the inbox; nextCursor is after the last message shown, null at the end
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 10;
+    private PageCursor nextCursor;
+    private boolean pageLoading;
 	/**
 	  * This method creates a MessagingPage object.
 	  * 
@@ -48,6 +67,8 @@ public class MessagingPage {
         } catch (SQLException e) {
             showError("Failed to connect to the database");
         }
+        //events arrive on the thread that sent the message
+        changes = DataChangeBus.getInstance().subscribe(change -> Platform.runLater(() -> applyChange(change)));
     }
     
     //create the scene for UI
@@ -84,30 +105,40 @@ public class MessagingPage {
         messagesBox.setPadding(new Insets(10));
         messagesBox.setPrefWidth(350);
 
-        Label messageLabel = new Label("Messages");
+        messageLabel = new Label("Messages");
         messageLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
 
+        unreadOnlyCheckBox = new CheckBox("Unread only");
+        unreadOnlyCheckBox.setOnAction(e -> loadMessages());
+
         inboxListView = new ListView<>();
         inboxListView.setPrefHeight(600);
 
         //cell factory for message list    
-        inboxListView.setCellFactory(lv -> new ListCell<Message>() {
+        inboxListView.setCellFactory(lv -> new ListCell<MessageSummary>() {
             @Override
-            protected void updateItem(Message message, boolean empty) {
+            protected void updateItem(MessageSummary message, boolean empty) {
                 super.updateItem(message, empty);
                 if (empty || message == null) {
                     setText(null);
+                    setStyle("");
                 } else{
-                    setText(message.getTitle()+ " (" + message.getAuthorUserName() + ")");
-    
+                    //unread messages are marked and bold until they are opened
+                    setText((message.isRead() ? "" : "● ") + message.getTitle()+ " (" + message.getAuthorUserName() + ")");
+                    setStyle(message.isRead() ? "" : "-fx-font-weight: bold;");
+                    loadNextPageIfNear(getIndex());
                 }
             }
         });
 
-        inboxListView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> displayMessageDetail(newVal)); 
+        inboxListView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
+            if (!patchingRow) {
+                displayMessageDetail(newVal);
+            }
+        });
 
         loadMessages();
-        messagesBox.getChildren().addAll(messageLabel, inboxListView);
+        messagesBox.getChildren().addAll(messageLabel, unreadOnlyCheckBox, inboxListView);
         return messagesBox;
     }
     
@@ -214,44 +245,156 @@ public class MessagingPage {
               //create the message
               Message newMessage = new Message(title.trim(), content.trim(), currentUserName, receiver);
 
-              try {
-                  dao.createMessage(newMessage);
-                  showInfo("Message created successfully!");
-                  refreshData();
-              } catch (SQLException e) {
-                  showError("Failed to create question: " + e.getMessage());
-              }
+              loader.submit(() -> dao.createMessage(newMessage),
+                      messageId -> showInfo("Message created successfully!"),
+                      e -> showError("Failed to create question: " + e.getMessage()));
           }
       });
   }
     
     //load message
 	/**
-	  * This method loads only the messages where the current user is the receiver.
-	  * Loads both the messages list as well as details.
+	  * This method loads the first page of the messages where the current user is the receiver,
+	  * and the unread count. The list holds summaries; the selected message stays selected.
 	  * 
 	  */
     private void loadMessages() {
-        try {
-            Messages messages = dao.getUserMessages(currentUserName);
-            ObservableList<Message> messageList = FXCollections.observableArrayList(messages.getAllMessages());
+        inboxListView.setPlaceholder(new Label("Loading..."));
+        int keepMessageId = selectedMessage != null ? selectedMessage.getMessageId() : -1;
+        boolean unreadOnly = unreadOnlyCheckBox.isSelected();
+        nextCursor = null;
+        pageLoading = false;
+        loadUnreadCount();
+        loader.load("messages", () -> dao.getInboxPage(currentUserName, unreadOnly, null, PAGE_SIZE), messages -> {
+            ObservableList<MessageSummary> messageList = FXCollections.observableArrayList(messages);
             inboxListView.setItems(messageList);
-        } catch (SQLException e) { showError("Failed to load messages: " + e.getMessage());}
+            inboxListView.setPlaceholder(new Label("No messages"));
+            nextCursor = cursorAfter(messages);
+            for (int i = 0; i < messageList.size(); i++) {
+                if (messageList.get(i).getMessageId() == keepMessageId) {
+                    inboxListView.getSelectionModel().select(i);
+                    break;
+                }
+            }
+        }, e -> showError("Failed to load messages: " + e.getMessage()));
+    }
+	/**
+	  * This method fetches the next page of the inbox once the list is scrolled close to its end.
+	  * 
+	  * @param index		the index of a row being shown
+	  * 
+	  */
+    private void loadNextPageIfNear(int index) {
+        if (nextCursor == null || pageLoading || index < inboxListView.getItems().size() - PREFETCH_DISTANCE) {
+            return;
+        }
+        pageLoading = true;
+        boolean unreadOnly = unreadOnlyCheckBox.isSelected();
+        PageCursor after = nextCursor;
+        loader.load("messages", () -> dao.getInboxPage(currentUserName, unreadOnly, after, PAGE_SIZE), messages -> {
+            pageLoading = false;
+            inboxListView.getItems().addAll(messages);
+            nextCursor = cursorAfter(messages);
+        }, e -> {
+            pageLoading = false;
+            showError("Failed to load more messages: " + e.getMessage());
+        });
+    }
+    //the cursor after a loaded page, or null if it was the last one
+    private static PageCursor cursorAfter(List<MessageSummary> page) {
+        if (page.size() < PAGE_SIZE) {
+            return null;
+        }
+        MessageSummary last = page.get(page.size() - 1);
+        return PageCursor.after(last.getCreatedAt(), last.getMessageId());
+    }
+	/**
+	  * This method shows the unread count next to the inbox title.
+	  * 
+	  */
+    private void loadUnreadCount() {
+        loader.load("unread", () -> dao.getUnreadCount(currentUserName), count -> {
+            messageLabel.setText(count == 0 ? "Messages" : "Messages (" + count + " unread)");
+        }, e -> showError("Failed to count unread messages: " + e.getMessage()));
+    }
+	/**
+	  * This method adds a message sent to the current user to the top of the inbox, and
+	  * redraws a message once it was read.
+	  * 
+	  * @param change		a committed change from the DAOs
+	  * 
+	  */
+    private void applyChange(DataChangeEvent change) {
+        if (change.entity() != DataChangeEvent.Entity.MESSAGE
+                || !currentUserName.equals(change.userName()) || inboxListView == null) {
+            return;
+        }
+        loadUnreadCount();
+        int messageId = change.id();
+        loader.load("change-" + messageId, () -> dao.getMessageSummary(messageId), summary -> {
+            if (summary == null) {
+                return;
+            }
+            List<MessageSummary> items = inboxListView.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).getMessageId() == messageId) {
+                    boolean selected = inboxListView.getSelectionModel().getSelectedIndex() == i;
+                    patchingRow = true;
+                    try {
+                        items.set(i, summary);
+                        if (selected) {
+                            inboxListView.getSelectionModel().select(i);
+                            selectedMessage = summary;
+                        }
+                    } finally {
+                        patchingRow = false;
+                    }
+                    return;
+                }
+            }
+            if (change.kind() == DataChangeEvent.Kind.CREATED) {
+                items.add(0, summary);
+            }
+        }, e -> showError("Failed to load the new message: " + e.getMessage()));
     }
         //display message detail
-        private void displayMessageDetail(Message message) {
+        private void displayMessageDetail(MessageSummary message) {
             selectedMessage = message;
             if (selectedMessage == null) {
+                loader.cancel("message");
                 messageDetailArea.clear();
-                inboxListView.setItems(FXCollections.observableArrayList());
                 return;
             }
             String details = "Title: " + message.getTitle() + "\n\n" +
             "Author: " + message.getAuthorUserName() + "\n" +
             "Created At: " + message.getCreatedAt().toLocalDate() + "\n" +
-            "Content:\n" + message.getContent();
-            messageDetailArea.setText(details);
-
+            "Content:\n";
+            messageDetailArea.setText(details + "Loading...");
+            //the content is only read now, together with the rest of the conversation
+            loader.load("message", () -> dao.getConversation(message.getMessageId(), PAGE_SIZE), conversation -> {
+                Message full = null;
+                StringBuilder earlier = new StringBuilder();
+                for (Message m : conversation) {
+                    if (m.getMessageId() == message.getMessageId()) {
+                        full = m;
+                    } else {
+                        earlier.append("\n\n--- ").append(m.getAuthorUserName()).append(" (")
+                                .append(m.getCreatedAt().toLocalDate()).append(") ---\n").append(m.getContent());
+                    }
+                }
+                if (full == null) {
+                    messageDetailArea.setText(details + "This message no longer exists");
+                    return;
+                }
+                messageDetailArea.setText(details + full.getContent()
+                        + (earlier.length() > 0 ? "\n\nConversation:" + earlier : ""));
+                //the first opening marks it read; the change event redraws the row and the count
+                int messageId = full.getMessageId();
+                if (!full.isRead() && currentUserName.equals(full.getReceiverUserName())) {
+                    loader.submit(() -> dao.markRead(messageId), marked -> {
+                    }, e -> showError("Failed to mark the message read: " + e.getMessage()));
+                }
+            }, e -> showError("Failed to load message: " + e.getMessage()));
     }
     //add an reply
     /**
@@ -272,13 +415,14 @@ public class MessagingPage {
             dialog.showAndWait().ifPresent(response -> {
             
                 Message newMessage = new Message(selectedMessage.getTitle(), response.trim(), currentUserName, selectedMessage.getAuthorUserName());
-                try {
-                    dao.createMessage(newMessage);
+                newMessage.setParentMessageId(selectedMessage.getMessageId()); // joins the conversation of the message
+                MessageSummary repliedTo = selectedMessage;
+                loader.submit(() -> dao.createMessage(newMessage), messageId -> {
                     showInfo("Reply added successfully!");
-                    displayMessageDetail(selectedMessage);
-                } catch (SQLException e) {
-                    showError("Failed to add answer: " + e.getMessage());
-                }
+                    if (selectedMessage == repliedTo) {
+                        displayMessageDetail(repliedTo);
+                    }
+                }, e -> showError("Failed to add answer: " + e.getMessage()));
             });
         }
 	//Show error and info messages
@@ -315,12 +459,6 @@ public class MessagingPage {
 	  */
     private void refreshData() {
         loadMessages();
-        if(selectedMessage != null) {
-            try {
-                Message refreshed = dao.getMessageById(selectedMessage.getMessageId());
-                displayMessageDetail(refreshed);
-            }catch (SQLException e) {displayMessageDetail(null);}
-        }
     }
 
     //navigate to home page for role
@@ -329,6 +467,9 @@ public class MessagingPage {
 	  * 
 	  */
     private void goBack() {
+    	changes.cancel();
+    	loader.cancelAll();
+    	if (dao != null) dao.closeConnection();
     	if(currentUserRole.equals("Admin")) {
     		AdminHomePage adminHomePage = new AdminHomePage(stage,currentUserName);
     		stage.setScene(adminHomePage.createScene());
@@ -9,11 +9,18 @@ public class PasswordEvaluator {
 	 * diagram into an executable Java program using the Password Evaluator Directed Graph. 
 	 * The code detailed design is based on a while loop with a cascade of if statements</p>
 	 * 
+	 * <p> An evaluator keeps no state between calls: everything it finds is returned in a
+	 * {@link Result}, so one instance can evaluate passwords on any number of threads. The
+	 * execution trace is only written to the console when the evaluator is created with
+	 * tracing switched on. </p>
+	 * 
 	 * <p> Copyright: Lynn Robert Carter © 2022 </p>
 	 * 
 	 * @author Lynn Robert Carter
 	 * 
 	 * @version 0.00		2018-02-22	Initial baseline 
+	 * @version 1.00		2026-10-18	Results returned in a record instead of static fields,
+	 * 									execution trace behind a flag
 	 * 
 	 */
 
@@ -22,33 +29,82 @@ public class PasswordEvaluator {
 	 * Result attributes to be used for GUI applications where a detailed error message and a 
 	 * pointer to the character of the error will enhance the user experience.
 	 * 
+	 * @param errorMessage		The error message text, empty when the password is valid
+	 * @param input				The input that was evaluated
+	 * @param indexOfError		The index where the error was located, -1 when there is none
+	 */
+	public record Result(String errorMessage, String input, int indexOfError, boolean upperCase,
+			boolean lowerCase, boolean numericChar, boolean specialChar, boolean longEnough,
+			boolean otherChar) {
+
+		public boolean isValid() {
+			return errorMessage.isEmpty();
+		}
+	}
+
+	public static final String EMPTY_MESSAGE = "*** Error *** The password is empty!";
+	public static final String INVALID_CHARACTER_MESSAGE = "*** Error *** An invalid character has been found!";
+	private static final String SPECIAL_CHARACTERS = "~`!@#$%^&*()_-+{}[]|:,.?/";
+
+	// Flags for the conditions, used to look up the message for the ones that are missing
+	private static final int UPPER_CASE = 1;
+	private static final int LOWER_CASE = 2;
+	private static final int NUMERIC_CHAR = 4;
+	private static final int SPECIAL_CHAR = 8;
+	private static final int LONG_ENOUGH = 16;
+	private static final int ALL_CONDITIONS = 31;
+
+	// The message for every combination of satisfied conditions, built once so that an
+	// evaluation does not have to put it together
+	private static final String[] MISSING_MESSAGES = new String[ALL_CONDITIONS + 1];
+	static {
+		for (int found = 0; found <= ALL_CONDITIONS; found++) {
+			String errMessage = "";
+			if ((found & UPPER_CASE) == 0)
+				errMessage += "Upper case; ";
+			if ((found & LOWER_CASE) == 0)
+				errMessage += "Lower case; ";
+			if ((found & NUMERIC_CHAR) == 0)
+				errMessage += "Numeric digits; ";
+			if ((found & SPECIAL_CHAR) == 0)
+				errMessage += "Special character; ";
+			if ((found & LONG_ENOUGH) == 0)
+				errMessage += "Long Enough; ";
+			MISSING_MESSAGES[found] = errMessage.isEmpty() ? "" : errMessage + "conditions were not satisfied";
+		}
+	}
+
+	// Shared by the static evaluatePassword, which never traces
+	private static final PasswordEvaluator QUIET = new PasswordEvaluator(false);
+
+	private final boolean trace;						// Write the execution trace to the console?
+
+	/**********
+	 * Creates an evaluator that does not write to the console.
 	 */
+	public PasswordEvaluator() {
+		this(false);
+	}
 
-	public static String passwordErrorMessage = "";		// The error message text
-	public static String passwordInput = "";			// The input being processed
-	public static int passwordIndexofError = -1;		// The index where the error was located
-	public static boolean upperCase = false;
-	public static boolean lowerCase = false;
-	public static boolean numericChar = false;
-	public static boolean specialChar = false;
-	public static boolean longEnough = false;
-	public static boolean otherChar = false;
-	private static String inputLine = "";				// The input line
-	private static char currentChar;					// The current character in the line
-	private static int charCounter;					// The index of the current character
-	private static boolean running;						// The flag that specifies if the FSM is 
-														// running
+	/**********
+	 * Creates an evaluator.
+	 * 
+	 * @param trace		When true, every step of the evaluation is written to the console
+	 */
+	public PasswordEvaluator(boolean trace) {
+		this.trace = trace;
+	}
 
 	/**********
 	 * This private method display the input line and then on a line under it displays an up arrow
 	 * at the point where an error should one be detected.  This method is designed to be used to 
 	 * display the error message on the console terminal.
 	 * 
-	 * @param input				The input string
-	 * @param currentCharNdx	The location where an error was found
-	 * @return					Two lines, the entire input line followed by a line with an up arrow
+	 * @param inputLine			The input string
+	 * @param charCounter		The index of the current character
+	 * @param currentChar		The current character
 	 */
-	private static void displayInputState() {
+	private static void displayInputState(String inputLine, int charCounter, char currentChar) {
 		// Display the entire input line
 		System.out.println(inputLine);
 		System.out.println(inputLine.substring(0,charCounter) + "?");
@@ -61,94 +117,70 @@ public class PasswordEvaluator {
 	 * method.
 	 * 
 	 * @param input		The input string for directed graph processing
-	 * @return			An output string that is empty if every things is okay or it will be
-	 * 						a string with a help description of the error follow by two lines
-	 * 						that shows the input line follow by a line with an up arrow at the
-	 *						point where the error was found.
+	 * @return			The result, with an error message that is empty if every things is okay
+	 * 						or a help description of the error and the index of the character
+	 * 						where the error was found.
 	 */
-	public static String evaluatePassword(String input) {
-		// The following are the local variable used to perform the Directed Graph simulation
-		passwordErrorMessage = "";
-		passwordIndexofError = 0;			// Initialize the IndexofError
-		inputLine = input;					// Save the reference to the input line as a global
-		charCounter = 0;					// The index of the current character
-		
-		if(input.length() <= 0) return "*** Error *** The password is empty!";
-		
-		// The input is not empty, so we can access the first character
-		currentChar = input.charAt(0);		// The current character from the above indexed position
+	public Result evaluate(String input) {
+		if(input.length() <= 0)
+			return new Result(EMPTY_MESSAGE, input, 0, false, false, false, false, false, false);
 
-		// The Directed Graph simulation continues until the end of the input is reached or at some 
-		// state the current character does not match any valid transition to a next state
-
-		passwordInput = input;				// Save a copy of the input
-		upperCase = false;				// Reset the Boolean flag
-		lowerCase = false;				// Reset the Boolean flag
-		numericChar = false;			// Reset the Boolean flag
-		specialChar = false;			// Reset the Boolean flag
-		longEnough = false;			// Reset the Boolean flag
-		otherChar = false;			// Reset the Boolean flag
-		running = true;						// Start the loop
+		// The following are the local variable used to perform the Directed Graph simulation
+		int found = 0;						// The conditions satisfied so far
+		int charCounter = 0;				// The index of the current character
 
 		// The Directed Graph simulation continues until the end of the input is reached or at some 
 		// state the current character does not match any valid transition
-		while (running) {
-			displayInputState();
+		while (charCounter < input.length()) {
+			char currentChar = input.charAt(charCounter);
+			if (trace)
+				displayInputState(input, charCounter, currentChar);
 			// The cascading if statement sequentially tries the current character against all of the
 			// valid transitions
 			if (currentChar >= 'A' && currentChar <= 'Z') {
-				System.out.println("Upper case letter found");
-				upperCase = true;
+				if (trace) System.out.println("Upper case letter found");
+				found |= UPPER_CASE;
 			} else if (currentChar >= 'a' && currentChar <= 'z') {
-				System.out.println("Lower case letter found");
-				lowerCase = true;
+				if (trace) System.out.println("Lower case letter found");
+				found |= LOWER_CASE;
 			} else if (currentChar >= '0' && currentChar <= '9') {
-				System.out.println("Digit found");
-				numericChar = true;
-			} else if ("~`!@#$%^&*()_-+{}[]|:,.?/".indexOf(currentChar) >= 0) {
-				System.out.println("Special character found");
-				specialChar = true;
+				if (trace) System.out.println("Digit found");
+				found |= NUMERIC_CHAR;
+			} else if (SPECIAL_CHARACTERS.indexOf(currentChar) >= 0) {
+				if (trace) System.out.println("Special character found");
+				found |= SPECIAL_CHAR;
 			} else {
-				otherChar = true;
-				passwordIndexofError = charCounter;
-				return "*** Error *** An invalid character has been found!";
+				return result(INVALID_CHARACTER_MESSAGE, input, charCounter, found, true);
 			}
 			if (charCounter >= 7) {
-				System.out.println("At least 8 characters found");
-				longEnough = true;
+				if (trace) System.out.println("At least 8 characters found");
+				found |= LONG_ENOUGH;
 			}
-			
+
 			// Go to the next character if there is one
 			charCounter++;
-			if (charCounter >= inputLine.length())
-				running = false;
-			else
-				currentChar = input.charAt(charCounter);
-			
-			System.out.println();
+			if (trace) System.out.println();
 		}
-		
-		String errMessage = "";
-		if (!upperCase)
-			errMessage += "Upper case; ";
-		
-		if (!lowerCase)
-			errMessage += "Lower case; ";
-		
-		if (!numericChar)
-			errMessage += "Numeric digits; ";
-			
-		if (!specialChar)
-			errMessage += "Special character; ";
-			
-		if (!longEnough)
-			errMessage += "Long Enough; ";
-		
-		if (errMessage == "")
-			return "";
-		
-		passwordIndexofError = charCounter;
-		return errMessage + "conditions were not satisfied";
 
+		String errMessage = MISSING_MESSAGES[found];
+		return result(errMessage, input, errMessage.isEmpty() ? -1 : charCounter, found, false);
+	}
+
+	private static Result result(String errorMessage, String input, int indexOfError, int found,
+			boolean otherChar) {
+		return new Result(errorMessage, input, indexOfError, (found & UPPER_CASE) != 0,
+				(found & LOWER_CASE) != 0, (found & NUMERIC_CHAR) != 0, (found & SPECIAL_CHAR) != 0,
+				(found & LONG_ENOUGH) != 0, otherChar);
+	}
+
+	/**********
+	 * Evaluates a password without tracing.
+	 * 
+	 * @param input		The input string for directed graph processing
+	 * @return			An output string that is empty if every things is okay or it will be
+	 * 						a string with a help description of the error
+	 */
+	public static String evaluatePassword(String input) {
+		return QUIET.evaluate(input).errorMessage();
 	}
 }
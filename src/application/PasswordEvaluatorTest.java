@@ -0,0 +1,94 @@
+package application;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PasswordEvaluatorTest {
+
+    private final PasswordEvaluator evaluator = new PasswordEvaluator();
+
+    @Test
+    public void testValidPassword() {
+        PasswordEvaluator.Result result = evaluator.evaluate("Aa!15678");
+        assertTrue(result.isValid());
+        assertEquals("", result.errorMessage());
+        assertEquals(-1, result.indexOfError());
+        assertTrue(result.upperCase() && result.lowerCase() && result.numericChar()
+                && result.specialChar() && result.longEnough());
+        assertFalse(result.otherChar());
+        assertEquals("", PasswordEvaluator.evaluatePassword("Aa!15678"));
+    }
+
+    @Test
+    public void testMissingConditionsAreListed() {
+        PasswordEvaluator.Result result = evaluator.evaluate("A!");
+        assertFalse(result.isValid());
+        assertEquals("Lower case; Numeric digits; Long Enough; conditions were not satisfied", result.errorMessage());
+        assertEquals(2, result.indexOfError());
+        assertTrue(result.upperCase());
+        assertTrue(result.specialChar());
+        assertFalse(result.longEnough());
+    }
+
+    @Test
+    public void testEmptyAndInvalidCharacter() {
+        assertEquals(PasswordEvaluator.EMPTY_MESSAGE, evaluator.evaluate("").errorMessage());
+
+        PasswordEvaluator.Result result = evaluator.evaluate("Aa 1!5678");
+        assertEquals(PasswordEvaluator.INVALID_CHARACTER_MESSAGE, result.errorMessage());
+        assertEquals(2, result.indexOfError());
+        assertTrue(result.otherChar());
+        assertTrue(result.upperCase() && result.lowerCase());
+        assertFalse(result.numericChar());
+    }
+
+    @Test
+    public void testTraceOnlyWhenSwitchedOn() {
+        PrintStream console = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(output));
+            evaluator.evaluate("Aa!15678");
+            assertEquals(0, output.size());
+            new PasswordEvaluator(true).evaluate("Aa!15678");
+        } finally {
+            System.setOut(console);
+        }
+        assertTrue(output.toString().contains("At least 8 characters found"));
+    }
+
+    @Test
+    public void testOneEvaluatorSharedByThreads() throws InterruptedException {
+        String[] passwords = {"Aa!15678", "A!", "Aa 1!5678", "abcdefgh1!"};
+        String[] expected = new String[passwords.length];
+        for (int i = 0; i < passwords.length; i++) {
+            expected[i] = evaluator.evaluate(passwords[i]).errorMessage();
+        }
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    int n = (i + offset) % passwords.length;
+                    PasswordEvaluator.Result result = evaluator.evaluate(passwords[n]);
+                    if (!result.errorMessage().equals(expected[n]) || result.input() != passwords[n]) {
+                        failures.add(passwords[n] + ": " + result);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+}
@@ -1,6 +1,9 @@
 package application;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 
 
 //create a question class
@@ -14,6 +17,21 @@ public class Question {
     private boolean isAnswered;
     private String category;
 
+    //columns a DAO update has to write: each setter of a stored field marks its column
+    public enum Field {
+        TITLE("title"), CONTENT("content"), IS_ANSWERED("isAnswered"), CATEGORY("category");
+
+        private final String column;
+
+        Field(String column) {
+            this.column = column;
+        }
+        public String column() {
+            return column;
+        }
+    }
+    private final Set<Field> dirtyFields = EnumSet.noneOf(Field.class);
+
     //constructor getter and setter
     public Question(String title, String content, String authorUserName) {
         this.title = title;
@@ -23,6 +41,19 @@ public class Question {
         this.updatedAt = LocalDateTime.now();
         this.isAnswered = false;
     }
+
+    //constructor with all fields for db retrieval; the question starts clean
+    public Question(int questionId, String title, String content, String authorUserName, LocalDateTime createdAt,
+                    LocalDateTime updatedAt, boolean isAnswered, String category) {
+        this.questionId = questionId;
+        this.title = title;
+        this.content = content;
+        this.authorUserName = authorUserName;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.isAnswered = isAnswered;
+        this.category = category;
+    }
     //getters and setters
     public String getTitle() {
         return title;
@@ -50,18 +81,22 @@ public class Question {
     }
     public void setCategory(String category) {
         this.category = category;
+        dirtyFields.add(Field.CATEGORY);
     }
     public void setIsAnswered(boolean isAnswered) {
         this.isAnswered = isAnswered;
         this.updatedAt = LocalDateTime.now(); //update the updatedAt time
+        dirtyFields.add(Field.IS_ANSWERED);
     }   
     public void setTitle(String title) {
         this.title = title;
         this.updatedAt = LocalDateTime.now(); //update the updatedAt time
+        dirtyFields.add(Field.TITLE);
     }
     public void setContent(String content) {
         this.content = content;
         this.updatedAt = LocalDateTime.now(); //update the updatedAt time
+        dirtyFields.add(Field.CONTENT);
     }
     public void setAuthorUserName(String authorUserName) {
         this.authorUserName = authorUserName;
@@ -76,6 +111,28 @@ public class Question {
         this.questionId = questionId;
     }  
 
+    //an independent copy with the same fields and the same unsaved changes
+    public Question copy() {
+        Question copy = new Question(questionId, title, content, authorUserName, createdAt, updatedAt, isAnswered, category);
+        copy.dirtyFields.addAll(dirtyFields);
+        return copy;
+    }
+
+    //fields changed since the question was loaded or last saved
+    public Set<Field> getDirtyFields() {
+        return Collections.unmodifiableSet(EnumSet.copyOf(dirtyFields));
+    }
+    public boolean isDirty() {
+        return !dirtyFields.isEmpty();
+    }
+    //called once the stored row matches these fields
+    public void markClean(Set<Field> fields) {
+        dirtyFields.removeAll(fields);
+    }
+    public void markClean() {
+        dirtyFields.clear();
+    }
+
     //display the question
     @Override
     public String toString() {
@@ -0,0 +1,66 @@
+package application;
+
+import java.time.LocalDateTime;
+
+//what the question list shows: a question without its content, plus how many answers it has
+public class QuestionSummary {
+    private final int questionId;
+    private final String title;
+    private final String authorUserName;
+    private final boolean isAnswered;
+    private final String category;
+    private final LocalDateTime createdAt;
+    private final int answerCount;
+
+    //constructor for db retrieval
+    public QuestionSummary(int questionId, String title, String authorUserName, boolean isAnswered,
+                           String category, LocalDateTime createdAt, int answerCount) {
+        this.questionId = questionId;
+        this.title = title;
+        this.authorUserName = authorUserName;
+        this.isAnswered = isAnswered;
+        this.category = category;
+        this.createdAt = createdAt;
+        this.answerCount = answerCount;
+    }
+
+    //the summary of a full question, e.g. after it was edited
+    public static QuestionSummary of(Question question, int answerCount) {
+        return new QuestionSummary(question.getQuestionId(), question.getTitle(), question.getAuthorUserName(),
+                question.getIsAnswered(), question.getCategory(), question.getCreatedAt(), answerCount);
+    }
+
+    //getters
+    public int getQuestionId() {
+        return questionId;
+    }
+    public String getTitle() {
+        return title;
+    }
+    public String getAuthorUserName() {
+        return authorUserName;
+    }
+    public boolean getIsAnswered() {
+        return isAnswered;
+    }
+    public String getCategory() {
+        return category;
+    }
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    public int getAnswerCount() {
+        return answerCount;
+    }
+
+    @Override
+    public String toString() {
+        return "QuestionSummary{" +
+                "questionId=" + questionId +
+                ", title='" + title + '\'' +
+                ", authorUserName='" + authorUserName + '\'' +
+                ", isAnswered=" + isAnswered +
+                ", answerCount=" + answerCount +
+                '}';
+    }
+}
@@ -0,0 +1,71 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//a question together with its answers, their replies and which authors the viewer trusts
+public class QuestionThread {
+    private final Question question;
+    private final Answers answers;
+    private final Map<Integer, Replies> repliesByAnswer;
+    private final Set<String> trustedAuthors;
+
+    //constructor for a thread without trust information
+    public QuestionThread(Question question, Answers answers, Map<Integer, Replies> repliesByAnswer) {
+        this(question, answers, repliesByAnswer, Collections.emptySet());
+    }
+
+    public QuestionThread(Question question, Answers answers, Map<Integer, Replies> repliesByAnswer,
+                          Set<String> trustedAuthors) {
+        this.question = question;
+        this.answers = answers;
+        this.repliesByAnswer = Collections.unmodifiableMap(repliesByAnswer);
+        this.trustedAuthors = trustedAuthors;
+    }
+
+    //an independent copy seen by a viewer who trusts these authors, so a caller can edit the
+    //question, answers and replies without changing this thread
+    public QuestionThread copyFor(Set<String> trustedAuthors) {
+        List<Answer> answerCopies = new ArrayList<>();
+        for (Answer answer : answers.getAllAnswers()) {
+            answerCopies.add(answer.copy());
+        }
+        Map<Integer, Replies> replyCopies = new HashMap<>();
+        for (Map.Entry<Integer, Replies> entry : repliesByAnswer.entrySet()) {
+            List<Reply> copies = new ArrayList<>();
+            for (Reply reply : entry.getValue().getAllReplies()) {
+                copies.add(reply.copy());
+            }
+            replyCopies.put(entry.getKey(), new Replies(copies));
+        }
+        return new QuestionThread(question.copy(), new Answers(answerCopies), replyCopies, trustedAuthors);
+    }
+
+    //getters
+    public Question getQuestion() {
+        return question;
+    }
+    //answers, accepted first and then oldest first
+    public Answers getAnswers() {
+        return answers;
+    }
+    //replies of one answer, oldest first; empty if it has none
+    public Replies getReplies(int answerId) {
+        Replies replies = repliesByAnswer.get(answerId);
+        return replies != null ? replies : new Replies();
+    }
+    //true if the viewer has this author on their trusted reviewer list
+    public boolean isAuthorTrusted(String authorUserName) {
+        return authorUserName != null && trustedAuthors.contains(authorUserName);
+    }
+
+    @Override
+    public String toString() {
+        return "QuestionThread{questionId=" + question.getQuestionId() + ", answers=" + answers.size()
+                + ", answersWithReplies=" + repliesByAnswer.size() + "}";
+    }
+}
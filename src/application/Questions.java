@@ -1,21 +1,20 @@
 package application;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 //manages the collection of questions
 public class Questions {
-    private List<Question> questionList;
+    //in insertion order, indexed by question id
+    private final IndexedList<Question> questionList = new IndexedList<>(Question::getQuestionId, null);
     
     // constructor
     public Questions() {
-        this.questionList = new ArrayList<>();
     }
     
     // constructor with list of questions
     public Questions(List<Question> questions) {
-        this.questionList = new ArrayList<>(questions);
+        questions.forEach(questionList::add);
     }
     
     // add a question
@@ -23,17 +22,14 @@ public class Questions {
         questionList.add(question);
     }
     
-    // get all questions
+    // get all questions, as a read-only view
     public List<Question> getAllQuestions() {
-        return new ArrayList<>(questionList);
+        return questionList.all();
     }
     
     // search by question id
     public Question getQuestionById(int questionId) {
-        return questionList.stream()
-            .filter(q -> q.getQuestionId() == questionId)
-            .findFirst()
-            .orElse(null);
+        return questionList.get(questionId);
     }
     
     // update question
@@ -49,12 +45,12 @@ public class Questions {
     
     // remove question
     public boolean deleteQuestion(int questionId) {
-        return questionList.removeIf(q -> q.getQuestionId() == questionId);
+        return questionList.removeById(questionId);
     }
     
     // search by title
     public Questions searchByTitle(String keyword) {
-        List<Question> filtered = questionList.stream()
+        List<Question> filtered = questionList.all().stream()
             .filter(q -> q.getTitle().toLowerCase().contains(keyword.toLowerCase()))
             .collect(Collectors.toList());
         return new Questions(filtered);
@@ -62,7 +58,7 @@ public class Questions {
     
     // search by content
     public Questions searchByContent(String keyword) {
-        List<Question> filtered = questionList.stream()
+        List<Question> filtered = questionList.all().stream()
             .filter(q -> q.getContent().toLowerCase().contains(keyword.toLowerCase()))
             .collect(Collectors.toList());
         return new Questions(filtered);
@@ -70,7 +66,7 @@ public class Questions {
     
     // category filter
     public Questions filterByCategory(String category) {
-        List<Question> filtered = questionList.stream()
+        List<Question> filtered = questionList.all().stream()
             .filter(q -> category.equals(q.getCategory()))
             .collect(Collectors.toList());
         return new Questions(filtered);
@@ -78,7 +74,7 @@ public class Questions {
     
     // author filter
     public Questions filterByAuthor(String authorUserName) {
-        List<Question> filtered = questionList.stream()
+        List<Question> filtered = questionList.all().stream()
             .filter(q -> authorUserName.equals(q.getAuthorUserName()))
             .collect(Collectors.toList());
         return new Questions(filtered);
@@ -86,7 +82,7 @@ public class Questions {
     
     // answered status filter
     public Questions filterByAnsweredStatus(boolean isAnswered) {
-        List<Question> filtered = questionList.stream()
+        List<Question> filtered = questionList.all().stream()
             .filter(q -> q.getIsAnswered() == isAnswered)
             .collect(Collectors.toList());
         return new Questions(filtered);
@@ -94,7 +90,7 @@ public class Questions {
     
     // title OR content filter
     public Questions search(String keyword) {
-        List<Question> filtered = questionList.stream()
+        List<Question> filtered = questionList.all().stream()
             .filter(q -> q.getTitle().toLowerCase().contains(keyword.toLowerCase()) ||
                         q.getContent().toLowerCase().contains(keyword.toLowerCase()))
             .collect(Collectors.toList());
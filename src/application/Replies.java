@@ -1,21 +1,20 @@
 package application;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 // manages the collection of replies
 public class Replies {
-	private List<Reply> replyList;
+	//in insertion order, indexed by reply id and grouped by answer id
+	private final IndexedList<Reply> replyList = new IndexedList<>(Reply::getReplyId, Reply::getAnswerId);
     
     // constructor
     public Replies() {
-        this.replyList = new ArrayList<>();
     }
     
     // constructor with initial list
     public Replies(List<Reply> replies) {
-        this.replyList = new ArrayList<>(replies);
+        replies.forEach(replyList::add);
     }
     
     // add a new reply
@@ -23,25 +22,19 @@ public class Replies {
         replyList.add(reply);
     }
     
-    // get all replies
+    // get all replies, as a read-only view
     public List<Reply> getAllReplies() {
-        return new ArrayList<>(replyList);
+        return replyList.all();
     }
     
     // get a specific reply by ID
     public Reply getReplyById(int replyId) {
-        return replyList.stream()
-            .filter(a -> a.getReplyId() == replyId)
-            .findFirst()
-            .orElse(null);
+        return replyList.get(replyId);
     }
     
     // get all replies for a specific answer
     public Replies getRepliesForAnswer(int answerId) {
-        List<Reply> filtered = replyList.stream()
-            .filter(a -> a.getAnswerId() == answerId)
-            .collect(Collectors.toList());
-        return new Replies(filtered);
+        return new Replies(replyList.group(answerId));
     }
     
     // update an existing reply
@@ -56,17 +49,17 @@ public class Replies {
     
     // remove a reply
     public boolean deleteReply(int replyId) {
-        return replyList.removeIf(a -> a.getReplyId() == replyId);
+        return replyList.removeById(replyId);
     }
     
     // remove all replies for a specific answer
     public boolean deleteRepliesForAnswer(int answerId) {
-        return replyList.removeIf(a -> a.getAnswerId() == answerId);
+        return replyList.removeGroup(answerId);
     }
     
     // search by content
     public Replies searchByContent(String keyword) {
-        List<Reply> filtered = replyList.stream()
+        List<Reply> filtered = replyList.all().stream()
             .filter(a -> a.getContent().toLowerCase().contains(keyword.toLowerCase()))
             .collect(Collectors.toList());
         return new Replies(filtered);
@@ -74,7 +67,7 @@ public class Replies {
     
     // author filter
     public Replies filterByAuthor(String authorUserName) {
-        List<Reply> filtered = replyList.stream()
+        List<Reply> filtered = replyList.all().stream()
             .filter(a -> authorUserName.equals(a.getAuthorUserName()))
             .collect(Collectors.toList());
         return new Replies(filtered);
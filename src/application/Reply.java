@@ -68,6 +68,10 @@ public class Reply {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+    //an independent copy with the same fields
+    public Reply copy() {
+        return new Reply(replyId, answerId, content, authorUserName, createdAt, updatedAt);
+    }
     @Override
     public String toString() {
         return "Reply{" +
@@ -4,7 +4,11 @@ import javafx.application.Application;
 import javafx.stage.Stage;
 import java.sql.SQLException;
 
+import databasePart1.ChangeFeed;
+import databasePart1.ConnectionPool;
+import databasePart1.DatabaseConfig;
 import databasePart1.DatabaseHelper;
+import databasePart1.DatabaseServer;
 
 
 public class StartCSE360 extends Application {
@@ -19,7 +23,11 @@ public class StartCSE360 extends Application {
 	@Override
     public void start(Stage primaryStage) {
         try {
+            if (DatabaseConfig.get().getMode() == DatabaseConfig.Mode.SERVER) {
+                DatabaseServer.start(DatabaseConfig.get()); // Host the database for the client machines
+            }
             databaseHelper.connectToDatabase(); // Connect to the database
+            ChangeFeed.getInstance().start(); // Pick up what other clients write to the shared database
             if (databaseHelper.isDatabaseEmpty()) {
             	
             	new FirstPage(databaseHelper).show(primaryStage);
@@ -31,6 +39,14 @@ public class StartCSE360 extends Application {
         	System.out.println(e.getMessage());
         }
     }
+
+	@Override
+	public void stop() {
+		ChangeFeed.getInstance().stop();
+		databaseHelper.closeConnection();
+		DatabaseServer.stop();
+		ConnectionPool.shutdownShared(); // Close the pooled connections on exit
+	}
 	
 
 }
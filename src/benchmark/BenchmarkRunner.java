@@ -0,0 +1,128 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The BenchmarkRunner class times a piece of work the way the benchmarks in this package
+ * need it: a number of warm-up runs so the JIT has compiled the hot paths, followed by
+ * measured runs whose median and 95th percentile are reported, together with the
+ * throughput and the bytes allocated per run.
+ *
+ * <p> It is a plain main-method harness; the project has no build file to hang a
+ * benchmarking framework on, so results are indicative rather than rigorous. Allocations
+ * are counted on the calling thread only: work handed to other threads, or done by a
+ * database server in another process when -Dfoundation.db.url names one, is missing from
+ * the figure. </p>
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * One run of the code being measured. The returned value is kept so the JIT cannot
+     * drop the work as unused.
+     */
+    public interface Task {
+        Object run() throws Exception;
+    }
+
+    // filler words the generated text draws from
+    private static final int FILLER_WORDS = 5_000;
+
+    // results of the measured code end up here
+    private static volatile Object sink;
+
+    // counts the bytes each thread allocates; an embedded H2 engine runs on the calling thread
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Timings of one benchmark, in nanoseconds per run, and the bytes the calling thread
+     * allocated per run (-1 when the JVM cannot count allocations).
+     */
+    public record Result(String name, int runs, long medianNanos, long p95Nanos, long minNanos,
+                         long totalNanos, long bytesPerRun) {
+        /**
+         * Runs per second over all measured runs.
+         */
+        public double opsPerSecond() {
+            return totalNanos == 0 ? 0 : runs * 1e9 / totalNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s runs=%6d  median=%10.3f ms  p95=%10.3f ms  min=%10.3f ms  %10.1f ops/s  %10.1f KB/op",
+                    name, runs, medianNanos / 1e6, p95Nanos / 1e6, minNanos / 1e6, opsPerSecond(),
+                    bytesPerRun / 1024.0);
+        }
+    }
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the task warmup times without measuring, then runs times with measuring,
+     * and prints the result.
+     * @param name what is being measured
+     * @param warmup number of unmeasured runs
+     * @param runs number of measured runs
+     * @param task the work
+     * @return the timings
+     */
+    public static Result run(String name, int warmup, int runs, Task task) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            sink = task.run();
+        }
+        long[] nanos = new long[runs];
+        long total = 0;
+        boolean counting = THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled();
+        long allocatedBefore = counting ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            sink = task.run();
+            nanos[i] = System.nanoTime() - start;
+            total += nanos[i];
+        }
+        long bytesPerRun = counting ? (THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore) / runs : -1;
+        Arrays.sort(nanos);
+        Result result = new Result(name, runs, nanos[runs / 2],
+                nanos[Math.min(runs - 1, (int) Math.ceil(runs * 0.95) - 1)], nanos[0], total, bytesPerRun);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * Points the connection pool at a private in-memory database unless the caller already
+     * chose one with -Dfoundation.db.url, so benchmarks never touch the real data.
+     * Must be called before the first database access.
+     * @param name name of the in-memory database
+     */
+    public static void useScratchDatabase(String name) {
+        if (System.getProperty("foundation.db.url") == null) {
+            System.setProperty("foundation.db.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        }
+    }
+
+    /**
+     * Returns random text in which one word in ten is a topic word; the rest is filler skewed
+     * towards the common words, so searches for a topic word have matches of varying rank.
+     * @param random source of the words
+     * @param words number of words
+     * @param topics the topic words
+     */
+    public static String sentence(Random random, int words, String[] topics) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            if (random.nextInt(10) == 0) {
+                text.append(topics[random.nextInt(topics.length)]);
+            } else {
+                int filler = (int) (FILLER_WORDS * Math.pow(random.nextDouble(), 3));
+                text.append("w").append(Integer.toString(filler, 36));
+            }
+        }
+        return text.toString();
+    }
+}
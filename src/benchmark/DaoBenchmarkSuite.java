@@ -0,0 +1,166 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import application.Question;
+import databasePart1.BulkLoader;
+import databasePart1.ConnectionPool;
+import databasePart1.DatasetGenerator;
+import databasePart1.DiscussionBoardDAO;
+import databasePart1.MessagesDAO;
+import databasePart1.QuestionCriteria;
+
+/**
+ * The DaoBenchmarkSuite class measures the hot paths of DiscussionBoardDAO and MessagesDAO
+ * against seeded databases of growing size, so a change that slows one of them down shows
+ * up before a release.
+ *
+ * <p> Usage: java benchmark.DaoBenchmarkSuite [sizes]. Sizes are question counts separated
+ * by commas, 1000,10000 by default; 100000 and more work but take minutes to load, most of
+ * it writing the search index. The rows come from DatasetGenerator, with about two answers
+ * per question and one message per question, and the database grows from one size to the
+ * next. Every result lists throughput and the bytes allocated per operation. </p>
+ *
+ * <p> -Dbenchmark.out=file writes the results as CSV. -Dbenchmark.baseline=file compares
+ * them with an earlier CSV and exits with status 1 when a median got slower by more than
+ * -Dbenchmark.tolerance (0.25 by default). It uses a scratch in-memory database unless
+ * -Dfoundation.db.url is given. </p>
+ */
+public class DaoBenchmarkSuite {
+
+    static final int USERS = 200;
+    static final int TRUSTED_PER_STUDENT = 5;
+    // getAllQuestions loads the whole table; above this size it is left out
+    static final int FULL_SCAN_LIMIT = 100_000;
+    // words the generated text contains, from common to rare
+    static final String[] TOPICS = {"java", "stream", "lambda", "thread", "index", "graph", "parser", "debugger"};
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = Arrays.stream((args.length > 0 ? args[0] : "1000,10000").split(","))
+                .mapToInt(size -> Integer.parseInt(size.trim())).sorted().toArray();
+        BenchmarkRunner.useScratchDatabase("daoBenchmarkSuite");
+
+        List<String> rows = new ArrayList<>();
+        rows.add("size,name,runs,medianNanos,p95Nanos,opsPerSecond,bytesPerRun");
+        DiscussionBoardDAO board = new DiscussionBoardDAO();
+        MessagesDAO messages = new MessagesDAO();
+        try {
+            for (int size : sizes) {
+                int questions = grow(size, size);
+                System.out.printf("%n== %d questions%n", questions);
+                for (BenchmarkRunner.Result result : measure(board, messages, questions)) {
+                    rows.add(size + "," + result.name() + "," + result.runs() + "," + result.medianNanos() + ","
+                            + result.p95Nanos() + "," + String.format(Locale.ROOT, "%.1f", result.opsPerSecond()) + ","
+                            + result.bytesPerRun());
+                }
+            }
+        } finally {
+            board.closeConnection();
+            messages.closeConnection();
+        }
+
+        String out = System.getProperty("benchmark.out");
+        if (out != null) {
+            Files.write(Path.of(out), rows);
+            System.out.println("Results written to " + out);
+        }
+        String baseline = System.getProperty("benchmark.baseline");
+        if (baseline != null) {
+            double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.25"));
+            if (compare(rows, Path.of(baseline), tolerance) > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    // one benchmark per hot path, on random keys drawn from the seeded rows
+    private static List<BenchmarkRunner.Result> measure(DiscussionBoardDAO board, MessagesDAO messages, int questions)
+            throws Exception {
+        Random random = new Random(7);
+        List<BenchmarkRunner.Result> results = new ArrayList<>();
+        results.add(BenchmarkRunner.run("createQuestion", 20, 200, () -> board.createQuestion(
+                new Question(BenchmarkRunner.sentence(random, 6, TOPICS), BenchmarkRunner.sentence(random, 40, TOPICS),
+                        user(random)))));
+        if (questions <= FULL_SCAN_LIMIT) {
+            results.add(BenchmarkRunner.run("getAllQuestions", 2, 10, board::getAllQuestions));
+        }
+        results.add(BenchmarkRunner.run("getAnswersForQuestion", 50, 500,
+                () -> board.getAnswersForQuestion(1 + random.nextInt(questions))));
+        results.add(BenchmarkRunner.run("getRepliesForAnswer", 50, 500,
+                () -> board.getRepliesForAnswer(1 + random.nextInt(questions * 2))));
+        results.add(BenchmarkRunner.run("isReviewerTrusted", 50, 500,
+                () -> board.isReviewerTrusted(user(random), user(random))));
+        results.add(BenchmarkRunner.run("getUserMessages", 20, 200, () -> messages.getUserMessages(user(random))));
+        results.add(BenchmarkRunner.run("getInboxPage (50)", 50, 500,
+                () -> messages.getInboxPage(user(random), false, null, 50)));
+        results.add(BenchmarkRunner.run("searchQuestions (first 50)", 20, 200,
+                () -> board.searchQuestions(TOPICS[random.nextInt(TOPICS.length)], 50, 0)));
+        results.add(BenchmarkRunner.run("filter unanswered by author (50)", 20, 200, () -> board.findQuestionSummaries(
+                new QuestionCriteria().answered(false).author(user(random)), 50, 0)));
+        results.add(BenchmarkRunner.run("filter category (50)", 20, 200, () -> board.findQuestionSummaries(
+                new QuestionCriteria().category("homework"), 50, 0)));
+        return results;
+    }
+
+    // loads a generated dataset with the missing questions; returns the question count
+    private static int grow(int size, long seed) throws SQLException {
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            int missing = size - count(conn);
+            if (missing > 0) {
+                DatasetGenerator dataset = new DatasetGenerator().seed(seed).users(USERS).trustsPerStudent(TRUSTED_PER_STUDENT)
+                        .questions(missing).messages(missing);
+                System.out.println(new BulkLoader(conn).load(dataset));
+            }
+            return count(conn);
+        }
+    }
+
+    private static int count(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM questions")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static String user(Random random) {
+        return "user" + random.nextInt(USERS);
+    }
+
+    // prints every median that got slower than the baseline allows; returns how many did
+    private static int compare(List<String> rows, Path baseline, double tolerance) throws IOException {
+        Map<String, Long> before = new HashMap<>();
+        List<String> lines = Files.readAllLines(baseline);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            before.put(fields[0] + "," + fields[1], Long.parseLong(fields[3]));
+        }
+        int regressions = 0;
+        for (String line : rows.subList(1, rows.size())) {
+            String[] fields = line.split(",");
+            Long old = before.get(fields[0] + "," + fields[1]);
+            long now = Long.parseLong(fields[3]);
+            if (old != null && now > old * (1 + tolerance)) {
+                regressions++;
+                System.out.printf("REGRESSION %s at %s questions: median %.3f ms, baseline %.3f ms%n",
+                        fields[1], fields[0], now / 1e6, old / 1e6);
+            }
+        }
+        System.out.println(regressions == 0 ? "No regressions against " + baseline
+                : regressions + " regression(s) against " + baseline);
+        return regressions;
+    }
+}
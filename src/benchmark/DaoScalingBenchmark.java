@@ -0,0 +1,71 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import application.Answer;
+import application.Question;
+import databasePart1.DatabaseConfig;
+import databasePart1.DiscussionBoardDAO;
+
+/**
+ * The DaoScalingBenchmark class measures whether reads through one shared DiscussionBoardDAO
+ * run in parallel: the same number of answer list reads is timed on one thread and spread
+ * over as many threads as the pool has connections, so no thread waits for one.
+ *
+ * <p> Usage: java benchmark.DaoScalingBenchmark [reads]. The speedup printed at the end is
+ * the ratio of the two medians; it can only go above one on a machine with several cores.
+ * It uses a scratch in-memory database unless -Dfoundation.db.url is given. </p>
+ */
+public class DaoScalingBenchmark {
+
+    private static final int ANSWERS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int reads = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        BenchmarkRunner.useScratchDatabase("daoScalingBenchmark");
+        int threads = DatabaseConfig.get().getPoolSize();
+
+        DiscussionBoardDAO dao = new DiscussionBoardDAO();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            int questionId = dao.createQuestion(new Question("Scaling question", "Scaling content", "author"));
+            for (int i = 0; i < ANSWERS; i++) {
+                dao.createAnswer(new Answer(questionId, "Scaling answer " + i, "author"));
+            }
+
+            BenchmarkRunner.Result single = BenchmarkRunner.run(reads + " reads on 1 thread", 5, 20,
+                    () -> readAnswers(dao, questionId, reads));
+            BenchmarkRunner.Result parallel = BenchmarkRunner.run(reads + " reads on " + threads + " threads", 5, 20,
+                    () -> {
+                        List<Future<Integer>> parts = new ArrayList<>();
+                        for (int t = 0; t < threads; t++) {
+                            parts.add(pool.submit(() -> readAnswers(dao, questionId, reads / threads)));
+                        }
+                        int read = 0;
+                        for (Future<Integer> part : parts) {
+                            read += part.get();
+                        }
+                        return read;
+                    });
+            System.out.printf("speedup %.2f with %d threads on %d cores%n",
+                    (double) single.medianNanos() / parallel.medianNanos(), threads,
+                    Runtime.getRuntime().availableProcessors());
+        } finally {
+            pool.shutdown();
+            dao.closeConnection();
+        }
+    }
+
+    // returns the number of answers read so the results are used
+    private static int readAnswers(DiscussionBoardDAO dao, int questionId, int count) throws Exception {
+        int read = 0;
+        for (int i = 0; i < count; i++) {
+            read += dao.getAnswersForQuestion(questionId).getAllAnswers().size();
+        }
+        return read;
+    }
+}
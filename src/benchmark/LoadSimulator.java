@@ -0,0 +1,359 @@
+package benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import application.Answer;
+import application.Message;
+import application.Reply;
+import databasePart1.BulkLoader;
+import databasePart1.ConnectionPool;
+import databasePart1.DatabaseHelper;
+import databasePart1.DatasetGenerator;
+import databasePart1.DiscussionBoardDAO;
+import databasePart1.MessagesDAO;
+import databasePart1.QuestionCriteria;
+import databasePart1.SchemaMigrations;
+
+/**
+ * The LoadSimulator class finds out how many students can use the discussion board at the
+ * same time. Every simulated student is a virtual thread with its own DatabaseHelper,
+ * DiscussionBoardDAO and MessagesDAO, like a signed-in client, and runs a random mix of
+ * workflows against them with a pause in between. The number of students goes up in steps,
+ * and each step reports throughput, errors and the p50/p95/p99 latency of every workflow.
+ *
+ * <p> Usage: java benchmark.LoadSimulator. Settings are system properties: </p>
+ * <ul>
+ * <li> load.steps: students per step, 1,5,10,25,50,100 by default. </li>
+ * <li> load.stepSeconds: how long each step runs, 10 by default. </li>
+ * <li> load.thinkMillis: the average pause between workflows, 100 by default. </li>
+ * <li> load.mix: weights of the workflows, for example browse:30,open:25,search:15,answer:10,
+ *      reply:10,trust:5,message:5 (the default). </li>
+ * <li> load.questions: questions loaded before the first step when the database has none,
+ *      2000 by default. </li>
+ * <li> load.out: a file to write the step results to as CSV. </li>
+ * </ul>
+ *
+ * <p> It uses a scratch in-memory database unless -Dfoundation.db.url is given, so pointing
+ * it at a server started in server mode measures the shared database itself. The DAOs borrow
+ * a pooled connection for each call only, so the students share the configured pool
+ * (-Dfoundation.db.poolSize) and a wait for a free connection counts in the latency. </p>
+ */
+public class LoadSimulator {
+
+    enum Workflow { BROWSE, OPEN, SEARCH, ANSWER, REPLY, TRUST, MESSAGE }
+
+    // H2 error codes of a lock wait that gave up and of a deadlock
+    static final int LOCK_TIMEOUT = 50200;
+    static final int DEADLOCK = 40001;
+    static final String[] TOPICS = {"java", "stream", "lambda", "thread", "index", "graph", "parser", "debugger"};
+
+    // latencies and errors of one workflow during one step
+    static final class Recorder {
+        private long[] nanos = new long[1_024];
+        private int count;
+        private int errors;
+        private int lockTimeouts;
+        private final Map<String, Integer> errorMessages = new LinkedHashMap<>();
+
+        synchronized void success(long elapsed) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = elapsed;
+        }
+
+        synchronized void failure(SQLException e) {
+            errors++;
+            if (e.getErrorCode() == LOCK_TIMEOUT || e.getErrorCode() == DEADLOCK) {
+                lockTimeouts++;
+            }
+            String message = String.valueOf(e.getMessage());
+            errorMessages.merge(message.length() > 120 ? message.substring(0, 120) : message, 1, Integer::sum);
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized int errors() {
+            return errors;
+        }
+
+        synchronized int lockTimeouts() {
+            return lockTimeouts;
+        }
+
+        synchronized Map<String, Integer> errorMessages() {
+            return new LinkedHashMap<>(errorMessages);
+        }
+
+        synchronized long[] sorted() {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
+
+    // everything recorded while one number of students was running
+    static final class Step {
+        final int students;
+        final Map<Workflow, Recorder> recorders = new EnumMap<>(Workflow.class);
+        long nanos;
+
+        Step(int students) {
+            this.students = students;
+            for (Workflow workflow : Workflow.values()) {
+                recorders.put(workflow, new Recorder());
+            }
+        }
+
+        int succeeded() {
+            return recorders.values().stream().mapToInt(Recorder::count).sum();
+        }
+
+        int errors() {
+            return recorders.values().stream().mapToInt(Recorder::errors).sum();
+        }
+
+        int lockTimeouts() {
+            return recorders.values().stream().mapToInt(Recorder::lockTimeouts).sum();
+        }
+
+        long[] sorted() {
+            return recorders.values().stream().flatMapToLong(r -> Arrays.stream(r.sorted())).sorted().toArray();
+        }
+    }
+
+    private final Workflow[] weighted;
+    private final long thinkMillis;
+    private final int users;
+    private final int questions;
+    private final int answers;
+    private volatile Step current;
+    private volatile boolean running = true;
+
+    LoadSimulator(Map<Workflow, Integer> mix, long thinkMillis, int users, int questions, int answers) {
+        List<Workflow> draws = new ArrayList<>();
+        mix.forEach((workflow, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                draws.add(workflow);
+            }
+        });
+        if (draws.isEmpty()) {
+            throw new IllegalArgumentException("The workflow mix has no weights");
+        }
+        this.weighted = draws.toArray(new Workflow[0]);
+        this.thinkMillis = thinkMillis;
+        this.users = users;
+        this.questions = questions;
+        this.answers = answers;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] steps = Arrays.stream(System.getProperty("load.steps", "1,5,10,25,50,100").split(","))
+                .mapToInt(step -> Integer.parseInt(step.trim())).toArray();
+        long stepSeconds = Long.getLong("load.stepSeconds", 10);
+        long thinkMillis = Long.getLong("load.thinkMillis", 100);
+        Map<Workflow, Integer> mix = parseMix(System.getProperty("load.mix",
+                "browse:30,open:25,search:15,answer:10,reply:10,trust:5,message:5"));
+        int maxStudents = Arrays.stream(steps).max().orElse(1);
+        BenchmarkRunner.useScratchDatabase("loadSimulator");
+
+        int users = Math.max(200, maxStudents);
+        int[] counts = seed(users, Integer.getInteger("load.questions", 2_000));
+        LoadSimulator simulator = new LoadSimulator(mix, thinkMillis, users, counts[0], counts[1]);
+        List<Step> results = simulator.run(steps, stepSeconds);
+
+        String out = System.getProperty("load.out");
+        if (out != null) {
+            List<String> rows = new ArrayList<>();
+            rows.add("students,workflow,count,errors,lockTimeouts,p50Nanos,p95Nanos,p99Nanos,opsPerSecond");
+            for (Step step : results) {
+                step.recorders.forEach((workflow, r) -> {
+                    long[] sorted = r.sorted();
+                    rows.add(step.students + "," + workflow + "," + r.count() + "," + r.errors() + "," + r.lockTimeouts()
+                            + "," + percentile(sorted, 0.50) + "," + percentile(sorted, 0.95) + ","
+                            + percentile(sorted, 0.99) + ","
+                            + String.format(Locale.ROOT, "%.1f", r.count() * 1e9 / step.nanos));
+                });
+            }
+            Files.write(Path.of(out), rows);
+            System.out.println("Results written to " + out);
+        }
+        ConnectionPool.shutdownShared();
+    }
+
+    static Map<Workflow, Integer> parseMix(String mix) {
+        Map<Workflow, Integer> weights = new EnumMap<>(Workflow.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.split(":");
+            weights.put(Workflow.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+
+    // loads a dataset unless there are questions already; returns the question and answer counts
+    private static int[] seed(int users, int questions) throws SQLException {
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            SchemaMigrations.ensureCurrent(conn);
+            if (maxId(conn, "SELECT COUNT(*) FROM questions") == 0) {
+                System.out.println(new BulkLoader(conn).load(new DatasetGenerator().users(users)
+                        .questions(questions).messages(questions)));
+            }
+            return new int[] {maxId(conn, "SELECT MAX(questionId) FROM questions"),
+                    maxId(conn, "SELECT MAX(answerId) FROM answers")};
+        }
+    }
+
+    private static int maxId(Connection conn, String sql) throws SQLException {
+        try (Statement statement = conn.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Runs each step for the given time, adding students as the steps go up, and prints
+     * the results of each step as it ends.
+     */
+    List<Step> run(int[] steps, long stepSeconds) throws InterruptedException {
+        List<Step> results = new ArrayList<>();
+        List<Thread> students = new ArrayList<>();
+        AtomicInteger started = new AtomicInteger();
+        System.out.printf("%n%8s %10s %8s %8s %10s %10s %10s%n",
+                "students", "ops/s", "errors", "locks", "p50 ms", "p95 ms", "p99 ms");
+        try {
+            for (int count : steps) {
+                Step step = new Step(count);
+                current = step;
+                while (students.size() < count) {
+                    int student = started.getAndIncrement();
+                    students.add(Thread.ofVirtual().name("student-" + student).start(() -> simulate(student)));
+                }
+                long start = System.nanoTime();
+                TimeUnit.SECONDS.sleep(stepSeconds);
+                step.nanos = System.nanoTime() - start;
+                results.add(step);
+                print(step);
+            }
+        } finally {
+            running = false;
+            for (Thread student : students) {
+                student.join();
+            }
+        }
+        return results;
+    }
+
+    // one signed-in student: draws a workflow, runs it, pauses, until the simulation ends
+    private void simulate(int student) {
+        String userName = "user" + (student % users);
+        Random random = new Random(student);
+        DatabaseHelper helper = new DatabaseHelper();
+        DiscussionBoardDAO board = null;
+        MessagesDAO messages = null;
+        try {
+            helper.connectToDatabase();
+            board = new DiscussionBoardDAO();
+            messages = new MessagesDAO();
+            while (running) {
+                Workflow workflow = weighted[random.nextInt(weighted.length)];
+                Recorder recorder = current.recorders.get(workflow);
+                long start = System.nanoTime();
+                try {
+                    perform(workflow, userName, random, helper, board, messages);
+                    recorder.success(System.nanoTime() - start);
+                } catch (SQLException e) {
+                    recorder.failure(e);
+                }
+                if (thinkMillis > 0) {
+                    Thread.sleep((long) (-thinkMillis * Math.log(1 - random.nextDouble())));
+                }
+            }
+        } catch (SQLException e) {
+            //the student could not sign in; counted against browsing, the first thing it would do
+            current.recorders.get(Workflow.BROWSE).failure(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            helper.closeConnection();
+            if (board != null) {
+                board.closeConnection();
+            }
+            if (messages != null) {
+                messages.closeConnection();
+            }
+        }
+    }
+
+    private void perform(Workflow workflow, String userName, Random random, DatabaseHelper helper,
+                         DiscussionBoardDAO board, MessagesDAO messages) throws SQLException {
+        switch (workflow) {
+            case BROWSE:
+                board.getQuestionSummariesPage(null, 50);
+                board.findQuestionSummaries(new QuestionCriteria().answered(false), 50, 0);
+                break;
+            case OPEN:
+                board.getThread(1 + random.nextInt(questions), userName);
+                break;
+            case SEARCH:
+                board.searchQuestions(TOPICS[random.nextInt(TOPICS.length)], 50, 0);
+                break;
+            case ANSWER:
+                board.createAnswer(new Answer(1 + random.nextInt(questions), "Load test answer " + random.nextInt(),
+                        userName));
+                break;
+            case REPLY:
+                board.createReply(new Reply(1 + random.nextInt(Math.max(1, answers)), "Load test reply "
+                        + random.nextInt(), userName));
+                break;
+            case TRUST:
+                String reviewer = "user" + random.nextInt(users);
+                if (helper.viewTrust(userName).contains(reviewer)) {
+                    helper.removeTrust(userName, reviewer);
+                } else {
+                    helper.addTrust(userName, reviewer);
+                }
+                break;
+            case MESSAGE:
+                messages.createMessage(new Message("Load test", "Load test message " + random.nextInt(), userName,
+                        "user" + random.nextInt(users)));
+                break;
+            default:
+                throw new IllegalStateException("Unknown workflow " + workflow);
+        }
+    }
+
+    private static void print(Step step) {
+        long[] all = step.sorted();
+        System.out.printf("%8d %10.1f %8d %8d %10.3f %10.3f %10.3f%n", step.students, step.succeeded() * 1e9 / step.nanos,
+                step.errors(), step.lockTimeouts(), percentile(all, 0.50) / 1e6, percentile(all, 0.95) / 1e6,
+                percentile(all, 0.99) / 1e6);
+        step.recorders.forEach((workflow, r) -> {
+            long[] sorted = r.sorted();
+            System.out.printf("%8s %-9s %7d ok %6d failed  p50=%8.3f ms  p95=%8.3f ms  p99=%8.3f ms%n", "",
+                    workflow.name().toLowerCase(), sorted.length, r.errors(), percentile(sorted, 0.50) / 1e6,
+                    percentile(sorted, 0.95) / 1e6, percentile(sorted, 0.99) / 1e6);
+            r.errorMessages().forEach((message, times) -> System.out.printf("%20s %5d x %s%n", "", times, message));
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import application.PasswordEvaluator;
+
+/**
+ * The PasswordEvaluatorBenchmark class measures how many passwords PasswordEvaluator checks
+ * per second: quietly on one thread, with the execution trace switched on (written to a
+ * stream that discards it, so only the cost of building the trace is counted, not the
+ * terminal), and quietly with one evaluator shared by every core.
+ *
+ * <p> Usage: java benchmark.PasswordEvaluatorBenchmark [passwords]. The passwords are
+ * generated: most are valid, some miss a condition and some contain a character that is
+ * not allowed. </p>
+ */
+public class PasswordEvaluatorBenchmark {
+
+    private static final String CHARACTERS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789~`!@#$%^&*()_-+{}[]|:,.?/";
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        String[] passwords = passwords(count, new Random(42));
+        PasswordEvaluator quiet = new PasswordEvaluator();
+        PasswordEvaluator traced = new PasswordEvaluator(true);
+
+        report(count, BenchmarkRunner.run("quiet", 20, 100, () -> evaluateAll(quiet, passwords)));
+
+        PrintStream console = System.out;
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        BenchmarkRunner.Result result;
+        try {
+            System.setOut(discard);
+            result = BenchmarkRunner.run("traced", 2, 10, () -> evaluateAll(traced, passwords));
+        } finally {
+            System.setOut(console);
+        }
+        console.println(result);
+        report(count, result);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        report(count, BenchmarkRunner.run("quiet, shared by " + threads + " threads", 20, 100,
+                () -> IntStream.range(0, passwords.length).parallel()
+                        .filter(i -> quiet.evaluate(passwords[i]).isValid()).count()));
+    }
+
+    // returns the number of valid passwords so the results are used
+    private static int evaluateAll(PasswordEvaluator evaluator, String[] passwords) {
+        int valid = 0;
+        for (String password : passwords) {
+            if (evaluator.evaluate(password).isValid()) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    private static void report(int count, BenchmarkRunner.Result result) {
+        System.out.printf("%-40s %,.0f evaluations/s  %.1f bytes/evaluation%n", result.name(),
+                result.opsPerSecond() * count, (double) result.bytesPerRun() / count);
+    }
+
+    // eight in ten passwords are valid; the rest are too short or contain a space
+    private static String[] passwords(int count, Random random) {
+        String[] passwords = new String[count];
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(10);
+            StringBuilder password = new StringBuilder(kind == 8 ? "a1!" : "Aa1!");
+            int length = kind == 8 ? 2 : 4 + random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                password.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+            }
+            if (kind == 9) {
+                password.insert(random.nextInt(password.length()), ' ');
+            }
+            passwords[i] = password.toString();
+        }
+        return passwords;
+    }
+}
@@ -0,0 +1,102 @@
+package benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import application.Question;
+import databasePart1.ConnectionPool;
+import databasePart1.DiscussionBoardDAO;
+import databasePart1.RowMapper;
+import databasePart1.RowMappers;
+
+/**
+ * The RowMappingBenchmark class measures reading 10k question rows, once with the old
+ * per-row lookup of every column by name and once with RowMappers.QUESTION, which finds the
+ * column positions once per result set. A third run only steps through the rows, so the
+ * query and row fetch cost can be subtracted from both.
+ *
+ * <p> Usage: java benchmark.RowMappingBenchmark [rows]. It uses a scratch in-memory
+ * database unless -Dfoundation.db.url is given. </p>
+ */
+public class RowMappingBenchmark {
+
+    private static final String SQL = "SELECT * FROM questions ORDER BY questionId";
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        BenchmarkRunner.useScratchDatabase("rowMappingBenchmark");
+
+        new DiscussionBoardDAO().closeConnection(); // creates the tables
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            seed(conn, rows);
+            System.out.println("Seeded " + rows + " questions");
+
+            BenchmarkRunner.run("rows only", 10, 50, () -> {
+                int count = 0;
+                try (PreparedStatement pstmt = conn.prepareStatement(SQL); ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        count++;
+                    }
+                }
+                return count;
+            });
+            BenchmarkRunner.run("by name, per row", 10, 50, () -> {
+                List<Question> questions = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(SQL); ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        questions.add(byName(rs));
+                    }
+                }
+                return questions;
+            });
+            BenchmarkRunner.run("RowMappers.QUESTION", 10, 50, () -> {
+                List<Question> questions = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(SQL); ResultSet rs = pstmt.executeQuery()) {
+                    RowMapper<Question> mapper = RowMappers.QUESTION.bind(rs);
+                    while (rs.next()) {
+                        questions.add(mapper.map(rs));
+                    }
+                }
+                return questions;
+            });
+        }
+    }
+
+    // how DiscussionBoardDAO read a question before the row mappers
+    private static Question byName(ResultSet rs) throws SQLException {
+        Question q = new Question(
+            rs.getString("title"),
+            rs.getString("content"),
+            rs.getString("authorUserName")
+        );
+        q.setQuestionId(rs.getInt("questionId"));
+        q.setCreatedAt(rs.getTimestamp("createdAt").toLocalDateTime());
+        q.setUpdatedAt(rs.getTimestamp("updatedAt").toLocalDateTime());
+        q.setIsAnswered(rs.getBoolean("isAnswered"));
+        q.setCategory(rs.getString("category"));
+        q.markClean();
+        return q;
+    }
+
+    // plain inserts; the search index is not needed for reading rows back
+    private static void seed(Connection conn, int rows) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO questions (title, content, authorUserName, category) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setString(1, "Question title " + i);
+                insert.setString(2, "Question content " + i + " with a few more words in it");
+                insert.setString(3, "author" + (i % 50));
+                insert.setString(4, i % 3 == 0 ? "homework" : null);
+                insert.addBatch();
+                if (i % 1_000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+}
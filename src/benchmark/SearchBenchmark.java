@@ -0,0 +1,62 @@
+package benchmark;
+
+import java.util.Random;
+
+import application.Answer;
+import application.Question;
+import databasePart1.DiscussionBoardDAO;
+
+/**
+ * The SearchBenchmark class compares the old discussion board search, which loads every
+ * question and filters them with Questions.search, with the search index queried through
+ * DiscussionBoardDAO.searchQuestions.
+ *
+ * <p> Usage: java benchmark.SearchBenchmark [questions] [answersPerQuestion]. It seeds a
+ * scratch in-memory database unless -Dfoundation.db.url is given. </p>
+ */
+public class SearchBenchmark {
+
+    // topic words the benchmark searches for, mixed into a larger filler vocabulary
+    private static final String[] TOPICS = {
+        "java", "stream", "lambda", "loop", "array", "list", "map", "thread", "database",
+        "query", "index", "class", "method", "interface", "exception", "compile", "debug",
+        "recursion", "sorting", "hash", "tree", "graph", "string", "parse", "javafx", "scene",
+        "button", "layout", "junit", "assert", "homework", "deadline", "project", "review"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int questions = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int answersPerQuestion = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        BenchmarkRunner.useScratchDatabase("searchBenchmark");
+
+        DiscussionBoardDAO dao = new DiscussionBoardDAO();
+        try {
+            seed(dao, questions, answersPerQuestion);
+            System.out.println("Seeded " + questions + " questions with " + answersPerQuestion + " answers each");
+
+            for (String keyword : new String[] {"recursion", "javafx layout", "hash"}) {
+                // what performSearch used to do: load everything, filter in Java
+                BenchmarkRunner.run("scan   '" + keyword + "'", 20, 100,
+                        () -> dao.getAllQuestions().search(keyword));
+                BenchmarkRunner.run("index  '" + keyword + "' (first 50)", 20, 100,
+                        () -> dao.searchQuestions(keyword, 50, 0));
+            }
+        } finally {
+            dao.closeConnection();
+        }
+    }
+
+    // questions and answers of random text in which every topic word has matches
+    private static void seed(DiscussionBoardDAO dao, int questions, int answersPerQuestion) throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < questions; i++) {
+            Question question = new Question(BenchmarkRunner.sentence(random, 6, TOPICS),
+                    BenchmarkRunner.sentence(random, 40, TOPICS), "author" + (i % 50));
+            int questionId = dao.createQuestion(question);
+            for (int a = 0; a < answersPerQuestion; a++) {
+                dao.createAnswer(new Answer(questionId, BenchmarkRunner.sentence(random, 30, TOPICS),
+                        "author" + random.nextInt(50)));
+            }
+        }
+    }
+}
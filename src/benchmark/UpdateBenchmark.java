@@ -0,0 +1,53 @@
+package benchmark;
+
+import application.Question;
+import databasePart1.DiscussionBoardDAO;
+import databasePart1.WriteStats;
+
+/**
+ * The UpdateBenchmark class measures toggling a question's answered flag through
+ * DiscussionBoardDAO.updateQuestion, once the way the page used to save a question (every
+ * field set, so every column is written and the text reindexed) and once with only the flag
+ * changed. WriteStats shows the columns and TEXT characters each run wrote.
+ *
+ * <p> Usage: java benchmark.UpdateBenchmark [contentLength]. It uses a scratch in-memory
+ * database unless -Dfoundation.db.url is given. </p>
+ */
+public class UpdateBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int contentLength = args.length > 0 ? Integer.parseInt(args[0]) : 4_000;
+        BenchmarkRunner.useScratchDatabase("updateBenchmark");
+
+        DiscussionBoardDAO dao = new DiscussionBoardDAO();
+        try {
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; content.length() < contentLength; i++) {
+                content.append("word").append(i).append(' ');
+            }
+            int questionId = dao.createQuestion(new Question("Benchmark question", content.toString(), "author"));
+            Question question = dao.getQuestionById(questionId);
+            WriteStats stats = WriteStats.getInstance();
+
+            stats.reset();
+            BenchmarkRunner.run("full row toggle", 20, 200, () -> {
+                // what a save used to write: every column, whatever changed
+                question.setTitle(question.getTitle());
+                question.setContent(question.getContent());
+                question.setCategory(question.getCategory());
+                question.setIsAnswered(!question.getIsAnswered());
+                return dao.updateQuestion(question);
+            });
+            System.out.println("  " + stats);
+
+            stats.reset();
+            BenchmarkRunner.run("dirty field toggle", 20, 200, () -> {
+                question.setIsAnswered(!question.getIsAnswered());
+                return dao.updateQuestion(question);
+            });
+            System.out.println("  " + stats);
+        } finally {
+            dao.closeConnection();
+        }
+    }
+}
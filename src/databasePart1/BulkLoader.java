@@ -0,0 +1,358 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The BulkLoader class inserts a generated dataset far faster than the DAOs can: rows are
+ * sent in JDBC batches, committed in large transactions, and given their ids up front so
+ * answers, replies and replies to messages need no lookups of the rows they point to. The
+ * search index rows are written alongside the text they index.
+ *
+ * <p> It is meant for benchmarks and load tests on a database nobody else is writing to.
+ * Loaded rows go past the DAOs, so they are not written to the change log and open pages
+ * are not told about them; the thread and trust caches, the only shared caches, are emptied
+ * when the load finishes. Every commit also moves the id counters past the loaded rows and
+ * recounts unread messages, so a load that fails part way leaves the rows it committed
+ * usable by the DAOs. </p>
+ */
+public class BulkLoader {
+
+    // rows sent per batch, and rows per transaction
+    static final int BATCH_SIZE = 1_000;
+    static final int COMMIT_ROWS = 100_000;
+    // search index rows collected before they are sorted and inserted
+    static final int SEARCH_BUFFER_SIZE = 200_000;
+
+    /**
+     * What one load inserted and how long it took.
+     */
+    public record Stats(int users, int questions, int answers, int replies, int trusts, int messages,
+                        long searchRows, long nanos) {
+        public long rows() {
+            return (long) users + questions + answers + replies + trusts + messages + searchRows;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d users, %d questions, %d answers, %d replies, %d trusts, %d messages, "
+                    + "%d search rows in %.1f s (%.0f rows/s)", users, questions, answers, replies, trusts, messages,
+                    searchRows, nanos / 1e9, rows() * 1e9 / Math.max(1, nanos));
+        }
+    }
+
+    private final Connection connection;
+    private boolean indexSearch = true;
+    private int commitRows = COMMIT_ROWS;
+
+    /**
+     * @param connection the connection to load through; it is left in auto-commit mode afterwards
+     */
+    public BulkLoader(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Whether to write search index rows, true by default. Leaving them out makes a load
+     * several times faster when the benchmark does not search.
+     */
+    public BulkLoader indexSearch(boolean indexSearch) {
+        this.indexSearch = indexSearch;
+        return this;
+    }
+
+    /**
+     * Rows inserted per transaction, COMMIT_ROWS by default.
+     */
+    public BulkLoader commitRows(int commitRows) {
+        this.commitRows = commitRows;
+        return this;
+    }
+
+    /**
+     * Inserts every row of the dataset after the rows already in the database.
+     * @param generator the dataset
+     * @return counts and timing of the load
+     */
+    public Stats load(DatasetGenerator generator) throws SQLException {
+        long start = System.nanoTime();
+        SchemaMigrations.ensureCurrent(connection);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Load load = new Load()) {
+            generator.generate(load);
+            load.finish();
+            connection.commit();
+            return new Stats(load.users.rows, load.questions.rows, load.answers.rows, load.replies.rows,
+                    load.trusts.rows, load.messages.rows, load.search.rows, System.nanoTime() - start);
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            ThreadCache.getInstance().invalidateAll();
+            TrustCache.getInstance().invalidateAll();
+        }
+    }
+
+    private record SearchRow(String term, int questionId, String sourceType, int sourceId, int weight)
+            implements Comparable<SearchRow> {
+        @Override
+        public int compareTo(SearchRow other) {
+            int order = term.compareTo(other.term);
+            if (order == 0) {
+                order = Integer.compare(questionId, other.questionId);
+            }
+            if (order == 0) {
+                order = sourceType.compareTo(other.sourceType);
+            }
+            return order != 0 ? order : Integer.compare(sourceId, other.sourceId);
+        }
+    }
+
+    // one insert statement with its pending batch
+    private final class Table implements AutoCloseable {
+        final PreparedStatement insert;
+        int pending;
+        int rows;
+
+        Table(String sql) throws SQLException {
+            insert = connection.prepareStatement(sql);
+        }
+
+        void added() throws SQLException {
+            insert.addBatch();
+            pending++;
+            rows++;
+        }
+
+        void flush() throws SQLException {
+            if (pending > 0) {
+                insert.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            insert.close();
+        }
+    }
+
+    private final class Load implements DatasetGenerator.Sink, AutoCloseable {
+        // ids are assigned after the largest id already in each table
+        final int questionBase = maxId("questionId", "questions");
+        final int answerBase = maxId("answerId", "answers");
+        final int replyBase = maxId("replyId", "replies");
+        final int messageBase = maxId("messageId", "messages");
+
+        // flushed in this order, so a batch never refers to a row that is still pending
+        final Table users = new Table("MERGE INTO cse360users (userName, password, role) KEY (userName) VALUES (?, ?, ?)");
+        final Table trusts = new Table("MERGE INTO trusted_reviewers (studentUserName, reviewerUserName) "
+                + "KEY (studentUserName, reviewerUserName) VALUES (?, ?)");
+        final Table questions = new Table("INSERT INTO questions (questionId, title, content, authorUserName, "
+                + "createdAt, updatedAt, isAnswered, category) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+        final Table answers = new Table("INSERT INTO answers (answerId, questionId, content, authorUserName, "
+                + "createdAt, updatedAt, isAccepted) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        final Table replies = new Table("INSERT INTO replies (replyId, answerId, content, authorUserName, "
+                + "createdAt, updatedAt) VALUES (?, ?, ?, ?, ?, ?)");
+        final Table messages = new Table("INSERT INTO messages (messageId, title, content, authorUserName, "
+                + "receiverUserName, createdAt, updatedAt, readAt, conversationId, parentMessageId) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        final Table search = new Table(SearchIndex.INSERT_SQL);
+        final Table[] tables = {users, trusts, questions, answers, replies, messages, search};
+        final List<SearchRow> searchRows = new ArrayList<>();
+        int uncommitted;
+        // messages sent when unread_counts was last rebuilt
+        int recountedMessages;
+
+        Load() throws SQLException {
+        }
+
+        @Override
+        public void user(int user, String userName, String role) throws SQLException {
+            users.insert.setString(1, userName);
+            users.insert.setString(2, "Password1!");
+            users.insert.setString(3, role);
+            added(users);
+        }
+
+        @Override
+        public void trust(String studentUserName, String reviewerUserName) throws SQLException {
+            trusts.insert.setString(1, studentUserName);
+            trusts.insert.setString(2, reviewerUserName);
+            added(trusts);
+        }
+
+        @Override
+        public void question(int question, String title, String content, String authorUserName, String category,
+                             boolean answered, LocalDateTime createdAt) throws SQLException {
+            int questionId = questionBase + question + 1;
+            PreparedStatement insert = questions.insert;
+            insert.setInt(1, questionId);
+            insert.setString(2, title);
+            insert.setString(3, content);
+            insert.setString(4, authorUserName);
+            insert.setTimestamp(5, Timestamp.valueOf(createdAt));
+            insert.setTimestamp(6, Timestamp.valueOf(createdAt));
+            insert.setBoolean(7, answered);
+            insert.setString(8, category);
+            added(questions);
+            index(questionId, SearchIndex.TITLE, questionId, title, SearchIndex.TITLE_WEIGHT);
+            index(questionId, SearchIndex.QUESTION, questionId, content, SearchIndex.QUESTION_WEIGHT);
+        }
+
+        @Override
+        public void answer(int answer, int question, String content, String authorUserName, boolean accepted,
+                           LocalDateTime createdAt) throws SQLException {
+            int answerId = answerBase + answer + 1;
+            PreparedStatement insert = answers.insert;
+            insert.setInt(1, answerId);
+            insert.setInt(2, questionBase + question + 1);
+            insert.setString(3, content);
+            insert.setString(4, authorUserName);
+            insert.setTimestamp(5, Timestamp.valueOf(createdAt));
+            insert.setTimestamp(6, Timestamp.valueOf(createdAt));
+            insert.setBoolean(7, accepted);
+            added(answers);
+            index(questionBase + question + 1, SearchIndex.ANSWER, answerId, content, SearchIndex.ANSWER_WEIGHT);
+        }
+
+        @Override
+        public void reply(int reply, int answer, int question, String content, String authorUserName,
+                          LocalDateTime createdAt) throws SQLException {
+            int replyId = replyBase + reply + 1;
+            PreparedStatement insert = replies.insert;
+            insert.setInt(1, replyId);
+            insert.setInt(2, answerBase + answer + 1);
+            insert.setString(3, content);
+            insert.setString(4, authorUserName);
+            insert.setTimestamp(5, Timestamp.valueOf(createdAt));
+            insert.setTimestamp(6, Timestamp.valueOf(createdAt));
+            added(replies);
+            index(questionBase + question + 1, SearchIndex.REPLY, replyId, content, SearchIndex.REPLY_WEIGHT);
+        }
+
+        @Override
+        public void message(int message, int conversation, int parent, String title, String content,
+                            String authorUserName, String receiverUserName, boolean read, LocalDateTime createdAt)
+                throws SQLException {
+            PreparedStatement insert = messages.insert;
+            insert.setInt(1, messageBase + message + 1);
+            insert.setString(2, title);
+            insert.setString(3, content);
+            insert.setString(4, authorUserName);
+            insert.setString(5, receiverUserName);
+            insert.setTimestamp(6, Timestamp.valueOf(createdAt));
+            insert.setTimestamp(7, Timestamp.valueOf(createdAt));
+            insert.setTimestamp(8, read ? Timestamp.valueOf(createdAt.plusHours(1)) : null);
+            insert.setInt(9, messageBase + conversation + 1);
+            if (parent < 0) {
+                insert.setNull(10, Types.INTEGER);
+            } else {
+                insert.setInt(10, messageBase + parent + 1);
+            }
+            added(messages);
+        }
+
+        private void index(int questionId, String sourceType, int sourceId, String text, int weight)
+                throws SQLException {
+            if (!indexSearch) {
+                return;
+            }
+            for (Map.Entry<String, Integer> term : SearchIndex.termCounts(text).entrySet()) {
+                searchRows.add(new SearchRow(term.getKey(), questionId, sourceType, sourceId, term.getValue() * weight));
+            }
+            if (searchRows.size() >= SEARCH_BUFFER_SIZE) {
+                flushSearch();
+            }
+        }
+
+        // index rows go in in key order, which H2 inserts much faster than words in text order
+        private void flushSearch() throws SQLException {
+            searchRows.sort(null);
+            for (SearchRow row : searchRows) {
+                search.insert.setString(1, row.term());
+                search.insert.setInt(2, row.questionId());
+                search.insert.setString(3, row.sourceType());
+                search.insert.setInt(4, row.sourceId());
+                search.insert.setInt(5, row.weight());
+                added(search);
+            }
+            searchRows.clear();
+        }
+
+        private void added(Table table) throws SQLException {
+            table.added();
+            uncommitted++;
+            if (table.pending >= BATCH_SIZE || uncommitted >= commitRows) {
+                flushAll();
+            }
+        }
+
+        private void flushAll() throws SQLException {
+            for (Table table : tables) {
+                table.flush();
+            }
+            if (uncommitted >= commitRows) {
+                settle();
+                connection.commit();
+                uncommitted = 0;
+            }
+        }
+
+        // sends what is left and settles the counters; the caller commits
+        void finish() throws SQLException {
+            flushSearch();
+            for (Table table : tables) {
+                table.flush();
+            }
+            settle();
+        }
+
+        // moves the id counters past the rows sent so far and recounts unread messages; the
+        // DDL commits in H2, so this runs right before a commit
+        private void settle() throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                restart(statement, "questions", "questionId", questionBase + questions.rows);
+                restart(statement, "answers", "answerId", answerBase + answers.rows);
+                restart(statement, "replies", "replyId", replyBase + replies.rows);
+                restart(statement, "messages", "messageId", messageBase + messages.rows);
+                if (messages.rows > recountedMessages) {
+                    recountedMessages = messages.rows;
+                    statement.executeUpdate("DELETE FROM unread_counts");
+                    statement.executeUpdate("INSERT INTO unread_counts (userName, unread) SELECT receiverUserName, "
+                            + "COUNT(*) FROM messages WHERE readAt IS NULL GROUP BY receiverUserName");
+                }
+            }
+        }
+
+        private void restart(Statement statement, String table, String column, int lastId) throws SQLException {
+            statement.executeUpdate("ALTER TABLE " + table + " ALTER COLUMN " + column + " RESTART WITH " + (lastId + 1));
+        }
+
+        private int maxId(String column, String table) throws SQLException {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table)) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            for (Table table : tables) {
+                table.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ChangeFeed class tails the change_log table written by {@link ChangeLog}, so a client
+ * sees the questions, answers, replies, messages and trusted reviewers that other clients
+ * sharing the database wrote without anyone pressing Refresh.
+ *
+ * <p> Every poll asks for the rows after the last sequence number it has seen, which is a
+ * range read on the primary key that returns nothing when nothing changed. Changes made by
+ * this process are skipped, since the DAOs already published them. The others drop what they
+ * touched from the thread cache and the trust cache, and are then
+ * published on the {@link DataChangeBus}, where the open pages patch their lists as they do
+ * for local changes. A feed starts at the current end of the log. </p>
+ */
+public class ChangeFeed {
+
+    static final long POLL_MILLIS = 2_000;
+    static final int BATCH_SIZE = 500;
+    // rows older than this are deleted when a feed starts and then every PRUNE_MILLIS; a feed
+    // never reads back that far
+    static final long RETENTION_HOURS = 24;
+    static final long PRUNE_MILLIS = 60 * 60 * 1_000;
+
+    private static ChangeFeed shared;
+
+    private final String origin;
+    // last sequence number read, -1 until the feed has found the end of the log; guarded by this
+    private long lastSeq = -1;
+    private ScheduledExecutorService poller;
+    // when the log was last pruned; guarded by this
+    private long prunedAt;
+
+    /**
+     * Returns the feed of this process, which skips the changes made by this process.
+     */
+    public static synchronized ChangeFeed getInstance() {
+        if (shared == null) {
+            shared = new ChangeFeed(ChangeLog.ORIGIN);
+        }
+        return shared;
+    }
+
+    // a feed that skips the changes written with this origin
+    ChangeFeed(String origin) {
+        this.origin = origin;
+    }
+
+    /**
+     * Drops old log rows and starts polling in the background; old rows are dropped again
+     * every PRUNE_MILLIS while it runs. Does nothing if already started.
+     */
+    public synchronized void start() throws SQLException {
+        if (poller != null) {
+            return;
+        }
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            SchemaMigrations.ensureCurrent(conn);
+        }
+        prune();
+        poll();
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "change-feed");
+            t.setDaemon(true);
+            return t;
+        });
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+                pruneIfDue();
+            } catch (SQLException | RuntimeException e) {
+                e.printStackTrace(); // try again on the next poll
+            }
+        }, POLL_MILLIS, POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops polling.
+     */
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    /**
+     * Deletes the log rows older than the retention period, a range read on the changedAt index.
+     * @return the number of rows deleted
+     */
+    synchronized int prune() throws SQLException {
+        prunedAt = System.currentTimeMillis();
+        try (Connection conn = ConnectionPool.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM change_log WHERE changedAt < ?")) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now().minusHours(RETENTION_HOURS)));
+            return pstmt.executeUpdate();
+        }
+    }
+
+    private synchronized void pruneIfDue() throws SQLException {
+        if (System.currentTimeMillis() - prunedAt >= PRUNE_MILLIS) {
+            prune();
+        }
+    }
+
+    /**
+     * Reads the changes logged since the last poll and publishes those made by other processes.
+     * The first poll only finds the end of the log.
+     * @return the changes published, oldest first
+     */
+    synchronized List<DataChangeEvent> poll() throws SQLException {
+        List<DataChangeEvent> remote = new ArrayList<>();
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            if (lastSeq < 0) {
+                try (PreparedStatement pstmt = conn.prepareStatement("SELECT COALESCE(MAX(seq), 0) FROM change_log");
+                     ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    lastSeq = rs.getLong(1);
+                }
+                return remote;
+            }
+            int read;
+            do {
+                read = 0;
+                try (PreparedStatement pstmt = conn.prepareStatement("SELECT seq, entity, kind, entityId, questionId, "
+                        + "receiverUserName, origin FROM change_log WHERE seq > ? ORDER BY seq LIMIT ?")) {
+                    pstmt.setLong(1, lastSeq);
+                    pstmt.setInt(2, BATCH_SIZE);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            read++;
+                            lastSeq = rs.getLong(1);
+                            if (!origin.equals(rs.getString(7))) {
+                                remote.add(new DataChangeEvent(DataChangeEvent.Entity.valueOf(rs.getString(2)),
+                                        DataChangeEvent.Kind.valueOf(rs.getString(3)), rs.getInt(4), rs.getInt(5),
+                                        rs.getString(6)));
+                            }
+                        }
+                    }
+                }
+            } while (read == BATCH_SIZE);
+        }
+        if (!remote.isEmpty()) {
+            forgetCached(remote);
+            DataChangeBus.getInstance().publish(remote);
+        }
+        return remote;
+    }
+
+    //drop what the caches read before another client changed it, before the pages hear of it
+    private static void forgetCached(List<DataChangeEvent> changes) {
+        boolean board = false;
+        for (DataChangeEvent change : changes) {
+            switch (change.entity()) {
+                case MESSAGE:
+                    break; // messages are not cached
+                case TRUST:
+                    TrustCache.getInstance().invalidate(change.userName());
+                    break;
+                default:
+                    board = true;
+            }
+        }
+        if (board) {
+            ThreadCache.getInstance().invalidateAll();
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last change read, or -1 before the first poll.
+     */
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+}
@@ -0,0 +1,65 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The ChangeLog class writes every committed change to the change_log table, so clients in
+ * other processes sharing the database can pick up what changed with {@link ChangeFeed}.
+ *
+ * <p> DiscussionBoardDAO and MessagesDAO append their changes, trusted reviewer lists
+ * included, inside the transaction that made them. The user name of a change goes in the
+ * receiverUserName column. Sequence numbers come from the single row of change_log_seq; the
+ * row stays locked until the writer commits, so numbers are handed out in commit order and a
+ * rolled back transaction leaves no gap. A reader that has seen seq N therefore never misses
+ * a later change by asking for everything after N. </p>
+ */
+public class ChangeLog {
+
+    // identifies this process in change_log.origin, so a feed can skip its own changes
+    static final String ORIGIN = UUID.randomUUID().toString();
+
+    private ChangeLog() {
+    }
+
+    /**
+     * Records the changes of a transaction. Call it last, right before the commit, since it
+     * holds the sequence lock from here until the transaction ends.
+     * @param tx the connection of the transaction that made the changes
+     * @param changes the changes, in the order they were made
+     */
+    static void append(Connection tx, List<DataChangeEvent> changes) throws SQLException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        long last;
+        try (PreparedStatement pstmt = tx.prepareStatement("UPDATE change_log_seq SET seq = seq + ? WHERE id = 1")) {
+            pstmt.setInt(1, changes.size());
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = tx.prepareStatement("SELECT seq FROM change_log_seq WHERE id = 1");
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            last = rs.getLong(1);
+        }
+        long seq = last - changes.size();
+        try (PreparedStatement pstmt = tx.prepareStatement("INSERT INTO change_log "
+                + "(seq, entity, kind, entityId, questionId, receiverUserName, origin) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (DataChangeEvent change : changes) {
+                pstmt.setLong(1, ++seq);
+                pstmt.setString(2, change.entity().name());
+                pstmt.setString(3, change.kind().name());
+                pstmt.setInt(4, change.id());
+                pstmt.setInt(5, change.questionId());
+                pstmt.setString(6, change.userName());
+                pstmt.setString(7, ORIGIN);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package databasePart1;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The ConnectionPool class is the single, process-wide source of database connections.
+ * DatabaseHelper, DiscussionBoardDAO and MessagesDAO borrow connections from it instead of
+ * opening their own, and calling close() on a borrowed connection hands it back to the pool.
+ *
+ * <p> The pool is bounded, validates idle connections before handing them out, evicts
+ * connections that have been idle for too long and logs connections that are held past the
+ * leak threshold together with the stack trace of the code that borrowed them. The URL,
+ * credentials, pool size and statement cache size are read from {@link DatabaseConfig}
+ * when the pool is created. </p>
+ */
+public class ConnectionPool {
+
+    // JDBC driver name; the URL, credentials and sizes come from DatabaseConfig
+    static final String JDBC_DRIVER = "org.h2.Driver";
+
+    // pool limits and timings
+    static final int MIN_IDLE = 1;
+    static final long BORROW_TIMEOUT_MILLIS = 5_000;
+    static final long VALIDATE_AFTER_IDLE_MILLIS = 1_000;
+    static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    static final long IDLE_TIMEOUT_MILLIS = 5 * 60_000;
+    static final long LEAK_THRESHOLD_MILLIS = 10 * 60_000;
+    static final long HOUSEKEEPING_PERIOD_MILLIS = 30_000;
+
+    private static ConnectionPool instance;
+
+    private final DatabaseConfig config;
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Map<Lease, Boolean> leases = new ConcurrentHashMap<>();
+    private final Set<PooledConnection> open = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown;
+
+    // counters
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+
+    /**
+     * Returns the shared pool, creating it on first use.
+     * @return the process-wide connection pool
+     */
+    public static synchronized ConnectionPool getInstance() throws SQLException {
+        if (instance == null || instance.shutdown) {
+            instance = new ConnectionPool();
+        }
+        return instance;
+    }
+
+    private ConnectionPool() throws SQLException {
+        config = DatabaseConfig.get();
+        permits = new Semaphore(config.getPoolSize(), true);
+        try {
+            Class.forName(JDBC_DRIVER); // Load the JDBC driver
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("JDBC Driver not found: " + e.getMessage(), e);
+        }
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_PERIOD_MILLIS, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting up to the borrow timeout when all
+     * connections are in use. Closing the returned connection gives it back to the pool.
+     * @return a validated connection
+     */
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        try {
+            if (!permits.tryAcquire(BORROW_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + BORROW_TIMEOUT_MILLIS
+                        + " ms waiting for a database connection (pool size " + config.getPoolSize() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(
+                        DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword()),
+                        config.getStatementCacheSize());
+                open.add(pooled);
+                created.incrementAndGet();
+            }
+            borrowed.incrementAndGet();
+            return new Lease(pooled).proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // most recently used first, so the least used connections age out
+    private PooledConnection takeValidIdle() {
+        while (true) {
+            PooledConnection pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - pooled.lastUsed < VALIDATE_AFTER_IDLE_MILLIS || pooled.isValid()) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        open.remove(pooled);
+        pooled.closeQuietly();
+        evicted.incrementAndGet();
+    }
+
+    private void release(Lease lease) {
+        leases.remove(lease);
+        PooledConnection pooled = lease.pooled;
+        boolean reusable = !shutdown && pooled.reset();
+        if (reusable) {
+            pooled.lastUsed = System.currentTimeMillis();
+            synchronized (idle) {
+                idle.addFirst(pooled);
+            }
+        } else {
+            discard(pooled);
+        }
+        permits.release();
+    }
+
+    // evict connections idle for too long and report leases held past the leak threshold
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        synchronized (idle) {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > MIN_IDLE) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastUsed > IDLE_TIMEOUT_MILLIS) {
+                    it.remove();
+                    discard(pooled);
+                }
+            }
+        }
+        for (Lease lease : leases.keySet()) {
+            if (!lease.leakReported && now - lease.borrowedAt > LEAK_THRESHOLD_MILLIS) {
+                lease.leakReported = true;
+                leaksDetected.incrementAndGet();
+                System.err.println("Possible connection leak: connection held for "
+                        + (now - lease.borrowedAt) / 1000 + " s, borrowed at:");
+                lease.borrowSite.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops the housekeeping thread. Connections that are
+     * still borrowed are closed as they are returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        synchronized (idle) {
+            for (PooledConnection pooled : idle) {
+                open.remove(pooled);
+                pooled.closeQuietly();
+            }
+            idle.clear();
+        }
+    }
+
+    /**
+     * Shuts down the shared pool if one has been created.
+     */
+    public static synchronized void shutdownShared() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    // pool statistics
+    public int getActiveCount() {
+        return leases.size();
+    }
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+    public long getCreatedCount() {
+        return created.get();
+    }
+    public long getBorrowedCount() {
+        return borrowed.get();
+    }
+    public long getEvictedCount() {
+        return evicted.get();
+    }
+    public long getLeaksDetected() {
+        return leaksDetected.get();
+    }
+    public long getStatementCacheHits() {
+        long hits = 0;
+        for (PooledConnection pooled : open) hits += pooled.statements.getHits();
+        return hits;
+    }
+    public long getStatementCacheMisses() {
+        long misses = 0;
+        for (PooledConnection pooled : open) misses += pooled.statements.getMisses();
+        return misses;
+    }
+
+    /**
+     * Summarizes the prepared statement caches of all open connections.
+     * @return hit, miss and eviction counts with the overall hit rate
+     */
+    public String getStatementCacheStats() {
+        long hits = 0, misses = 0, evictions = 0;
+        for (PooledConnection pooled : open) {
+            hits += pooled.statements.getHits();
+            misses += pooled.statements.getMisses();
+            evictions += pooled.statements.getEvictions();
+        }
+        return StatementCache.describe(hits, misses, evictions);
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool{" +
+                "active=" + getActiveCount() +
+                ", idle=" + getIdleCount() +
+                ", created=" + created +
+                ", borrowed=" + borrowed +
+                ", evicted=" + evicted +
+                ", leaks=" + leaksDetected +
+                ", " + getStatementCacheStats() +
+                '}';
+    }
+
+    // a physical connection owned by the pool, with its prepared statement cache
+    private static class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        PooledConnection(Connection physical, int statementCacheSize) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, statementCacheSize);
+        }
+
+        boolean isValid() {
+            try {
+                return physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        // undo anything the borrower left behind; false if the connection is unusable
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closeQuietly() {
+            statements.closeAll();
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // one borrow of a pooled connection; close() on the proxy returns it to the pool
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final Connection proxy;
+        private final long borrowedAt = System.currentTimeMillis();
+        private final Throwable borrowSite = new Throwable("connection borrowed here");
+        private volatile boolean closed;
+        private volatile boolean leakReported;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, this);
+            leases.put(this, Boolean.TRUE);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + (closed ? ", returned]" : "]");
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            // constant-SQL statements come from the per-connection cache
+            if ("prepareStatement".equals(method.getName())) {
+                if (args.length == 1) {
+                    return pooled.statements.prepare(this.proxy, (String) args[0], StatementCache.PLAIN);
+                }
+                if (args.length == 2 && args[1] instanceof Integer) {
+                    return pooled.statements.prepare(this.proxy, (String) args[0], (Integer) args[1]);
+                }
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
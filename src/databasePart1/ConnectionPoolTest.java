@@ -0,0 +1,139 @@
+package databasePart1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * JUnit4 tests for the shared connection pool.
+ */
+public class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp() throws SQLException {
+        pool = ConnectionPool.getInstance();
+    }
+
+    @Test
+    public void testClosedConnectionIsReused() throws SQLException {
+        Connection first = pool.getConnection();
+        int active = pool.getActiveCount();
+        first.close();
+        assertEquals(active - 1, pool.getActiveCount());
+
+        long created = pool.getCreatedCount();
+        Connection second = pool.getConnection();
+        assertEquals(created, pool.getCreatedCount());
+        second.close();
+    }
+
+    @Test
+    public void testReturnedConnectionCannotBeUsed() throws SQLException {
+        Connection connection = pool.getConnection();
+        connection.close();
+        assertTrue(connection.isClosed());
+        try {
+            connection.createStatement();
+            fail("A returned connection should not be usable");
+        } catch (SQLException e) {
+            // expected
+        }
+        // closing twice must not return it to the pool twice
+        connection.close();
+    }
+
+    @Test
+    public void testUncommittedWorkIsRolledBackOnReturn() throws SQLException {
+        Connection connection = pool.getConnection();
+        connection.setAutoCommit(false);
+        connection.close();
+
+        Connection again = pool.getConnection();
+        assertTrue(again.getAutoCommit());
+        assertFalse(again.isClosed());
+        again.close();
+    }
+
+    @Test
+    public void testPreparedStatementsAreCached() throws SQLException {
+        String sql = "SELECT ? + 1";
+        try (Connection connection = pool.getConnection()) {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, 1);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(2, rs.getInt(1));
+                }
+            }
+            long hits = pool.getStatementCacheHits();
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, 41);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(42, rs.getInt(1));
+                }
+            }
+            assertEquals(hits + 1, pool.getStatementCacheHits());
+        }
+    }
+
+    @Test
+    public void testSameSqlCanBeOpenTwice() throws SQLException {
+        String sql = "SELECT ?";
+        try (Connection connection = pool.getConnection();
+             PreparedStatement first = connection.prepareStatement(sql);
+             PreparedStatement second = connection.prepareStatement(sql)) {
+            first.setInt(1, 1);
+            second.setInt(1, 2);
+            try (ResultSet a = first.executeQuery(); ResultSet b = second.executeQuery()) {
+                assertTrue(a.next() && b.next());
+                assertEquals(1, a.getInt(1));
+                assertEquals(2, b.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    public void testReturnedStatementForgetsPendingBatchAndSettings() throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            try (Statement ddl = connection.createStatement()) {
+                ddl.execute("CREATE LOCAL TEMPORARY TABLE cache_test (n INT)");
+            }
+            String insert = "INSERT INTO cache_test (n) VALUES (?)";
+            try (PreparedStatement pstmt = connection.prepareStatement(insert)) {
+                pstmt.setInt(1, 1);
+                pstmt.addBatch();
+                // closed without executing the batch, as a failed load would
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(insert)) {
+                pstmt.setInt(1, 2);
+                pstmt.addBatch();
+                assertEquals(1, pstmt.executeBatch().length);
+            }
+
+            String select = "SELECT n FROM cache_test ORDER BY n";
+            try (PreparedStatement pstmt = connection.prepareStatement(select)) {
+                pstmt.setMaxRows(1);
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(select);
+                 ResultSet rs = pstmt.executeQuery()) {
+                assertEquals(0, pstmt.getMaxRows());
+                assertTrue(rs.next());
+                assertEquals(2, rs.getInt(1));
+                assertFalse(rs.next());
+            }
+        }
+    }
+}
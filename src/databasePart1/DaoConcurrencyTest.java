@@ -0,0 +1,146 @@
+package databasePart1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import application.Answer;
+import application.Message;
+import application.Question;
+
+/**
+ * JUnit4 stress tests for DAOs shared by many threads, on a private in-memory database.
+ */
+public class DaoConcurrencyTest {
+
+    private static final String AUTHOR = "concurrencyTestAuthor";
+    private static final String RECEIVER = "concurrencyTestReceiver";
+    // the default pool size, so no thread waits for a connection
+    private static final int THREADS = 8;
+
+    private DiscussionBoardDAO board;
+    private MessagesDAO messages;
+    private int questionId;
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    @BeforeClass
+    public static void useScratchDatabase() throws SQLException {
+        ScratchDatabase.use("daoConcurrencyTest");
+    }
+
+    @AfterClass
+    public static void restoreDatabase() throws SQLException {
+        ScratchDatabase.restore();
+    }
+
+    @Before
+    public void setUp() throws SQLException {
+        board = new DiscussionBoardDAO();
+        messages = new MessagesDAO();
+        questionId = board.createQuestion(new Question("Concurrency question", "Concurrency content", AUTHOR));
+    }
+
+    @After
+    public void shutDown() throws SQLException {
+        board.deleteQuestionCascade(questionId);
+        try (Connection conn = ConnectionPool.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM messages WHERE receiverUserName = ?");
+             PreparedStatement counter = conn.prepareStatement("DELETE FROM unread_counts WHERE userName = ?")) {
+            pstmt.setString(1, RECEIVER);
+            pstmt.executeUpdate();
+            counter.setString(1, RECEIVER);
+            counter.executeUpdate();
+        }
+    }
+
+    // runs the worker on every thread at once and fails with the first error any of them hit
+    private static void runConcurrently(int threads, Worker worker) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> running = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            running.add(new Thread(() -> {
+                try {
+                    start.await();
+                    worker.run(thread);
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+        running.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : running) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError("A thread failed", failures.get(0));
+        }
+    }
+
+    @Test
+    public void testSharedDaosKeepEveryWrite() throws Exception {
+        int perThread = 25;
+        Set<Integer> answerIds = Collections.synchronizedSet(new HashSet<>());
+        Set<Integer> messageIds = Collections.synchronizedSet(new HashSet<>());
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < perThread; i++) {
+                answerIds.add(board.createAnswer(new Answer(questionId, "Answer " + thread + "-" + i, AUTHOR)));
+                messageIds.add(messages.createMessage(new Message("Concurrent", "Message " + thread + "-" + i,
+                        AUTHOR, RECEIVER)));
+                //reads in between see at least this thread's own writes
+                assertTrue(board.getAnswersForQuestion(questionId).getAllAnswers().size() > i);
+                assertTrue(board.getThread(questionId, AUTHOR).getAnswers().size() > i);
+            }
+        });
+
+        assertEquals(THREADS * perThread, answerIds.size());
+        assertEquals(THREADS * perThread, messageIds.size());
+        assertEquals(THREADS * perThread, board.getAnswersForQuestion(questionId).getAllAnswers().size());
+        assertEquals(THREADS * perThread, messages.getUnreadCount(RECEIVER));
+        assertEquals(THREADS * perThread, messages.getUserMessages(RECEIVER).getAllMessages().size());
+    }
+
+    @Test
+    public void testUnreadCountMatchesInboxWhileReadingAll() throws Exception {
+        int perThread = 25;
+        int[] marked = new int[THREADS];
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < perThread; i++) {
+                if (thread == 0) {
+                    marked[thread] += messages.markAllRead(RECEIVER);
+                } else {
+                    messages.createMessage(new Message("Concurrent", "Message " + thread + "-" + i, AUTHOR, RECEIVER));
+                }
+            }
+        });
+
+        int unread = 0;
+        for (Message message : messages.getUserMessages(RECEIVER).getAllMessages()) {
+            if (!message.isRead()) {
+                unread++;
+            }
+        }
+        assertEquals(unread, messages.getUnreadCount(RECEIVER));
+        assertEquals((THREADS - 1) * perThread, marked[0] + unread);
+    }
+}
@@ -0,0 +1,65 @@
+package databasePart1;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * The DataChangeBus class tells the open pages what the DAOs changed, so they can patch
+ * the rows that changed instead of reloading their lists.
+ *
+ * <p> Events are published after the transaction that made the change has committed, on
+ * the thread that made it; a listener that touches the UI has to hand the event over to
+ * the JavaFX thread itself. A listener that throws does not stop the others. </p>
+ */
+public class DataChangeBus {
+
+    private static final DataChangeBus SHARED = new DataChangeBus();
+
+    private final List<Consumer<DataChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * A registered listener; cancel it when the page closes.
+     */
+    public interface Subscription {
+        void cancel();
+    }
+
+    /**
+     * Returns the process-wide bus.
+     */
+    public static DataChangeBus getInstance() {
+        return SHARED;
+    }
+
+    /**
+     * Registers a listener for every event published from now on.
+     */
+    public Subscription subscribe(Consumer<DataChangeEvent> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Hands the events to every listener, in order.
+     */
+    void publish(List<DataChangeEvent> events) {
+        for (DataChangeEvent event : events) {
+            for (Consumer<DataChangeEvent> listener : listeners) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    void publish(DataChangeEvent event) {
+        publish(List.of(event));
+    }
+
+    public int getListenerCount() {
+        return listeners.size();
+    }
+}
@@ -0,0 +1,37 @@
+package databasePart1;
+
+/**
+ * A committed change to the discussion board, the messages or a trusted reviewer list,
+ * published on the {@link DataChangeBus} by DiscussionBoardDAO and MessagesDAO.
+ *
+ * @param entity what kind of row changed
+ * @param kind whether it was created, updated or deleted
+ * @param id the id of the row, or 0 when several rows of the question changed at once or
+ *           the row has no id
+ * @param questionId the question the row belongs to, for questions, answers and replies;
+ *                   0 otherwise
+ * @param userName who the message was sent to, for messages; the student whose trusted
+ *                 reviewer list changed, for trust; null otherwise
+ */
+public record DataChangeEvent(Entity entity, Kind kind, int id, int questionId, String userName) {
+
+    public enum Entity { QUESTION, ANSWER, REPLY, MESSAGE, TRUST }
+
+    public enum Kind { CREATED, UPDATED, DELETED }
+
+    static DataChangeEvent question(Kind kind, int questionId) {
+        return new DataChangeEvent(Entity.QUESTION, kind, questionId, questionId, null);
+    }
+    static DataChangeEvent answer(Kind kind, int answerId, int questionId) {
+        return new DataChangeEvent(Entity.ANSWER, kind, answerId, questionId, null);
+    }
+    static DataChangeEvent reply(Kind kind, int replyId, int questionId) {
+        return new DataChangeEvent(Entity.REPLY, kind, replyId, questionId, null);
+    }
+    static DataChangeEvent message(Kind kind, int messageId, String receiverUserName) {
+        return new DataChangeEvent(Entity.MESSAGE, kind, messageId, 0, receiverUserName);
+    }
+    static DataChangeEvent trust(Kind kind, String studentUserName) {
+        return new DataChangeEvent(Entity.TRUST, kind, 0, 0, studentUserName);
+    }
+}
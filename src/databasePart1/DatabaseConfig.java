@@ -0,0 +1,195 @@
+package databasePart1;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * The DatabaseConfig class is the one place the data source is configured: the JDBC URL,
+ * the credentials, the pool and cache sizes, extra H2 settings and how this process reaches
+ * the database.
+ *
+ * <p> Settings are read from foundation-db.properties in the home directory (or the file
+ * named by -Dfoundation.db.config), and every key can be overridden with a system property
+ * of the same name. Without either, the application keeps using the embedded database at
+ * ~/FoundationDatabase as before. </p>
+ *
+ * <p> The modes are: </p>
+ * <ul>
+ * <li> embedded: this process opens the database file and holds its lock. </li>
+ * <li> auto-server: the first process opens the file and serves it to every later process
+ *      on the same data directory (H2 AUTO_SERVER). </li>
+ * <li> server: this process opens the file and hosts it over TCP, see {@link DatabaseServer}. </li>
+ * <li> client: this process connects to a host started in server mode. </li>
+ * </ul>
+ */
+public class DatabaseConfig {
+
+    public enum Mode { EMBEDDED, AUTO_SERVER, SERVER, CLIENT }
+
+    // keys of the properties file and of the system properties that override it
+    static final String CONFIG_FILE = "foundation.db.config";
+    static final String URL = "foundation.db.url";
+    static final String MODE = "foundation.db.mode";
+    static final String PATH = "foundation.db.path";
+    static final String HOST = "foundation.db.host";
+    static final String PORT = "foundation.db.port";
+    static final String ALLOW_OTHERS = "foundation.db.allowOthers";
+    static final String USER = "foundation.db.user";
+    static final String PASSWORD = "foundation.db.password";
+    static final String POOL_SIZE = "foundation.db.poolSize";
+    static final String STATEMENT_CACHE_SIZE = "foundation.db.statementCacheSize";
+    static final String CACHE_SIZE_KB = "foundation.db.cacheSizeKb";
+    static final String OPTIONS = "foundation.db.options";
+
+    private static DatabaseConfig current;
+
+    private final Mode mode;
+    private final String url;
+    private final String path;
+    private final String host;
+    private final int port;
+    private final boolean allowOthers;
+    private final String user;
+    private final String password;
+    private final int poolSize;
+    private final int statementCacheSize;
+
+    /**
+     * Returns the configuration of this process, reading it on first use.
+     */
+    public static synchronized DatabaseConfig get() throws SQLException {
+        if (current == null) {
+            current = load();
+        }
+        return current;
+    }
+
+    /**
+     * Reads the configuration file, if there is one, and the system properties again.
+     * The pool keeps the configuration it was created with.
+     */
+    public static synchronized DatabaseConfig reload() throws SQLException {
+        current = load();
+        return current;
+    }
+
+    private static DatabaseConfig load() throws SQLException {
+        Properties settings = new Properties();
+        String file = System.getProperty(CONFIG_FILE);
+        Path configPath = file != null ? Path.of(file)
+                : Path.of(System.getProperty("user.home"), "foundation-db.properties");
+        if (file != null || Files.exists(configPath)) {
+            try (InputStream in = Files.newInputStream(configPath)) {
+                settings.load(in);
+            } catch (IOException e) {
+                throw new SQLException("Cannot read database configuration " + configPath + ": " + e.getMessage(), e);
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("foundation.db.")) {
+                settings.setProperty(key, System.getProperty(key));
+            }
+        }
+        return new DatabaseConfig(settings);
+    }
+
+    /**
+     * Builds a configuration from settings, for tests and tools.
+     * @param settings the keys above; missing ones take their defaults
+     */
+    public DatabaseConfig(Properties settings) throws SQLException {
+        String modeName = settings.getProperty(MODE, "embedded").trim().toUpperCase().replace('-', '_');
+        try {
+            mode = Mode.valueOf(modeName);
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Unknown database mode: " + settings.getProperty(MODE), e);
+        }
+        path = settings.getProperty(PATH, "~/FoundationDatabase");
+        host = settings.getProperty(HOST, "localhost");
+        port = intSetting(settings, PORT, 9092);
+        allowOthers = Boolean.parseBoolean(settings.getProperty(ALLOW_OTHERS, "false"));
+        user = settings.getProperty(USER, "sa");
+        password = settings.getProperty(PASSWORD, "");
+        poolSize = intSetting(settings, POOL_SIZE, 8);
+        statementCacheSize = intSetting(settings, STATEMENT_CACHE_SIZE, 64);
+        if (poolSize < 1 || statementCacheSize < 0) {
+            throw new SQLException("Invalid pool size " + poolSize + " or statement cache size " + statementCacheSize);
+        }
+
+        //an explicit URL wins, so benchmarks and tools can point at a scratch database
+        String explicit = settings.getProperty(URL);
+        if (explicit != null) {
+            url = explicit;
+        } else {
+            StringBuilder built = new StringBuilder(mode == Mode.CLIENT
+                    ? "jdbc:h2:tcp://" + host + ":" + port + "/" + path
+                    : "jdbc:h2:" + path);
+            if (mode == Mode.AUTO_SERVER) {
+                built.append(";AUTO_SERVER=TRUE");
+            }
+            String cacheSize = settings.getProperty(CACHE_SIZE_KB);
+            if (cacheSize != null) {
+                built.append(";CACHE_SIZE=").append(intSetting(settings, CACHE_SIZE_KB, 0));
+            }
+            //further H2 settings such as MV_STORE or WRITE_DELAY, separated by semicolons
+            String options = settings.getProperty(OPTIONS, "").trim();
+            if (!options.isEmpty()) {
+                built.append(options.startsWith(";") ? "" : ";").append(options);
+            }
+            url = built.toString();
+        }
+    }
+
+    private static int intSetting(Properties settings, String key, int defaultValue) throws SQLException {
+        String value = settings.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new SQLException("Setting " + key + " is not a number: " + value, e);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+    // the URL this process connects with; in server mode the host itself connects in-process
+    public String getUrl() {
+        return url;
+    }
+    public String getPath() {
+        return path;
+    }
+    public String getHost() {
+        return host;
+    }
+    public int getPort() {
+        return port;
+    }
+    public boolean isAllowOthers() {
+        return allowOthers;
+    }
+    public String getUser() {
+        return user;
+    }
+    public String getPassword() {
+        return password;
+    }
+    public int getPoolSize() {
+        return poolSize;
+    }
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    @Override
+    public String toString() {
+        return mode + " " + url + " (pool " + poolSize + ", statement cache " + statementCacheSize + ")";
+    }
+}
@@ -0,0 +1,73 @@
+package databasePart1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * JUnit4 tests for DatabaseConfig and DatabaseServer.
+ */
+public class DatabaseConfigTest {
+
+    private static DatabaseConfig config(String... keysAndValues) throws SQLException {
+        Properties settings = new Properties();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            settings.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return new DatabaseConfig(settings);
+    }
+
+    @Test
+    public void testDefaultsKeepTheEmbeddedDatabase() throws SQLException {
+        DatabaseConfig config = config();
+        assertEquals(DatabaseConfig.Mode.EMBEDDED, config.getMode());
+        assertEquals("jdbc:h2:~/FoundationDatabase", config.getUrl());
+        assertEquals(8, config.getPoolSize());
+        assertEquals(64, config.getStatementCacheSize());
+    }
+
+    @Test
+    public void testModesBuildTheirUrls() throws SQLException {
+        assertEquals("jdbc:h2:/data/board;AUTO_SERVER=TRUE;CACHE_SIZE=65536",
+                config(DatabaseConfig.MODE, "auto-server", DatabaseConfig.PATH, "/data/board",
+                        DatabaseConfig.CACHE_SIZE_KB, "65536").getUrl());
+        assertEquals("jdbc:h2:tcp://board-host:9123/~/FoundationDatabase;WRITE_DELAY=0",
+                config(DatabaseConfig.MODE, "client", DatabaseConfig.HOST, "board-host",
+                        DatabaseConfig.PORT, "9123", DatabaseConfig.OPTIONS, "WRITE_DELAY=0").getUrl());
+        assertEquals("jdbc:h2:mem:scratch",
+                config(DatabaseConfig.MODE, "client", DatabaseConfig.URL, "jdbc:h2:mem:scratch").getUrl());
+        assertEquals(3, config(DatabaseConfig.POOL_SIZE, "3").getPoolSize());
+    }
+
+    @Test(expected = SQLException.class)
+    public void testUnknownModeIsRejected() throws SQLException {
+        config(DatabaseConfig.MODE, "cluster");
+    }
+
+    @Test
+    public void testServerSharesTheDatabaseWithClients() throws SQLException {
+        DatabaseConfig config = config(DatabaseConfig.MODE, "server", DatabaseConfig.PORT, "0");
+        DatabaseServer.start(config);
+        try {
+            assertTrue(DatabaseServer.isRunning());
+            DatabaseConfig local = DatabaseConfig.get();
+            String clientUrl = DatabaseServer.getClientUrl(config(DatabaseConfig.PATH, local.getPath()));
+            try (Connection client = DriverManager.getConnection(clientUrl, local.getUser(), local.getPassword());
+                 Statement statement = client.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT MAX(version) FROM schema_version")) {
+                assertTrue(rs.next());
+                assertEquals(SchemaMigrations.latestVersion(), rs.getInt(1));
+            }
+        } finally {
+            DatabaseServer.stop();
+        }
+    }
+}
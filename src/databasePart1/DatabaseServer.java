@@ -0,0 +1,81 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.h2.tools.Server;
+
+/**
+ * The DatabaseServer class lets one process host the database for clients on other machines.
+ * The host opens the database file itself and serves it over H2's TCP protocol; clients run
+ * with foundation.db.mode=client and the host's address in foundation.db.host and
+ * foundation.db.port.
+ *
+ * <p> StartCSE360 starts the server when the application runs in server mode, and
+ * {@link #main(String[])} hosts the database without a window. Only databases that already
+ * exist can be opened over the network, so a client cannot create a new file on the host. </p>
+ */
+public class DatabaseServer {
+
+    private static Server tcp;
+
+    private DatabaseServer() {
+    }
+
+    /**
+     * Creates the schema if needed and starts serving the database. Does nothing if the
+     * server is already running.
+     * @param config the configuration naming the port and whether other machines may connect
+     */
+    public static synchronized void start(DatabaseConfig config) throws SQLException {
+        if (tcp != null) {
+            return;
+        }
+        //the database has to exist before clients may open it
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            SchemaMigrations.ensureCurrent(conn);
+        }
+        String[] args = config.isAllowOthers()
+                ? new String[] {"-tcpPort", String.valueOf(config.getPort()), "-ifExists", "-tcpAllowOthers"}
+                : new String[] {"-tcpPort", String.valueOf(config.getPort()), "-ifExists"};
+        tcp = Server.createTcpServer(args).start();
+    }
+
+    /**
+     * Stops serving the database; clients lose their connections.
+     */
+    public static synchronized void stop() {
+        if (tcp != null) {
+            tcp.stop();
+            tcp = null;
+        }
+    }
+
+    public static synchronized boolean isRunning() {
+        return tcp != null && tcp.isRunning(false);
+    }
+
+    /**
+     * Returns the URL clients on this machine connect with, or null when not running.
+     */
+    public static synchronized String getClientUrl(DatabaseConfig config) {
+        return tcp == null ? null : "jdbc:h2:tcp://localhost:" + tcp.getPort() + "/" + config.getPath();
+    }
+
+    /**
+     * Hosts the database until the process is stopped. A change feed runs alongside, so the
+     * change log is pruned even while no client is running.
+     */
+    public static void main(String[] args) throws SQLException, InterruptedException {
+        DatabaseConfig config = DatabaseConfig.get();
+        start(config);
+        ChangeFeed.getInstance().start();
+        System.out.println("Serving " + config.getUrl() + " at " + getClientUrl(config));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            ChangeFeed.getInstance().stop();
+            stop();
+            ConnectionPool.shutdownShared();
+        }));
+        Thread.currentThread().join();
+    }
+}
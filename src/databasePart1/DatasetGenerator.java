@@ -0,0 +1,274 @@
+package databasePart1;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * The DatasetGenerator class makes up a discussion board of any size: users, questions with
+ * their answers and replies, trusted reviewers and messages. The same seed and sizes always
+ * give the same rows, so a benchmark or load test can be rerun against the same data.
+ *
+ * <p> Activity is skewed the way a real class is: a few users write most of the posts and
+ * receive most of the messages, a few reviewers are trusted by most students, most questions
+ * get one or two answers while some get many, and a few words make up most of the text. </p>
+ *
+ * <p> The generator does not touch the database. It hands every row to a {@link Sink} in an
+ * order that respects the foreign keys; {@link BulkLoader} is the sink that inserts them.
+ * Rows refer to each other by their position, counting from 0 per kind of row. </p>
+ */
+public class DatasetGenerator {
+
+    /**
+     * Receives the generated rows. Every question is followed by its answers, and every
+     * answer by its replies.
+     */
+    public interface Sink {
+        void user(int user, String userName, String role) throws SQLException;
+
+        void question(int question, String title, String content, String authorUserName, String category,
+                      boolean answered, LocalDateTime createdAt) throws SQLException;
+
+        void answer(int answer, int question, String content, String authorUserName, boolean accepted,
+                    LocalDateTime createdAt) throws SQLException;
+
+        void reply(int reply, int answer, int question, String content, String authorUserName,
+                   LocalDateTime createdAt) throws SQLException;
+
+        void trust(String studentUserName, String reviewerUserName) throws SQLException;
+
+        // conversation is the position of the first message of the conversation, parent is -1 for a new one
+        void message(int message, int conversation, int parent, String title, String content, String authorUserName,
+                     String receiverUserName, boolean read, LocalDateTime createdAt) throws SQLException;
+    }
+
+    static final String[] TOPICS = {
+        "java", "stream", "lambda", "array", "thread", "database", "query", "index", "exception",
+        "recursion", "sorting", "hash", "tree", "graph", "javafx", "layout", "junit", "project",
+        "interface", "generics", "loop", "string", "parser", "debugger"
+    };
+    static final String[] CATEGORIES = {"homework", "lecture", "exam", "project", "general"};
+    // filler words are made of these syllables, so their letters look like words to the search index
+    private static final String[] SYLLABLES = {
+        "ba", "ce", "di", "fo", "gu", "ha", "ke", "li", "mo", "nu", "pa", "re", "si", "to", "vu", "we", "xa", "zo"
+    };
+    private static final int VOCABULARY_SIZE = 5_000;
+    private static final String[] VOCABULARY = new String[VOCABULARY_SIZE];
+    static {
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            StringBuilder word = new StringBuilder();
+            int rest = i;
+            do {
+                word.append(SYLLABLES[rest % SYLLABLES.length]);
+                rest /= SYLLABLES.length;
+            } while (rest > 0);
+            VOCABULARY[i] = word.toString();
+        }
+    }
+
+    private long seed = 42;
+    private String userPrefix = "user";
+    private int users = 1_000;
+    private int questions = 10_000;
+    private double answersPerQuestion = 2.0;
+    private double repliesPerAnswer = 0.5;
+    private int trustsPerStudent = 5;
+    private int messages = 10_000;
+    // how unequal activity is: 1 is uniform, higher values favour the first users and words more
+    private double skew = 3.0;
+    private LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private int days = 365;
+
+    //settings, each returning the generator so they can be chained
+    public DatasetGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+    // user names are this prefix followed by a number, so several datasets can share a database
+    public DatasetGenerator userPrefix(String userPrefix) {
+        this.userPrefix = userPrefix;
+        return this;
+    }
+    public DatasetGenerator users(int users) {
+        if (users < 2) {
+            throw new IllegalArgumentException("A dataset needs at least two users");
+        }
+        this.users = users;
+        return this;
+    }
+    public DatasetGenerator questions(int questions) {
+        this.questions = questions;
+        return this;
+    }
+    public DatasetGenerator answersPerQuestion(double answersPerQuestion) {
+        this.answersPerQuestion = answersPerQuestion;
+        return this;
+    }
+    public DatasetGenerator repliesPerAnswer(double repliesPerAnswer) {
+        this.repliesPerAnswer = repliesPerAnswer;
+        return this;
+    }
+    public DatasetGenerator trustsPerStudent(int trustsPerStudent) {
+        this.trustsPerStudent = trustsPerStudent;
+        return this;
+    }
+    public DatasetGenerator messages(int messages) {
+        this.messages = messages;
+        return this;
+    }
+    public DatasetGenerator skew(double skew) {
+        this.skew = skew;
+        return this;
+    }
+    // rows are spread over this many days from start
+    public DatasetGenerator period(LocalDateTime start, int days) {
+        this.start = start;
+        this.days = days;
+        return this;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+    public int getQuestions() {
+        return questions;
+    }
+    public int getMessages() {
+        return messages;
+    }
+
+    /**
+     * Returns the name of a generated user.
+     * @param user the position of the user, from 0
+     */
+    public String userName(int user) {
+        return userPrefix + user;
+    }
+
+    /**
+     * Generates the whole dataset: users, then trusted reviewers, then questions with their
+     * answers and replies, then messages.
+     * @param sink receives the rows
+     */
+    public void generate(Sink sink) throws SQLException {
+        Random random = new Random(seed);
+        for (int user = 0; user < users; user++) {
+            sink.user(user, userName(user), user == 0 ? "admin" : "student");
+        }
+        generateTrusts(random, sink);
+        generateBoard(random, sink);
+        generateMessages(random, sink);
+    }
+
+    // each student trusts a few reviewers, mostly the popular ones
+    private void generateTrusts(Random random, Sink sink) throws SQLException {
+        int perStudent = Math.min(trustsPerStudent, users - 1);
+        Set<Integer> trusted = new HashSet<>();
+        for (int student = 1; student < users; student++) {
+            trusted.clear();
+            while (trusted.size() < perStudent) {
+                int reviewer = skewed(random, users);
+                if (reviewer != student && trusted.add(reviewer)) {
+                    sink.trust(userName(student), userName(reviewer));
+                }
+            }
+        }
+    }
+
+    private void generateBoard(Random random, Sink sink) throws SQLException {
+        long periodMinutes = days * 24L * 60;
+        int answer = 0;
+        int reply = 0;
+        for (int question = 0; question < questions; question++) {
+            //questions are spread evenly over the period, in id order
+            LocalDateTime askedAt = start.plusMinutes(periodMinutes * question / Math.max(1, questions));
+            int answerCount = count(random, answersPerQuestion);
+            int accepted = answerCount > 0 && random.nextInt(3) == 0 ? random.nextInt(answerCount) : -1;
+            String category = random.nextInt(4) == 0 ? null : CATEGORIES[skewed(random, CATEGORIES.length)];
+            sink.question(question, text(random, 4 + random.nextInt(7)), text(random, 10 + random.nextInt(70)),
+                    user(random), category, accepted >= 0, askedAt);
+
+            LocalDateTime answeredAt = askedAt;
+            for (int i = 0; i < answerCount; i++, answer++) {
+                answeredAt = answeredAt.plusMinutes(1 + count(random, 120));
+                sink.answer(answer, question, text(random, 5 + random.nextInt(60)), user(random), i == accepted,
+                        answeredAt);
+                LocalDateTime repliedAt = answeredAt;
+                int replyCount = count(random, repliesPerAnswer);
+                for (int j = 0; j < replyCount; j++, reply++) {
+                    repliedAt = repliedAt.plusMinutes(1 + count(random, 60));
+                    sink.reply(reply, answer, question, text(random, 3 + random.nextInt(25)), user(random), repliedAt);
+                }
+            }
+        }
+    }
+
+    // four in ten messages answer one of the recent ones; the rest start a conversation
+    private void generateMessages(Random random, Sink sink) throws SQLException {
+        long periodMinutes = days * 24L * 60;
+        int[] authors = new int[messages];
+        int[] receivers = new int[messages];
+        int[] conversations = new int[messages];
+        for (int message = 0; message < messages; message++) {
+            LocalDateTime sentAt = start.plusMinutes(periodMinutes * message / Math.max(1, messages));
+            int parent = -1;
+            if (message > 0 && random.nextInt(10) < 4) {
+                parent = message - 1 - skewed(random, Math.min(message, 100));
+                authors[message] = receivers[parent];
+                receivers[message] = authors[parent];
+                conversations[message] = conversations[parent];
+            } else {
+                authors[message] = skewed(random, users);
+                do {
+                    receivers[message] = skewed(random, users);
+                } while (receivers[message] == authors[message]);
+                conversations[message] = message;
+            }
+            //most of what arrived before the last tenth of the period has been read
+            boolean read = message < messages * 9L / 10 && random.nextInt(10) < 8;
+            sink.message(message, conversations[message], parent, title(conversations[message]),
+                    text(random, 5 + random.nextInt(40)), userName(authors[message]), userName(receivers[message]),
+                    read, sentAt);
+        }
+    }
+
+    // a conversation keeps its title, so it is derived from the conversation rather than drawn in turn
+    private String title(int conversation) {
+        SplittableRandom random = new SplittableRandom(seed * 31 + conversation);
+        return TOPICS[random.nextInt(TOPICS.length)] + " " + VOCABULARY[random.nextInt(VOCABULARY_SIZE)]
+                + " " + VOCABULARY[random.nextInt(VOCABULARY_SIZE)];
+    }
+
+    private String user(Random random) {
+        return userName(skewed(random, users));
+    }
+
+    // one word in eight is a topic word; the rest come mostly from the start of the vocabulary
+    private String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(random.nextInt(8) == 0 ? TOPICS[skewed(random, TOPICS.length)]
+                    : VOCABULARY[skewed(random, VOCABULARY_SIZE)]);
+        }
+        return text.toString();
+    }
+
+    // a position below n, with small positions far more likely than large ones
+    private int skewed(Random random, int n) {
+        return Math.min(n - 1, (int) (n * Math.pow(random.nextDouble(), skew)));
+    }
+
+    // a count with the given mean: usually small, occasionally large
+    private static int count(Random random, double mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+        return (int) Math.round(-mean * Math.log(1 - random.nextDouble()));
+    }
+}
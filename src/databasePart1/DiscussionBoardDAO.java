@@ -3,157 +3,350 @@ package databasePart1;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import application.Question;
 import application.Answer;
 import application.Questions;
 import application.Answers;
 import application.Reply;
 import application.Replies;
+import application.QuestionSummary;
+import application.QuestionThread;
 
 //data access object for the discussion board
+//every call borrows its own pooled connection, so one DAO can be used from many threads at once
 public class DiscussionBoardDAO {
-    private Connection connection;
-    private Statement statement;
 
-    //db credentials (from DatabaseHelper)
+    //loads neighbouring threads in the background; shared by every DAO
+    private static final ExecutorService PREFETCH =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("thread-prefetch-", 0).factory());
 
-    // JDBC driver name and database URL
-	static final String JDBC_DRIVER = "org.h2.Driver";
-	static final String DB_URL = "jdbc:h2:~/FoundationDatabase";
+    //columns a full-row update writes, updatedAt included; for WriteStats
+    private static final int QUESTION_ROW_COLUMNS = 5;
+    private static final int ANSWER_ROW_COLUMNS = 4;
 
-	//  Database credentials
-	static final String USER = "sa";
-	static final String PASS = "";
+    //what the question list shows; the content TEXT stays in the table until a question is opened
+    private static final String SUMMARY_COLUMNS = "q.questionId, q.title, q.authorUserName, q.isAnswered, "
+            + "q.category, q.createdAt, (SELECT COUNT(*) FROM answers a WHERE a.questionId = q.questionId) AS answerCount";
+
+    //a unit of work that runs inside one transaction; it lists what it changed in changes
+    private interface Work<T> {
+        T run(Connection tx, List<DataChangeEvent> changes) throws SQLException;
+    }
 
     //constructor
     public DiscussionBoardDAO() throws SQLException {
-        connectToDatabase();
-    }
-    //connect to db
-    private void connectToDatabase() throws SQLException {
-        try {
-            Class.forName(JDBC_DRIVER);
-            connection = DriverManager.getConnection(DB_URL, USER, PASS);
-            statement = connection.createStatement();
-            createTables();
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("Failed to connect to the database", e);
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            SchemaMigrations.ensureCurrent(conn);
         }
     }
-    //create the tables
-    private void createTables() throws SQLException {
-        //questions table.
-        String questionsTable = "CREATE TABLE IF NOT EXISTS questions(" +
-        "questionId INT AUTO_INCREMENT PRIMARY KEY," +
-        "title VARCHAR(255) NOT NULL," +
-        "content TEXT NOT NULL," +
-        "authorUserName VARCHAR(255) NOT NULL," +
-        "createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-        "updatedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-        "isAnswered BOOLEAN DEFAULT FALSE," +
-        "category VARCHAR(100))";
-        statement.execute(questionsTable);
-
-        //answers table.
-        String answersTable = "CREATE TABLE IF NOT EXISTS answers(" +
-        "answerId INT AUTO_INCREMENT PRIMARY KEY," +
-        "questionId INT NOT NULL," +
-        "content TEXT NOT NULL," +
-        "authorUserName VARCHAR(255) NOT NULL," +
-        "createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-        "updatedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-        "isAccepted BOOLEAN DEFAULT FALSE," +
-        "isCorrect BOOLEAN DEFAULT FALSE," +
-        "FOREIGN KEY (questionId) REFERENCES questions(questionId))";
-        statement.execute(answersTable);
-
-        //replies table.
-        String repliesTable = "CREATE TABLE IF NOT EXISTS replies(" +
-        "replyId INT AUTO_INCREMENT PRIMARY KEY," +
-        "answerId INT NOT NULL," +
-        "content TEXT NOT NULL," +
-        "authorUserName VARCHAR(255) NOT NULL," +
-        "createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-        "updatedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-        "FOREIGN KEY (answerId) REFERENCES answers(answerId))";
-        statement.execute(repliesTable);
-
-        // Add trusted_reviewers table
-        String trustedReviewersTable = "CREATE TABLE IF NOT EXISTS trusted_reviewers(" +
-        "id INT AUTO_INCREMENT PRIMARY KEY," +
-        "studentUserName VARCHAR(255) NOT NULL," +
-        "reviewerUserName VARCHAR(255) NOT NULL," +
-        "createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-        "UNIQUE(studentUserName, reviewerUserName))";
-        statement.execute(trustedReviewersTable);
+    //run work in a transaction on its own pooled connection, so the rows and the search index change together
+    //the changes are published once the transaction has committed, never for a rolled back one
+    private <T> T inTransaction(Work<T> work) throws SQLException {
+        List<DataChangeEvent> changes = new ArrayList<>();
+        T result;
+        try (Connection tx = ConnectionPool.getInstance().getConnection()) {
+            tx.setAutoCommit(false);
+            try {
+                result = work.run(tx, changes);
+                ChangeLog.append(tx, changes);
+                tx.commit();
+            } catch (SQLException | RuntimeException e) {
+                tx.rollback();
+                throw e;
+            } finally {
+                //cached threads may now be out of date, and the caller may have changed their objects
+                ThreadCache.getInstance().invalidateAll();
+            }
+        }
+        //trusted lists are dropped after the commit, so a list read before it is not cached, and
+        //before the changes are published, so subscribers read the new list
+        for (DataChangeEvent change : changes) {
+            if (change.entity() == DataChangeEvent.Entity.TRUST) {
+                TrustCache.getInstance().invalidate(change.userName());
+            }
+        }
+        DataChangeBus.getInstance().publish(changes);
+        return result;
     }
     //insert a question
     public int createQuestion(Question question) throws SQLException {
         String sql = "INSERT INTO questions (title, content, authorUserName, category) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, question.getTitle());
-            pstmt.setString(2, question.getContent());
-            pstmt.setString(3, question.getAuthorUserName());
-            pstmt.setString(4, question.getCategory());
-            pstmt.executeUpdate();
-            //return the question id
-            ResultSet rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
-                int generatedId = rs.getInt(1);
-                question.setQuestionId(generatedId);
-                return generatedId;
+        return inTransaction((tx, changes) -> {
+            try (PreparedStatement pstmt = tx.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, question.getTitle());
+                pstmt.setString(2, question.getContent());
+                pstmt.setString(3, question.getAuthorUserName());
+                pstmt.setString(4, question.getCategory());
+                pstmt.executeUpdate();
+                //return the question id
+                ResultSet rs = pstmt.getGeneratedKeys();
+                if (rs.next()) {
+                    int generatedId = rs.getInt(1);
+                    SearchIndex.indexQuestion(tx, generatedId, question.getTitle(), question.getContent());
+                    question.setQuestionId(generatedId);
+                    //isAnswered is not inserted, so it stays dirty if it was set
+                    question.markClean(EnumSet.of(Question.Field.TITLE, Question.Field.CONTENT, Question.Field.CATEGORY));
+                    changes.add(DataChangeEvent.question(DataChangeEvent.Kind.CREATED, generatedId));
+                    return generatedId;
+                }
             }
-        }
             return -1;
+        });
         }
         //get all questions
         public Questions getAllQuestions() throws SQLException {
             Questions questions = new Questions();
             String sql = "SELECT * FROM questions ORDER BY createdAt DESC";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql);
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql);
                  ResultSet rs = pstmt.executeQuery()) {
 
+                RowMapper<Question> mapper = RowMappers.QUESTION.bind(rs);
                 while (rs.next()) {
-                    Question q = extractQuestionFromResultSet(rs);
-                    questions.addQuestion(q);
+                    questions.addQuestion(mapper.map(rs));
                 }
             }
             return questions;
         }
+        /**
+         * Gets one page of questions, newest first, using keyset pagination on
+         * (createdAt, questionId) so a page deep in the list costs the same as the first.
+         * @param after Cursor of the last question already loaded, or null for the first page
+         * @param limit Maximum number of questions to return
+         * @return the questions of the page; fewer than limit means the end was reached
+         */
+        public Questions getQuestionsPage(PageCursor after, int limit) throws SQLException {
+            Questions questions = new Questions();
+            String sql = after == null
+                    ? "SELECT * FROM questions ORDER BY createdAt DESC, questionId DESC LIMIT ?"
+                    : "SELECT * FROM questions WHERE (createdAt, questionId) < (?, ?) "
+                            + "ORDER BY createdAt DESC, questionId DESC LIMIT ?";
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                if (after != null) {
+                    pstmt.setTimestamp(index++, Timestamp.valueOf(after.getCreatedAt()));
+                    pstmt.setInt(index++, after.getId());
+                }
+                pstmt.setInt(index, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    RowMapper<Question> mapper = RowMappers.QUESTION.bind(rs);
+                    while (rs.next()) {
+                        questions.addQuestion(mapper.map(rs));
+                    }
+                }
+            }
+            return questions;
+        }
+        /**
+         * Full-text search over question titles and content, answers and replies.
+         * Every word of the keyword must match the start of a word somewhere in the question
+         * or its discussion; better matches (in the title, or more often) come first,
+         * and equally good ones newest first.
+         * @param keyword The text typed by the user
+         * @param limit Maximum number of questions to return
+         * @param offset Number of matches to skip, for the following pages
+         * @return the matching questions ranked best first
+         */
+        public Questions searchQuestions(String keyword, int limit, int offset) throws SQLException {
+            return findQuestions(new QuestionCriteria().keyword(keyword), limit, offset);
+        }
+        /**
+         * Gets the questions matching every condition of the criteria in one query.
+         * Keyword matches come best first, everything else newest first.
+         * @param criteria The conditions; an empty criteria matches every question
+         * @param limit Maximum number of questions to return
+         * @param offset Number of questions to skip, for the following pages
+         * @return the matching questions
+         */
+        public Questions findQuestions(QuestionCriteria criteria, int limit, int offset) throws SQLException {
+            Questions questions = new Questions();
+            List<Object> params = new ArrayList<>();
+            String sql = criteria.toSql(params);
+            params.add(limit);
+            params.add(offset);
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < params.size(); i++) {
+                    pstmt.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    RowMapper<Question> mapper = RowMappers.QUESTION.bind(rs);
+                    while (rs.next()) {
+                        questions.addQuestion(mapper.map(rs));
+                    }
+                }
+            }
+            return questions;
+        }
+        /**
+         * Gets one page of question summaries for the question list: the same page as
+         * getQuestionsPage, without the content and with each question's answer count.
+         * @param after Cursor of the last question already loaded, or null for the first page
+         * @param limit Maximum number of questions to return
+         * @return the summaries of the page; fewer than limit means the end was reached
+         */
+        public List<QuestionSummary> getQuestionSummariesPage(PageCursor after, int limit) throws SQLException {
+            String sql = after == null
+                    ? "SELECT " + SUMMARY_COLUMNS + " FROM questions q ORDER BY q.createdAt DESC, q.questionId DESC LIMIT ?"
+                    : "SELECT " + SUMMARY_COLUMNS + " FROM questions q WHERE (q.createdAt, q.questionId) < (?, ?) "
+                            + "ORDER BY q.createdAt DESC, q.questionId DESC LIMIT ?";
+            List<Object> params = new ArrayList<>();
+            if (after != null) {
+                params.add(Timestamp.valueOf(after.getCreatedAt()));
+                params.add(after.getId());
+            }
+            params.add(limit);
+            return querySummaries(sql, params);
+        }
+        /**
+         * Gets the summaries of the questions matching the criteria, in the order of findQuestions.
+         * @param criteria The conditions; an empty criteria matches every question
+         * @param limit Maximum number of questions to return
+         * @param offset Number of questions to skip, for the following pages
+         * @return the matching question summaries
+         */
+        public List<QuestionSummary> findQuestionSummaries(QuestionCriteria criteria, int limit, int offset) throws SQLException {
+            List<Object> params = new ArrayList<>();
+            String sql = criteria.toSql(SUMMARY_COLUMNS, params);
+            params.add(limit);
+            params.add(offset);
+            return querySummaries(sql, params);
+        }
+        private List<QuestionSummary> querySummaries(String sql, List<Object> params) throws SQLException {
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < params.size(); i++) {
+                    pstmt.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return RowMappers.mapAll(rs, RowMappers.QUESTION_SUMMARY);
+                }
+            }
+        }
+        /**
+         * Gets the summary of one question, for patching its row in the question list.
+         * @param questionId The id of the question
+         * @return the summary, or null if the question does not exist
+         */
+        public QuestionSummary getQuestionSummary(int questionId) throws SQLException {
+            List<QuestionSummary> summaries = querySummaries(
+                    "SELECT " + SUMMARY_COLUMNS + " FROM questions q WHERE q.questionId = ?", List.<Object>of(questionId));
+            return summaries.isEmpty() ? null : summaries.get(0);
+        }
         //get question by id
         public Question getQuestionById(int questionId) throws SQLException {
             String sql = "SELECT * FROM questions WHERE questionId = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, questionId);
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next()) {
-                    return extractQuestionFromResultSet(rs);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return RowMappers.mapOne(rs, RowMappers.QUESTION);
                 }
             }
-            return null;
         }
-        //update a question
+        //update the changed columns of a question; nothing is written if none changed
         public boolean updateQuestion(Question question) throws SQLException {
-            String sql = "UPDATE questions SET title = ?, content = ?, updatedAt = ?, "
-                    + "isAnswered = ?, category = ? WHERE questionId = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setString(1, question.getTitle());
-                pstmt.setString(2, question.getContent());
-                pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
-                pstmt.setBoolean(4, question.getIsAnswered());
-                pstmt.setString(5, question.getCategory());
-                pstmt.setInt(6, question.getQuestionId());
-                return pstmt.executeUpdate() > 0;
+            Set<Question.Field> dirty = question.getDirtyFields();
+            long rowText = length(question.getTitle()) + length(question.getContent()) + length(question.getCategory());
+            if (dirty.isEmpty()) {
+                WriteStats.getInstance().recordSkipped(QUESTION_ROW_COLUMNS, rowText);
+                return exists("SELECT 1 FROM questions WHERE questionId = ?", question.getQuestionId());
+            }
+            //only the changed columns, so a flag toggle does not rewrite the title and content
+            StringBuilder sql = new StringBuilder("UPDATE questions SET ");
+            List<Object> params = new ArrayList<>();
+            long text = 0;
+            for (Question.Field field : dirty) {
+                sql.append(field.column()).append(" = ?, ");
+                switch (field) {
+                    case TITLE -> params.add(question.getTitle());
+                    case CONTENT -> params.add(question.getContent());
+                    case IS_ANSWERED -> params.add(question.getIsAnswered());
+                    case CATEGORY -> params.add(question.getCategory());
+                }
+                if (params.get(params.size() - 1) instanceof String value) {
+                    text += value.length();
+                }
             }
+            sql.append("updatedAt = ? WHERE questionId = ?");
+            params.add(Timestamp.valueOf(LocalDateTime.now()));
+            params.add(question.getQuestionId());
+            boolean reindex = dirty.contains(Question.Field.TITLE) || dirty.contains(Question.Field.CONTENT);
+            boolean updated = inTransaction((tx, changes) -> {
+                if (executeUpdate(tx, sql.toString(), params) == 0) {
+                    return false;
+                }
+                if (reindex) {
+                    SearchIndex.indexQuestion(tx, question.getQuestionId(), question.getTitle(), question.getContent());
+                }
+                changes.add(DataChangeEvent.question(DataChangeEvent.Kind.UPDATED, question.getQuestionId()));
+                return true;
+            });
+            if (updated) {
+                WriteStats.getInstance().recordUpdate(dirty.size() + 1, QUESTION_ROW_COLUMNS, text, rowText, reindex);
+                question.markClean(dirty);
+            }
+            return updated;
         }
         //delete a question
         public boolean deleteQuestion(int questionId) throws SQLException {
             String sql = "DELETE FROM questions WHERE questionId = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setInt(1, questionId);
-                return pstmt.executeUpdate() > 0;
+            return inTransaction((tx, changes) -> {
+                SearchIndex.removeQuestion(tx, questionId);
+                try (PreparedStatement pstmt = tx.prepareStatement(sql)) {
+                    pstmt.setInt(1, questionId);
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                changes.add(DataChangeEvent.question(DataChangeEvent.Kind.DELETED, questionId));
+                return true;
+            });
+        }
+
+        /**
+         * Deletes a question together with its answers, their replies and its search index rows,
+         * all in one transaction.
+         * @param questionId The id of the question
+         * @return true if the question existed
+         */
+        public boolean deleteQuestionCascade(int questionId) throws SQLException {
+            return deleteQuestions(List.of(questionId)) > 0;
+        }
+        /**
+         * Deletes questions together with their answers, replies and search index rows in one
+         * transaction. Each table is cleared with a single set-based statement, however many
+         * questions, answers and replies there are.
+         * @param questionIds The ids of the questions to delete
+         * @return the number of questions deleted
+         */
+        public int deleteQuestions(List<Integer> questionIds) throws SQLException {
+            if (questionIds.isEmpty()) {
+                return 0;
             }
+            Integer[] ids = questionIds.toArray(new Integer[0]);
+            return inTransaction((tx, changes) -> {
+                executeUpdate(tx, "DELETE FROM search_index WHERE questionId = ANY(?)", ids);
+                executeUpdate(tx, "DELETE FROM replies WHERE answerId IN "
+                        + "(SELECT answerId FROM answers WHERE questionId = ANY(?))", ids);
+                executeUpdate(tx, "DELETE FROM answers WHERE questionId = ANY(?)", ids);
+                int deleted = executeUpdate(tx, "DELETE FROM questions WHERE questionId = ANY(?)", ids);
+                if (deleted > 0) {
+                    //ids that did not exist are not shown anywhere, so a delete for them is harmless
+                    for (int questionId : ids) {
+                        changes.add(DataChangeEvent.question(DataChangeEvent.Kind.DELETED, questionId));
+                    }
+                }
+                return deleted;
+            });
         }
 
         //ANSWER CRUD OPERATIONS
@@ -163,38 +356,45 @@ public class DiscussionBoardDAO {
             String sql = "INSERT INTO answers (questionId, content, authorUserName, createdAt, updatedAt, isAccepted) "
                     + "VALUES (?, ?, ?, ?, ?, ?)";
 
-            try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                pstmt.setInt(1, answer.getQuestionId());
-                pstmt.setString(2, answer.getContent());
-                pstmt.setString(3, answer.getAuthorUserName());
-                pstmt.setTimestamp(4, Timestamp.valueOf(answer.getCreatedAt()));
-                pstmt.setTimestamp(5, Timestamp.valueOf(answer.getUpdatedAt()));
-                pstmt.setBoolean(6, answer.getIsAccepted());
+            return inTransaction((tx, changes) -> {
+                try (PreparedStatement pstmt = tx.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, answer.getQuestionId());
+                    pstmt.setString(2, answer.getContent());
+                    pstmt.setString(3, answer.getAuthorUserName());
+                    pstmt.setTimestamp(4, Timestamp.valueOf(answer.getCreatedAt()));
+                    pstmt.setTimestamp(5, Timestamp.valueOf(answer.getUpdatedAt()));
+                    pstmt.setBoolean(6, answer.getIsAccepted());
 
-                pstmt.executeUpdate();
+                    pstmt.executeUpdate();
 
-                // generate answerId
-                ResultSet rs = pstmt.getGeneratedKeys();
-                if (rs.next()) {
-                    int generatedId = rs.getInt(1);
-                    answer.setAnswerId(generatedId);
-                    return generatedId;
+                    // generate answerId
+                    ResultSet rs = pstmt.getGeneratedKeys();
+                    if (rs.next()) {
+                        int generatedId = rs.getInt(1);
+                        SearchIndex.indexAnswer(tx, generatedId, answer.getQuestionId(), answer.getContent());
+                        answer.setAnswerId(generatedId);
+                        //isCorrect is not inserted, so it stays dirty if it was set
+                        answer.markClean(EnumSet.of(Answer.Field.CONTENT, Answer.Field.IS_ACCEPTED));
+                        changes.add(DataChangeEvent.answer(DataChangeEvent.Kind.CREATED, generatedId, answer.getQuestionId()));
+                        return generatedId;
+                    }
                 }
-            }
-            return -1;
+                return -1;
+            });
         }
         //get all answers for a question
         public Answers getAnswersForQuestion(int questionId) throws SQLException {
             Answers answers = new Answers();
             String sql = "SELECT * FROM answers WHERE questionId = ? ORDER BY isAccepted DESC, createdAt ASC";
 
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, questionId);
-                ResultSet rs = pstmt.executeQuery();
-
-                while (rs.next()) {
-                    Answer a = extractAnswerFromResultSet(rs);
-                    answers.addAnswer(a);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    RowMapper<Answer> mapper = RowMappers.ANSWER.bind(rs);
+                    while (rs.next()) {
+                        answers.addAnswer(mapper.map(rs));
+                    }
                 }
             }
             return answers;
@@ -203,48 +403,330 @@ public class DiscussionBoardDAO {
         public Answers getAllAnswers() throws SQLException {
             Answers answers = new Answers();
             String sql = "SELECT * FROM answers ORDER BY createdAt DESC";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql);
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql);
                  ResultSet rs = pstmt.executeQuery()) {
+                RowMapper<Answer> mapper = RowMappers.ANSWER.bind(rs);
                 while (rs.next()) {
-                    Answer a = extractAnswerFromResultSet(rs);
-                    answers.addAnswer(a);
+                    answers.addAnswer(mapper.map(rs));
                 }
             }
             return answers;
         }
-        //update an answer
+        //update the changed columns of an answer; nothing is written if none changed
         public boolean updateAnswer(Answer answer) throws SQLException {
-            String sql = "UPDATE answers SET content = ?, updatedAt = ?, isAccepted = ?, isCorrect = ? WHERE answerId = ?";
-
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setString(1, answer.getContent());
-                pstmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
-                pstmt.setBoolean(3, answer.getIsAccepted());
-                pstmt.setBoolean(4, answer.isCorrect());
-                pstmt.setInt(5, answer.getAnswerId());
-
-                return pstmt.executeUpdate() > 0;
+            Set<Answer.Field> dirty = answer.getDirtyFields();
+            long rowText = length(answer.getContent());
+            if (dirty.isEmpty()) {
+                WriteStats.getInstance().recordSkipped(ANSWER_ROW_COLUMNS, rowText);
+                return exists("SELECT 1 FROM answers WHERE answerId = ?", answer.getAnswerId());
+            }
+            //only the changed columns, so accepting an answer does not rewrite its content
+            StringBuilder sql = new StringBuilder("UPDATE answers SET ");
+            List<Object> params = new ArrayList<>();
+            for (Answer.Field field : dirty) {
+                sql.append(field.column()).append(" = ?, ");
+                switch (field) {
+                    case CONTENT -> params.add(answer.getContent());
+                    case IS_ACCEPTED -> params.add(answer.getIsAccepted());
+                    case IS_CORRECT -> params.add(answer.isCorrect());
+                }
             }
+            sql.append("updatedAt = ? WHERE answerId = ?");
+            params.add(Timestamp.valueOf(LocalDateTime.now()));
+            params.add(answer.getAnswerId());
+            boolean reindex = dirty.contains(Answer.Field.CONTENT);
+            boolean updated = inTransaction((tx, changes) -> {
+                if (executeUpdate(tx, sql.toString(), params) == 0) {
+                    return false;
+                }
+                if (reindex) {
+                    SearchIndex.indexAnswer(tx, answer.getAnswerId(), answer.getQuestionId(), answer.getContent());
+                }
+                changes.add(DataChangeEvent.answer(DataChangeEvent.Kind.UPDATED, answer.getAnswerId(), answer.getQuestionId()));
+                return true;
+            });
+            if (updated) {
+                WriteStats.getInstance().recordUpdate(dirty.size() + 1, ANSWER_ROW_COLUMNS, reindex ? rowText : 0,
+                        rowText, reindex);
+                answer.markClean(dirty);
+            }
+            return updated;
         }
         //delete an answer
         public boolean deleteAnswer(int answerId) throws SQLException {
             String sql = "DELETE FROM answers WHERE answerId = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setInt(1, answerId);
-                return pstmt.executeUpdate() > 0;
-            }
+            return inTransaction((tx, changes) -> {
+                int questionId = questionOf(tx, "SELECT questionId FROM answers WHERE answerId = ?", answerId);
+                SearchIndex.removeAnswer(tx, answerId);
+                try (PreparedStatement pstmt = tx.prepareStatement(sql)) {
+                    pstmt.setInt(1, answerId);
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                changes.add(DataChangeEvent.answer(DataChangeEvent.Kind.DELETED, answerId, questionId));
+                return true;
+            });
+        }
+        /**
+         * Makes an answer the accepted answer of its question: it is accepted, every other
+         * answer of the question is not, and the question is marked answered. One UPDATE flips
+         * the flags and the transaction holds the question row lock, so two admins accepting
+         * different answers at once end with exactly one accepted answer.
+         * @param questionId The id of the question
+         * @param answerId The id of the answer to accept
+         * @return false if the answer does not belong to the question
+         */
+        public boolean acceptAnswer(int questionId, int answerId) throws SQLException {
+            return setAnswerFlag("isAccepted", questionId, answerId, true);
+        }
+        /**
+         * Withdraws the acceptance of an answer and marks the question unanswered unless
+         * another answer is still accepted.
+         * @param questionId The id of the question
+         * @param answerId The id of the answer
+         * @return false if the answer does not belong to the question
+         */
+        public boolean unacceptAnswer(int questionId, int answerId) throws SQLException {
+            return setAnswerFlag("isAccepted", questionId, answerId, false);
+        }
+        /**
+         * Makes an answer the one the student found helpful; any other helpful answer of the
+         * question is unmarked in the same statement.
+         * @param questionId The id of the question
+         * @param answerId The id of the answer
+         * @return false if the answer does not belong to the question
+         */
+        public boolean markHelpful(int questionId, int answerId) throws SQLException {
+            return setAnswerFlag("isCorrect", questionId, answerId, true);
+        }
+        /**
+         * Unmarks an answer as helpful.
+         * @param questionId The id of the question
+         * @param answerId The id of the answer
+         * @return false if the answer does not belong to the question
+         */
+        public boolean unmarkHelpful(int questionId, int answerId) throws SQLException {
+            return setAnswerFlag("isCorrect", questionId, answerId, false);
+        }
+
+        //set or clear a one-per-question answer flag (isAccepted or isCorrect) and recompute isAnswered
+        private boolean setAnswerFlag(String flag, int questionId, int answerId, boolean on) throws SQLException {
+            return inTransaction((tx, changes) -> {
+                //lock the question row so concurrent flips of the same question run one after the other
+                try (PreparedStatement lock = tx.prepareStatement(
+                        "SELECT questionId FROM questions WHERE questionId = ? FOR UPDATE")) {
+                    lock.setInt(1, questionId);
+                    try (ResultSet rs = lock.executeQuery()) {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                    }
+                }
+                try (PreparedStatement pstmt = tx.prepareStatement(
+                        "SELECT 1 FROM answers WHERE answerId = ? AND questionId = ?")) {
+                    pstmt.setInt(1, answerId);
+                    pstmt.setInt(2, questionId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                    }
+                }
+                //one statement: on sets the flag of this answer and clears it on the others
+                String sql = on
+                        ? "UPDATE answers SET " + flag + " = (answerId = ?), updatedAt = CURRENT_TIMESTAMP "
+                                + "WHERE questionId = ? AND (" + flag + " OR answerId = ?)"
+                        : "UPDATE answers SET " + flag + " = FALSE, updatedAt = CURRENT_TIMESTAMP "
+                                + "WHERE questionId = ? AND answerId = ? AND " + flag;
+                try (PreparedStatement pstmt = tx.prepareStatement(sql)) {
+                    if (on) {
+                        pstmt.setInt(1, answerId);
+                        pstmt.setInt(2, questionId);
+                        pstmt.setInt(3, answerId);
+                    } else {
+                        pstmt.setInt(1, questionId);
+                        pstmt.setInt(2, answerId);
+                    }
+                    pstmt.executeUpdate();
+                }
+                if ("isAccepted".equals(flag)) {
+                    //answered means some answer is accepted; the row is only written if that changed
+                    try (PreparedStatement pstmt = tx.prepareStatement("UPDATE questions "
+                            + "SET isAnswered = NOT isAnswered, updatedAt = CURRENT_TIMESTAMP WHERE questionId = ? "
+                            + "AND isAnswered <> (EXISTS(SELECT 1 FROM answers WHERE questionId = ? AND isAccepted))")) {
+                        pstmt.setInt(1, questionId);
+                        pstmt.setInt(2, questionId);
+                        pstmt.executeUpdate();
+                    }
+                }
+                changes.add(DataChangeEvent.answer(DataChangeEvent.Kind.UPDATED, answerId, questionId));
+                return true;
+            });
+        }
+        /**
+         * Deletes an answer together with its replies and their search index rows in one transaction.
+         * @param answerId The id of the answer
+         * @return true if the answer existed
+         */
+        public boolean deleteAnswerCascade(int answerId) throws SQLException {
+            return inTransaction((tx, changes) -> {
+                int questionId = questionOf(tx, "SELECT questionId FROM answers WHERE answerId = ?", answerId);
+                SearchIndex.removeRepliesForAnswer(tx, answerId);
+                SearchIndex.removeAnswer(tx, answerId);
+                executeUpdate(tx, "DELETE FROM replies WHERE answerId = ?", answerId);
+                if (executeUpdate(tx, "DELETE FROM answers WHERE answerId = ?", answerId) == 0) {
+                    return false;
+                }
+                changes.add(DataChangeEvent.answer(DataChangeEvent.Kind.DELETED, answerId, questionId));
+                return true;
+            });
         }
         //get answer by id
         public Answer getAnswerById(int answerId) throws SQLException {
             String sql = "SELECT * FROM answers WHERE answerId = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, answerId);
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next()) {
-                    return extractAnswerFromResultSet(rs);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return RowMappers.mapOne(rs, RowMappers.ANSWER);
+                }
+            }
+        }
+
+        //THREAD OPERATIONS
+
+        /**
+         * Gets a whole discussion thread: the question, its answers (accepted first, then
+         * oldest first), the replies of every answer (oldest first) and, for the viewer,
+         * which authors are on their trusted reviewer list. The question, answers and replies
+         * come from one joined query, or from the thread cache if the thread was read before.
+         * The returned thread is a copy, so changing it does not change what other callers see.
+         * @param questionId The id of the question
+         * @param viewerUserName The user looking at the thread, for the trust flags
+         * @return the thread, or null if the question does not exist
+         */
+        public QuestionThread getThread(int questionId, String viewerUserName) throws SQLException {
+            return getThread(questionId, viewerUserName, List.of());
+        }
+
+        /**
+         * Gets a whole discussion thread like {@link #getThread(int, String)} and starts loading
+         * the threads of the given questions into the cache in the background, so opening one
+         * of them next is answered from memory.
+         * @param questionId The id of the question
+         * @param viewerUserName The user looking at the thread, for the trust flags
+         * @param prefetchQuestionIds Questions likely to be opened next, such as list neighbours
+         * @return the thread, or null if the question does not exist
+         */
+        public QuestionThread getThread(int questionId, String viewerUserName, List<Integer> prefetchQuestionIds) throws SQLException {
+            QuestionThread thread = ThreadCache.getInstance().get(questionId, id -> {
+                try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+                    return loadThread(conn, id);
                 }
+            });
+            prefetchThreads(prefetchQuestionIds);
+            if (thread == null) {
+                return null;
             }
-            return null;
+            //the cached thread stays shared; callers get their own copy to edit
+            return thread.copyFor(getTrustedReviewerSet(viewerUserName));
+        }
+
+        //warm the cache with threads not cached yet, on one pooled connection
+        private void prefetchThreads(List<Integer> questionIds) {
+            List<Integer> missing = new ArrayList<>();
+            for (int id : questionIds) {
+                if (!ThreadCache.getInstance().contains(id)) {
+                    missing.add(id);
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+            PREFETCH.submit(() -> {
+                try (Connection prefetch = ConnectionPool.getInstance().getConnection()) {
+                    for (int id : missing) {
+                        ThreadCache.getInstance().get(id, questionId -> loadThread(prefetch, questionId));
+                    }
+                } catch (SQLException e) {
+                    // a failed prefetch only means the thread is read when it is opened
+                    e.printStackTrace();
+                }
+            });
+        }
+
+        //read a question, its answers and their replies in one query
+        private QuestionThread loadThread(Connection conn, int questionId) throws SQLException {
+            String sql = "SELECT q.questionId, q.title, q.content, q.authorUserName, q.createdAt, q.updatedAt, "
+                    + "q.isAnswered, q.category, "
+                    + "a.answerId, a.content AS answerContent, a.authorUserName AS answerAuthor, "
+                    + "a.createdAt AS answerCreatedAt, a.updatedAt AS answerUpdatedAt, a.isAccepted, a.isCorrect, "
+                    + "r.replyId, r.content AS replyContent, r.authorUserName AS replyAuthor, "
+                    + "r.createdAt AS replyCreatedAt, r.updatedAt AS replyUpdatedAt "
+                    + "FROM questions q "
+                    + "LEFT JOIN answers a ON a.questionId = q.questionId "
+                    + "LEFT JOIN replies r ON r.answerId = a.answerId "
+                    + "WHERE q.questionId = ? "
+                    + "ORDER BY a.isAccepted DESC, a.createdAt ASC, a.answerId ASC, r.createdAt ASC, r.replyId ASC";
+            Question question = null;
+            Answers answers = new Answers();
+            Map<Integer, Replies> repliesByAnswer = new HashMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, questionId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    //column positions of the answer and reply parts, found once for all rows
+                    RowMapper<Question> questionMapper = RowMappers.QUESTION.bind(rs);
+                    int answerIdColumn = rs.findColumn("answerId");
+                    int answerContent = rs.findColumn("answerContent");
+                    int answerAuthor = rs.findColumn("answerAuthor");
+                    int answerCreatedAt = rs.findColumn("answerCreatedAt");
+                    int answerUpdatedAt = rs.findColumn("answerUpdatedAt");
+                    int isAccepted = rs.findColumn("isAccepted");
+                    int isCorrect = rs.findColumn("isCorrect");
+                    int replyIdColumn = rs.findColumn("replyId");
+                    int replyContent = rs.findColumn("replyContent");
+                    int replyAuthor = rs.findColumn("replyAuthor");
+                    int replyCreatedAt = rs.findColumn("replyCreatedAt");
+                    int replyUpdatedAt = rs.findColumn("replyUpdatedAt");
+                    Answer answer = null;
+                    while (rs.next()) {
+                        if (question == null) {
+                            question = questionMapper.map(rs);
+                        }
+                        int answerId = rs.getInt(answerIdColumn);
+                        if (rs.wasNull()) {
+                            continue; // a question without answers
+                        }
+                        if (answer == null || answer.getAnswerId() != answerId) {
+                            answer = new Answer(
+                                answerId,
+                                questionId,
+                                rs.getString(answerContent),
+                                rs.getString(answerAuthor),
+                                RowMappers.dateTime(rs, answerCreatedAt),
+                                RowMappers.dateTime(rs, answerUpdatedAt),
+                                rs.getBoolean(isAccepted),
+                                rs.getBoolean(isCorrect)
+                            );
+                            answers.addAnswer(answer);
+                        }
+                        int replyId = rs.getInt(replyIdColumn);
+                        if (!rs.wasNull()) {
+                            repliesByAnswer.computeIfAbsent(answerId, id -> new Replies()).addReply(new Reply(
+                                replyId,
+                                answerId,
+                                rs.getString(replyContent),
+                                rs.getString(replyAuthor),
+                                RowMappers.dateTime(rs, replyCreatedAt),
+                                RowMappers.dateTime(rs, replyUpdatedAt)
+                            ));
+                        }
+                    }
+                }
+            }
+            return question == null ? null : new QuestionThread(question, answers, repliesByAnswer);
         }
 
         //REPLY CRUD OPERATIONS
@@ -254,37 +736,43 @@ public class DiscussionBoardDAO {
             String sql = "INSERT INTO replies (answerId, content, authorUserName, createdAt, updatedAt) "
                     + "VALUES (?, ?, ?, ?, ?)";
 
-            try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                pstmt.setInt(1, reply.getAnswerId());
-                pstmt.setString(2, reply.getContent());
-                pstmt.setString(3, reply.getAuthorUserName());
-                pstmt.setTimestamp(4, Timestamp.valueOf(reply.getCreatedAt()));
-                pstmt.setTimestamp(5, Timestamp.valueOf(reply.getUpdatedAt()));
+            return inTransaction((tx, changes) -> {
+                try (PreparedStatement pstmt = tx.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, reply.getAnswerId());
+                    pstmt.setString(2, reply.getContent());
+                    pstmt.setString(3, reply.getAuthorUserName());
+                    pstmt.setTimestamp(4, Timestamp.valueOf(reply.getCreatedAt()));
+                    pstmt.setTimestamp(5, Timestamp.valueOf(reply.getUpdatedAt()));
 
-                pstmt.executeUpdate();
+                    pstmt.executeUpdate();
 
-                // generate replyId
-                ResultSet rs = pstmt.getGeneratedKeys();
-                if (rs.next()) {
-                    int generatedId = rs.getInt(1);
-                    reply.setReplyId(generatedId);
-                    return generatedId;
+                    // generate replyId
+                    ResultSet rs = pstmt.getGeneratedKeys();
+                    if (rs.next()) {
+                        int generatedId = rs.getInt(1);
+                        SearchIndex.indexReply(tx, generatedId, reply.getAnswerId(), reply.getContent());
+                        reply.setReplyId(generatedId);
+                        changes.add(DataChangeEvent.reply(DataChangeEvent.Kind.CREATED, generatedId,
+                                questionOf(tx, "SELECT questionId FROM answers WHERE answerId = ?", reply.getAnswerId())));
+                        return generatedId;
+                    }
                 }
-            }
-            return -1;
+                return -1;
+            });
         }
         //get all replies for an answer
         public Replies getRepliesForAnswer(int answerId) throws SQLException {
             Replies replies = new Replies();
             String sql = "SELECT * FROM replies WHERE answerId = ? ORDER BY createdAt ASC";
 
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, answerId);
-                ResultSet rs = pstmt.executeQuery();
-
-                while (rs.next()) {
-                    Reply r = extractReplyFromResultSet(rs);
-                    replies.addReply(r);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    RowMapper<Reply> mapper = RowMappers.REPLY.bind(rs);
+                    while (rs.next()) {
+                        replies.addReply(mapper.map(rs));
+                    }
                 }
             }
             return replies;
@@ -293,11 +781,12 @@ public class DiscussionBoardDAO {
         public Replies getAllReplies() throws SQLException {
             Replies replies = new Replies();
             String sql = "SELECT * FROM replies ORDER BY createdAt DESC"; // FIXED: was "answers" instead of "replies"
-            try (PreparedStatement pstmt = connection.prepareStatement(sql);
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql);
                  ResultSet rs = pstmt.executeQuery()) {
+                RowMapper<Reply> mapper = RowMappers.REPLY.bind(rs);
                 while (rs.next()) {
-                    Reply r = extractReplyFromResultSet(rs);
-                    replies.addReply(r);
+                    replies.addReply(mapper.map(rs));
                 }
             }
             return replies;
@@ -306,61 +795,74 @@ public class DiscussionBoardDAO {
         public boolean updateReply(Reply reply) throws SQLException {
             String sql = "UPDATE replies SET content = ?, updatedAt = ? WHERE replyId = ?";
 
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setString(1, reply.getContent());
-                pstmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
-                pstmt.setInt(3, reply.getReplyId());
+            return inTransaction((tx, changes) -> {
+                try (PreparedStatement pstmt = tx.prepareStatement(sql)) {
+                    pstmt.setString(1, reply.getContent());
+                    pstmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                    pstmt.setInt(3, reply.getReplyId());
 
-                return pstmt.executeUpdate() > 0;
-            }
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                SearchIndex.indexReply(tx, reply.getReplyId(), reply.getAnswerId(), reply.getContent());
+                changes.add(DataChangeEvent.reply(DataChangeEvent.Kind.UPDATED, reply.getReplyId(),
+                        questionOf(tx, "SELECT questionId FROM answers WHERE answerId = ?", reply.getAnswerId())));
+                return true;
+            });
         }
         //delete a reply
         public boolean deleteReply(int replyId) throws SQLException {
             String sql = "DELETE FROM replies WHERE replyId = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setInt(1, replyId);
-                return pstmt.executeUpdate() > 0;
-            }
+            return inTransaction((tx, changes) -> {
+                int questionId = questionOf(tx, "SELECT a.questionId FROM replies r "
+                        + "JOIN answers a ON a.answerId = r.answerId WHERE r.replyId = ?", replyId);
+                SearchIndex.removeReply(tx, replyId);
+                try (PreparedStatement pstmt = tx.prepareStatement(sql)) {
+                    pstmt.setInt(1, replyId);
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                changes.add(DataChangeEvent.reply(DataChangeEvent.Kind.DELETED, replyId, questionId));
+                return true;
+            });
         }
         //helper methods for all operations
-        private Question extractQuestionFromResultSet(ResultSet rs) throws SQLException {
-            Question q = new Question(
-                rs.getString("title"),
-                rs.getString("content"),
-                rs.getString("authorUserName")
-            );
-            q.setQuestionId(rs.getInt("questionId"));
-            q.setCreatedAt(rs.getTimestamp("createdAt").toLocalDateTime());
-            q.setUpdatedAt(rs.getTimestamp("updatedAt").toLocalDateTime());
-            q.setIsAnswered(rs.getBoolean("isAnswered"));
-            q.setCategory(rs.getString("category"));
-            return q;
-        }
-        // extract an answer from the result set
-        private Answer extractAnswerFromResultSet(ResultSet rs) throws SQLException {
-            Answer a = new Answer(
-                rs.getInt("answerId"),
-                rs.getInt("questionId"),
-                rs.getString("content"),
-                rs.getString("authorUserName"),
-                rs.getTimestamp("createdAt").toLocalDateTime(),
-                rs.getTimestamp("updatedAt").toLocalDateTime(),
-                rs.getBoolean("isAccepted")
-            );
-            a.setCorrect(rs.getBoolean("isCorrect"));
-            return a;
-        }
-        // extract a reply from the result set
-        private Reply extractReplyFromResultSet(ResultSet rs) throws SQLException {
-            Reply r = new Reply(
-                rs.getInt("replyId"),
-                rs.getInt("answerId"),
-                rs.getString("content"),
-                rs.getString("authorUserName"),
-                rs.getTimestamp("createdAt").toLocalDateTime(),
-                rs.getTimestamp("updatedAt").toLocalDateTime()
-            );
-            return r;
+        private static int executeUpdate(Connection conn, String sql, Object parameter) throws SQLException {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setObject(1, parameter);
+                return pstmt.executeUpdate();
+            }
+        }
+        private static int executeUpdate(Connection conn, String sql, List<Object> params) throws SQLException {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < params.size(); i++) {
+                    pstmt.setObject(i + 1, params.get(i));
+                }
+                return pstmt.executeUpdate();
+            }
+        }
+        //the question a row belongs to, for its change event; 0 if the row does not exist
+        private static int questionOf(Connection conn, String sql, int id) throws SQLException {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, id);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        }
+        private boolean exists(String sql, int id) throws SQLException {
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, id);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        }
+        private static long length(String text) {
+            return text == null ? 0 : text.length();
         }
 
         /**
@@ -368,10 +870,17 @@ public class DiscussionBoardDAO {
          */
         public boolean deleteRepliesForAnswer(int answerId) throws SQLException {
             String sql = "DELETE FROM replies WHERE answerId = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setInt(1, answerId);
-                return pstmt.executeUpdate() >= 0; // Could be 0 if no replies exist
-            }
+            return inTransaction((tx, changes) -> {
+                SearchIndex.removeRepliesForAnswer(tx, answerId);
+                try (PreparedStatement pstmt = tx.prepareStatement(sql)) {
+                    pstmt.setInt(1, answerId);
+                    if (pstmt.executeUpdate() > 0) {
+                        changes.add(DataChangeEvent.reply(DataChangeEvent.Kind.DELETED, 0,
+                                questionOf(tx, "SELECT questionId FROM answers WHERE answerId = ?", answerId)));
+                    }
+                    return true; // Could be 0 if no replies exist
+                }
+            });
         }
 
         /**
@@ -379,10 +888,16 @@ public class DiscussionBoardDAO {
          */
         public boolean deleteAnswersForQuestion(int questionId) throws SQLException {
             String sql = "DELETE FROM answers WHERE questionId = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setInt(1, questionId);
-                return pstmt.executeUpdate() >= 0; // Could be 0 if no answers exist
-            }
+            return inTransaction((tx, changes) -> {
+                SearchIndex.removeAnswersForQuestion(tx, questionId);
+                try (PreparedStatement pstmt = tx.prepareStatement(sql)) {
+                    pstmt.setInt(1, questionId);
+                    if (pstmt.executeUpdate() > 0) {
+                        changes.add(DataChangeEvent.answer(DataChangeEvent.Kind.DELETED, 0, questionId));
+                    }
+                    return true; // Could be 0 if no answers exist
+                }
+            });
         }
 
         /**
@@ -400,14 +915,29 @@ public class DiscussionBoardDAO {
             if (!userExists(reviewerUserName)) {
                 return false;
             }
+            return insertTrust(studentUserName, reviewerUserName);
+        }
 
-            String sql = "INSERT INTO trusted_reviewers (studentUserName, reviewerUserName) VALUES (?, ?)";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setString(1, studentUserName);
-                pstmt.setString(2, reviewerUserName);
-                return pstmt.executeUpdate() > 0;
+        //add a trusted reviewer in a logged transaction; false if the reviewer was already trusted
+        boolean insertTrust(String studentUserName, String reviewerUserName) throws SQLException {
+            String sql = "INSERT INTO trusted_reviewers (studentUserName, reviewerUserName) SELECT ?, ? "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM trusted_reviewers WHERE studentUserName = ? AND reviewerUserName = ?)";
+            try {
+                return inTransaction((tx, changes) -> {
+                    try (PreparedStatement pstmt = tx.prepareStatement(sql)) {
+                        pstmt.setString(1, studentUserName);
+                        pstmt.setString(2, reviewerUserName);
+                        pstmt.setString(3, studentUserName);
+                        pstmt.setString(4, reviewerUserName);
+                        if (pstmt.executeUpdate() == 0) {
+                            return false;
+                        }
+                    }
+                    changes.add(DataChangeEvent.trust(DataChangeEvent.Kind.CREATED, studentUserName));
+                    return true;
+                });
             } catch (SQLException e) {
-                if (e.getErrorCode() == 23505) { // Unique constraint violation
+                if (e.getErrorCode() == 23505) { // added by a concurrent call
                     return false;
                 }
                 throw e;
@@ -424,37 +954,47 @@ public class DiscussionBoardDAO {
             if (studentUserName == null || reviewerUserName == null) {
                 return false;
             }
+            return deleteTrust(studentUserName, reviewerUserName) > 0;
+        }
 
-            String sql = "DELETE FROM trusted_reviewers WHERE studentUserName = ? AND reviewerUserName = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setString(1, studentUserName);
-                pstmt.setString(2, reviewerUserName);
-                return pstmt.executeUpdate() > 0;
-            }
+        //remove one trusted reviewer, or all of them when reviewerUserName is null, in a logged transaction
+        int deleteTrust(String studentUserName, String reviewerUserName) throws SQLException {
+            String sql = reviewerUserName == null
+                    ? "DELETE FROM trusted_reviewers WHERE studentUserName = ?"
+                    : "DELETE FROM trusted_reviewers WHERE studentUserName = ? AND reviewerUserName = ?";
+            return inTransaction((tx, changes) -> {
+                try (PreparedStatement pstmt = tx.prepareStatement(sql)) {
+                    pstmt.setString(1, studentUserName);
+                    if (reviewerUserName != null) {
+                        pstmt.setString(2, reviewerUserName);
+                    }
+                    int count = pstmt.executeUpdate();
+                    if (count > 0) {
+                        changes.add(DataChangeEvent.trust(DataChangeEvent.Kind.DELETED, studentUserName));
+                    }
+                    return count;
+                }
+            });
         }
 
         /**
          * Checks if a reviewer is in a student's trusted reviewers list.
+         * The student's list is loaded once and then answered from the shared TrustCache.
          * @param studentUserName The username of the student
          * @param reviewerUserName The username of the reviewer to check
          * @return true if the reviewer is trusted, false otherwise
          */
         public boolean isReviewerTrusted(String studentUserName, String reviewerUserName) throws SQLException {
-            if (studentUserName == null || reviewerUserName == null) {
-                return false;
-            }
+            return TrustCache.getInstance().isTrusted(studentUserName, reviewerUserName, this::getTrustedReviewers);
+        }
 
-            String sql = "SELECT COUNT(*) FROM trusted_reviewers WHERE studentUserName = ? AND reviewerUserName = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setString(1, studentUserName);
-                pstmt.setString(2, reviewerUserName);
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    if (rs.next()) {
-                        return rs.getInt(1) > 0;
-                    }
-                }
-            }
-            return false;
+        /**
+         * Gets the trusted reviewers of a student as a set for fast membership checks.
+         * @param studentUserName The username of the student
+         * @return Unmodifiable set of trusted reviewer usernames
+         */
+        public Set<String> getTrustedReviewerSet(String studentUserName) throws SQLException {
+            return TrustCache.getInstance().getTrustedSet(studentUserName, this::getTrustedReviewers);
         }
 
         /**
@@ -469,7 +1009,8 @@ public class DiscussionBoardDAO {
             }
 
             String sql = "SELECT reviewerUserName FROM trusted_reviewers WHERE studentUserName = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setString(1, studentUserName);
                 try (ResultSet rs = pstmt.executeQuery()) {
                     while (rs.next()) {
@@ -497,7 +1038,8 @@ public class DiscussionBoardDAO {
                          "SELECT authorUserName FROM replies WHERE authorUserName = ?" +
                          ") AS user_activity";
 
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setString(1, userName);
                 pstmt.setString(2, userName);
                 pstmt.setString(3, userName);
@@ -519,7 +1061,8 @@ public class DiscussionBoardDAO {
             }
 
             String sql = "SELECT COUNT(*) FROM trusted_reviewers WHERE reviewerUserName = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setString(1, reviewerUserName);
                 try (ResultSet rs = pstmt.executeQuery()) {
                     if (rs.next()) {
@@ -530,13 +1073,7 @@ public class DiscussionBoardDAO {
             return 0;
         }
 
-        //finally, close the connection
+        //no connection is held between calls any more, so there is nothing to return to the pool
         public void closeConnection() {
-            try {
-                if (statement != null) statement.close();
-                if (connection != null) connection.close();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
         }
     }
@@ -0,0 +1,686 @@
+package databasePart1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import application.Answer;
+import application.Message;
+import application.Question;
+import application.QuestionSummary;
+import application.QuestionThread;
+import application.Questions;
+import application.Reply;
+
+/**
+ * JUnit4 tests for the DiscussionBoardDAO query methods, on a private in-memory database.
+ */
+public class DiscussionBoardDAOTest {
+
+    private static final String AUTHOR = "daoTestAuthor";
+
+    private DiscussionBoardDAO dao;
+    private final List<Integer> createdQuestions = new ArrayList<>();
+
+    @BeforeClass
+    public static void useScratchDatabase() throws SQLException {
+        ScratchDatabase.use("discussionBoardDAOTest");
+    }
+
+    @AfterClass
+    public static void restoreDatabase() throws SQLException {
+        ScratchDatabase.restore();
+    }
+
+    @Before
+    public void setUp() throws SQLException {
+        dao = new DiscussionBoardDAO();
+    }
+
+    @After
+    public void shutDown() throws SQLException {
+        if (dao != null) {
+            dao.deleteQuestions(createdQuestions);
+            dao.closeConnection();
+        }
+    }
+
+    private Question createQuestion(String title, String content) throws SQLException {
+        Question question = new Question(title, content, AUTHOR);
+        createdQuestions.add(dao.createQuestion(question));
+        return question;
+    }
+
+    @Test
+    public void testQuestionPagesCoverEveryQuestionOnce() throws SQLException {
+        for (int i = 0; i < 5; i++) {
+            createQuestion("Paging question " + i, "Paging content " + i);
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        Question previous = null;
+        PageCursor cursor = null;
+        while (true) {
+            Questions page = dao.getQuestionsPage(cursor, 2);
+            for (Question q : page.getAllQuestions()) {
+                assertTrue("question returned twice", seen.add(q.getQuestionId()));
+                if (previous != null) {
+                    int order = q.getCreatedAt().compareTo(previous.getCreatedAt());
+                    assertTrue("pages must be newest first",
+                            order < 0 || (order == 0 && q.getQuestionId() < previous.getQuestionId()));
+                }
+                previous = q;
+            }
+            if (page.size() < 2) {
+                break;
+            }
+            cursor = PageCursor.after(previous.getCreatedAt(), previous.getQuestionId());
+        }
+        assertTrue(seen.containsAll(createdQuestions));
+        assertEquals(dao.getAllQuestions().size(), seen.size());
+    }
+
+    @Test
+    public void testFirstPageIsBounded() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            createQuestion("Bounded question " + i, "Bounded content " + i);
+        }
+        assertEquals(2, dao.getQuestionsPage(null, 2).size());
+        assertFalse(dao.getQuestionsPage(null, 1).isEmpty());
+    }
+
+    private static List<Integer> ids(Questions questions) {
+        List<Integer> ids = new ArrayList<>();
+        for (Question q : questions.getAllQuestions()) {
+            ids.add(q.getQuestionId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void testSearchRanksTitleMatchesFirst() throws SQLException {
+        String word = "quokka" + System.nanoTime();
+        Question inContent = createQuestion("Search ranking body", "The " + word + " is in the body only");
+        Question inTitle = createQuestion("About the " + word, "Nothing else to see here at all");
+        createQuestion("Search ranking other", "Unrelated content for ranking");
+
+        List<Integer> found = ids(dao.searchQuestions(word.toUpperCase(), 10, 0));
+        assertEquals(List.of(inTitle.getQuestionId(), inContent.getQuestionId()), found);
+        // every word has to match, each as a word prefix
+        assertEquals(List.of(inContent.getQuestionId()),
+                ids(dao.searchQuestions(word.substring(0, 8) + " body", 10, 0)));
+        assertTrue(dao.searchQuestions(word + " unrelated", 10, 0).isEmpty());
+    }
+
+    @Test
+    public void testSearchFollowsAnswerChanges() throws SQLException {
+        String before = "wombat" + System.nanoTime();
+        String after = "numbat" + System.nanoTime();
+        Question question = createQuestion("Search answers question", "Content without the words");
+        Answer answer = new Answer(question.getQuestionId(), "An answer about the " + before, AUTHOR);
+        dao.createAnswer(answer);
+        try {
+            assertEquals(List.of(question.getQuestionId()), ids(dao.searchQuestions(before, 10, 0)));
+
+            answer.setContent("An answer about the " + after);
+            dao.updateAnswer(answer);
+            assertTrue(dao.searchQuestions(before, 10, 0).isEmpty());
+            assertEquals(List.of(question.getQuestionId()), ids(dao.searchQuestions(after, 10, 0)));
+        } finally {
+            dao.deleteAnswer(answer.getAnswerId());
+        }
+        assertTrue(dao.searchQuestions(after, 10, 0).isEmpty());
+    }
+
+    @Test
+    public void testSearchPagesAndDeletes() throws SQLException {
+        String word = "axolotl" + System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            createQuestion("Search paging " + word, "Paged search content " + i);
+        }
+        Set<Integer> seen = new HashSet<>(ids(dao.searchQuestions(word, 2, 0)));
+        seen.addAll(ids(dao.searchQuestions(word, 2, 2)));
+        assertEquals(new HashSet<>(createdQuestions), seen);
+
+        dao.deleteQuestion(createdQuestions.remove(0));
+        assertEquals(2, dao.searchQuestions(word, 10, 0).size());
+    }
+
+    @Test
+    public void testFindQuestionsCombinesFilters() throws SQLException {
+        String word = "pangolin" + System.nanoTime();
+        Question open = createQuestion("Criteria open " + word, "Criteria content");
+        open.setCategory("criteria");
+        Question answered = createQuestion("Criteria answered " + word, "Criteria content");
+        answered.setIsAnswered(true);
+        answered.setCategory("criteria");
+        dao.updateQuestion(open);
+        dao.updateQuestion(answered);
+        createQuestion("Criteria other", "Criteria content without the word");
+
+        QuestionCriteria criteria = new QuestionCriteria().keyword(word).author(AUTHOR).category("criteria");
+        assertEquals(2, dao.findQuestions(criteria, 10, 0).size());
+        assertEquals(List.of(open.getQuestionId()), ids(dao.findQuestions(criteria.answered(false), 10, 0)));
+        assertEquals(List.of(answered.getQuestionId()), ids(dao.findQuestions(
+                new QuestionCriteria().keyword(word).answered(true), 10, 0)));
+        assertTrue(dao.findQuestions(new QuestionCriteria().keyword(word)
+                .createdBetween(null, open.getCreatedAt().minusDays(1)), 10, 0).isEmpty());
+
+        String student = "daoTestStudent";
+        QuestionCriteria trusted = new QuestionCriteria().keyword(word).trustedBy(student);
+        assertTrue(dao.findQuestions(trusted, 10, 0).isEmpty());
+        assertTrue(dao.addTrustedReviewer(student, AUTHOR));
+        try {
+            assertEquals(2, dao.findQuestions(trusted, 10, 0).size());
+        } finally {
+            dao.removeTrustedReviewer(student, AUTHOR);
+        }
+    }
+
+    @Test
+    public void testThreadHoldsOrderedAnswersRepliesAndTrust() throws SQLException {
+        Question question = createQuestion("Thread question", "Thread question content");
+        Answer first = new Answer(question.getQuestionId(), "First answer content", "threadAnswerer");
+        Answer accepted = new Answer(question.getQuestionId(), "Accepted answer content", AUTHOR);
+        accepted.setIsAccepted(true);
+        dao.createAnswer(first);
+        dao.createAnswer(accepted);
+        Reply reply = new Reply(first.getAnswerId(), "A reply to the first answer", AUTHOR);
+        dao.createReply(reply);
+        String student = "daoTestStudent";
+        assertTrue(dao.addTrustedReviewer(student, AUTHOR));
+        try {
+            QuestionThread thread = dao.getThread(question.getQuestionId(), student);
+            assertEquals(question.getTitle(), thread.getQuestion().getTitle());
+            List<Answer> answers = thread.getAnswers().getAllAnswers();
+            assertEquals(List.of(accepted.getAnswerId(), first.getAnswerId()),
+                    List.of(answers.get(0).getAnswerId(), answers.get(1).getAnswerId()));
+            assertEquals(1, thread.getReplies(first.getAnswerId()).getAllReplies().size());
+            assertTrue(thread.getReplies(accepted.getAnswerId()).getAllReplies().isEmpty());
+            assertTrue(thread.isAuthorTrusted(AUTHOR));
+            assertFalse(thread.isAuthorTrusted("threadAnswerer"));
+
+            // a second read is served from the cache, a write is seen by the next read
+            long hits = ThreadCache.getInstance().getHits();
+            dao.getThread(question.getQuestionId(), student);
+            assertEquals(hits + 1, ThreadCache.getInstance().getHits());
+            dao.createReply(new Reply(first.getAnswerId(), "A second reply to it", "threadAnswerer"));
+            assertEquals(2, dao.getThread(question.getQuestionId(), student).getReplies(first.getAnswerId()).getAllReplies().size());
+        } finally {
+            dao.removeTrustedReviewer(student, AUTHOR);
+            dao.deleteRepliesForAnswer(first.getAnswerId());
+            dao.deleteAnswersForQuestion(question.getQuestionId());
+        }
+    }
+
+    @Test
+    public void testEditingAReturnedThreadLeavesTheCachedOneAlone() throws SQLException {
+        Question question = createQuestion("Shared thread question", "Shared thread content");
+        Answer answer = new Answer(question.getQuestionId(), "Shared thread answer", "threadAnswerer");
+        dao.createAnswer(answer);
+        dao.createReply(new Reply(answer.getAnswerId(), "Shared thread reply", AUTHOR));
+        try {
+            QuestionThread thread = dao.getThread(question.getQuestionId(), AUTHOR);
+            thread.getQuestion().setTitle("Edited but not saved");
+            thread.getAnswers().getAllAnswers().get(0).setIsAccepted(true);
+            thread.getReplies(answer.getAnswerId()).getAllReplies().get(0).setContent("Edited reply");
+
+            QuestionThread again = dao.getThread(question.getQuestionId(), AUTHOR);
+            assertEquals("Shared thread question", again.getQuestion().getTitle());
+            assertFalse(again.getQuestion().isDirty());
+            assertFalse(again.getAnswers().getAllAnswers().get(0).getIsAccepted());
+            assertEquals("Shared thread reply",
+                    again.getReplies(answer.getAnswerId()).getAllReplies().get(0).getContent());
+        } finally {
+            dao.deleteRepliesForAnswer(answer.getAnswerId());
+            dao.deleteAnswersForQuestion(question.getQuestionId());
+        }
+    }
+
+    @Test
+    public void testDeleteQuestionsRemovesWholeSubtrees() throws SQLException {
+        String word = "okapi" + System.nanoTime();
+        List<Integer> answerIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Question question = createQuestion("Cascade question " + word, "Cascade content " + i);
+            for (int a = 0; a < 2; a++) {
+                Answer answer = new Answer(question.getQuestionId(), "Cascade answer " + word, AUTHOR);
+                answerIds.add(dao.createAnswer(answer));
+                dao.createReply(new Reply(answer.getAnswerId(), "Cascade reply " + word, AUTHOR));
+            }
+        }
+        Question survivor = createQuestion("Cascade survivor", "Cascade content that stays");
+
+        assertEquals(2, dao.deleteQuestions(createdQuestions.subList(0, 2)));
+        for (int answerId : answerIds) {
+            assertEquals(null, dao.getAnswerById(answerId));
+            assertTrue(dao.getRepliesForAnswer(answerId).getAllReplies().isEmpty());
+        }
+        assertTrue(dao.searchQuestions(word, 10, 0).isEmpty());
+        assertEquals(survivor.getTitle(), dao.getQuestionById(survivor.getQuestionId()).getTitle());
+    }
+
+    @Test
+    public void testDeleteAnswerCascadeTakesItsReplies() throws SQLException {
+        Question question = createQuestion("Cascade answer question", "Cascade answer content");
+        Answer answer = new Answer(question.getQuestionId(), "An answer with replies", AUTHOR);
+        dao.createAnswer(answer);
+        dao.createReply(new Reply(answer.getAnswerId(), "First reply to delete", AUTHOR));
+        dao.createReply(new Reply(answer.getAnswerId(), "Second reply to delete", AUTHOR));
+
+        assertTrue(dao.deleteAnswerCascade(answer.getAnswerId()));
+        assertEquals(null, dao.getAnswerById(answer.getAnswerId()));
+        assertTrue(dao.getThread(question.getQuestionId(), AUTHOR).getAnswers().isEmpty());
+    }
+
+    private int acceptedCount(int questionId) throws SQLException {
+        int accepted = 0;
+        for (Answer answer : dao.getAnswersForQuestion(questionId).getAllAnswers()) {
+            if (answer.getIsAccepted()) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Test
+    public void testAcceptAnswerKeepsOneAcceptedAndAnsweredInStep() throws SQLException {
+        Question question = createQuestion("Accept question", "Accept question content");
+        Answer first = new Answer(question.getQuestionId(), "First candidate answer", AUTHOR);
+        Answer second = new Answer(question.getQuestionId(), "Second candidate answer", AUTHOR);
+        dao.createAnswer(first);
+        dao.createAnswer(second);
+
+        assertTrue(dao.acceptAnswer(question.getQuestionId(), first.getAnswerId()));
+        assertTrue(dao.acceptAnswer(question.getQuestionId(), second.getAnswerId()));
+        assertEquals(1, acceptedCount(question.getQuestionId()));
+        assertTrue(dao.getAnswerById(second.getAnswerId()).getIsAccepted());
+        assertTrue(dao.getQuestionById(question.getQuestionId()).getIsAnswered());
+
+        assertTrue(dao.unacceptAnswer(question.getQuestionId(), second.getAnswerId()));
+        assertEquals(0, acceptedCount(question.getQuestionId()));
+        assertFalse(dao.getQuestionById(question.getQuestionId()).getIsAnswered());
+
+        assertTrue(dao.markHelpful(question.getQuestionId(), first.getAnswerId()));
+        assertTrue(dao.markHelpful(question.getQuestionId(), second.getAnswerId()));
+        assertFalse(dao.getAnswerById(first.getAnswerId()).isCorrect());
+        assertTrue(dao.getAnswerById(second.getAnswerId()).isCorrect());
+
+        // an answer of another question is refused
+        Question other = createQuestion("Accept other question", "Accept other content");
+        assertFalse(dao.acceptAnswer(other.getQuestionId(), first.getAnswerId()));
+        dao.deleteAnswersForQuestion(question.getQuestionId());
+    }
+
+    @Test
+    public void testConcurrentAcceptsLeaveOneAcceptedAnswer() throws Exception {
+        Question question = createQuestion("Concurrent accept question", "Concurrent accept content");
+        List<Integer> answerIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            answerIds.add(dao.createAnswer(new Answer(question.getQuestionId(), "Concurrent answer " + i, AUTHOR)));
+        }
+        List<Thread> admins = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int answerId : answerIds) {
+            admins.add(new Thread(() -> {
+                try {
+                    DiscussionBoardDAO admin = new DiscussionBoardDAO();
+                    try {
+                        for (int round = 0; round < 5; round++) {
+                            admin.acceptAnswer(question.getQuestionId(), answerId);
+                        }
+                    } finally {
+                        admin.closeConnection();
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+        for (Thread admin : admins) {
+            admin.start();
+        }
+        for (Thread admin : admins) {
+            admin.join();
+        }
+        assertEquals(List.of(), failures);
+        assertEquals(1, acceptedCount(question.getQuestionId()));
+        assertTrue(dao.getQuestionById(question.getQuestionId()).getIsAnswered());
+        dao.deleteAnswersForQuestion(question.getQuestionId());
+    }
+
+    @Test
+    public void testUpdatesWriteOnlyChangedColumns() throws SQLException {
+        String word = "quokka" + System.nanoTime();
+        Question created = createQuestion("Partial update " + word, "A long body that a flag toggle should not rewrite");
+        Question question = dao.getQuestionById(created.getQuestionId());
+        assertFalse(question.isDirty());
+        WriteStats stats = WriteStats.getInstance();
+
+        long columns = stats.getColumnsWritten();
+        long text = stats.getTextWritten();
+        long reindexes = stats.getReindexes();
+        question.setIsAnswered(true);
+        assertTrue(dao.updateQuestion(question));
+        assertFalse(question.isDirty());
+        assertEquals(2, stats.getColumnsWritten() - columns); // isAnswered and updatedAt
+        assertEquals(0, stats.getTextWritten() - text);
+        assertEquals(reindexes, stats.getReindexes());
+        assertTrue(dao.getQuestionById(question.getQuestionId()).getIsAnswered());
+        assertEquals(List.of(question.getQuestionId()), ids(dao.searchQuestions(word, 10, 0)));
+
+        question.setContent("Edited body " + word);
+        assertTrue(dao.updateQuestion(question));
+        assertEquals(reindexes + 1, stats.getReindexes());
+        assertEquals("Edited body " + word, dao.getQuestionById(question.getQuestionId()).getContent());
+
+        // nothing changed: no write, but the row still has to exist
+        long skipped = stats.getSkipped();
+        assertTrue(dao.updateQuestion(question));
+        assertEquals(skipped + 1, stats.getSkipped());
+        Question missing = new Question("Missing", "Missing", AUTHOR);
+        missing.setQuestionId(-1);
+        assertFalse(dao.updateQuestion(missing));
+
+        Answer answer = new Answer(question.getQuestionId(), "Answer body " + word, AUTHOR);
+        dao.createAnswer(answer);
+        assertFalse(answer.isDirty());
+        answer.setCorrect(true);
+        columns = stats.getColumnsWritten();
+        assertTrue(dao.updateAnswer(answer));
+        assertEquals(2, stats.getColumnsWritten() - columns);
+        assertTrue(dao.getAnswerById(answer.getAnswerId()).isCorrect());
+        assertEquals("Answer body " + word, dao.getAnswerById(answer.getAnswerId()).getContent());
+        dao.deleteAnswersForQuestion(question.getQuestionId());
+    }
+
+    @Test
+    public void testSummariesMatchQuestionsWithAnswerCounts() throws SQLException {
+        String word = "okapi" + System.nanoTime();
+        Question first = createQuestion("Summary first " + word, "Summary content");
+        Question second = createQuestion("Summary second " + word, "Summary content");
+        dao.createAnswer(new Answer(second.getQuestionId(), "Summary answer one", AUTHOR));
+        dao.createAnswer(new Answer(second.getQuestionId(), "Summary answer two", AUTHOR));
+
+        List<Integer> pageIds = new ArrayList<>();
+        for (QuestionSummary summary : dao.getQuestionSummariesPage(null, 10)) {
+            pageIds.add(summary.getQuestionId());
+        }
+        assertEquals(ids(dao.getQuestionsPage(null, 10)), pageIds);
+
+        List<QuestionSummary> found = dao.findQuestionSummaries(new QuestionCriteria().keyword(word), 10, 0);
+        assertEquals(2, found.size());
+        for (QuestionSummary summary : found) {
+            Question question = summary.getQuestionId() == first.getQuestionId() ? first : second;
+            assertEquals(question.getTitle(), summary.getTitle());
+            assertEquals(AUTHOR, summary.getAuthorUserName());
+            assertEquals(question == second ? 2 : 0, summary.getAnswerCount());
+        }
+        dao.deleteAnswersForQuestion(second.getQuestionId());
+    }
+
+    @Test
+    public void testCommittedChangesArePublishedWithTheirQuestion() throws SQLException {
+        List<DataChangeEvent> events = new ArrayList<>();
+        DataChangeBus.Subscription subscription = DataChangeBus.getInstance().subscribe(events::add);
+        try {
+            Question question = createQuestion("Event question", "Event content");
+            int questionId = question.getQuestionId();
+            question.setTitle("Event question edited");
+            dao.updateQuestion(question);
+            Answer answer = new Answer(questionId, "Event answer", AUTHOR);
+            dao.createAnswer(answer);
+            Reply reply = new Reply(answer.getAnswerId(), "Event reply", AUTHOR);
+            dao.createReply(reply);
+            dao.acceptAnswer(questionId, answer.getAnswerId());
+            dao.deleteReply(reply.getReplyId());
+            dao.deleteAnswerCascade(answer.getAnswerId());
+            dao.deleteQuestionCascade(questionId);
+            //nothing is published for a change that did not happen
+            dao.deleteQuestionCascade(questionId);
+
+            List<DataChangeEvent> mine = new ArrayList<>();
+            for (DataChangeEvent event : events) {
+                if (event.questionId() == questionId) {
+                    mine.add(event);
+                }
+            }
+            assertEquals(List.of(
+                    DataChangeEvent.question(DataChangeEvent.Kind.CREATED, questionId),
+                    DataChangeEvent.question(DataChangeEvent.Kind.UPDATED, questionId),
+                    DataChangeEvent.answer(DataChangeEvent.Kind.CREATED, answer.getAnswerId(), questionId),
+                    DataChangeEvent.reply(DataChangeEvent.Kind.CREATED, reply.getReplyId(), questionId),
+                    DataChangeEvent.answer(DataChangeEvent.Kind.UPDATED, answer.getAnswerId(), questionId),
+                    DataChangeEvent.reply(DataChangeEvent.Kind.DELETED, reply.getReplyId(), questionId),
+                    DataChangeEvent.answer(DataChangeEvent.Kind.DELETED, answer.getAnswerId(), questionId),
+                    DataChangeEvent.question(DataChangeEvent.Kind.DELETED, questionId)), mine);
+            assertEquals(null, dao.getQuestionSummary(questionId));
+        } finally {
+            subscription.cancel();
+        }
+    }
+
+    @Test
+    public void testChangeFeedReadsOnlyNewChangesOfOtherClients() throws SQLException {
+        ChangeFeed otherClient = new ChangeFeed("another-client");
+        ChangeFeed sameClient = new ChangeFeed(ChangeLog.ORIGIN);
+        otherClient.poll();
+        sameClient.poll();
+        long start = otherClient.getLastSeq();
+
+        Question question = createQuestion("Feed question", "Feed content");
+        Answer answer = new Answer(question.getQuestionId(), "Feed answer", AUTHOR);
+        dao.createAnswer(answer);
+
+        List<DataChangeEvent> seen = new ArrayList<>();
+        for (DataChangeEvent event : otherClient.poll()) {
+            if (event.questionId() == question.getQuestionId()) {
+                seen.add(event);
+            }
+        }
+        assertEquals(List.of(
+                DataChangeEvent.question(DataChangeEvent.Kind.CREATED, question.getQuestionId()),
+                DataChangeEvent.answer(DataChangeEvent.Kind.CREATED, answer.getAnswerId(), question.getQuestionId())),
+                seen);
+        assertTrue(otherClient.getLastSeq() >= start + 2);
+        assertTrue(otherClient.poll().isEmpty());
+        assertTrue(sameClient.poll().isEmpty());
+        assertEquals(otherClient.getLastSeq(), sameClient.getLastSeq());
+        dao.deleteAnswersForQuestion(question.getQuestionId());
+    }
+
+    @Test
+    public void testChangeFeedPrunesOnlyOldChanges() throws SQLException {
+        Question question = createQuestion("Prune question", "Prune content");
+        try (Connection conn = ConnectionPool.getInstance().getConnection();
+             Statement statement = conn.createStatement()) {
+            statement.executeUpdate("UPDATE change_log SET changedAt = DATEADD('HOUR', -"
+                    + (ChangeFeed.RETENTION_HOURS + 1) + ", CURRENT_TIMESTAMP) WHERE questionId = "
+                    + question.getQuestionId());
+            dao.createAnswer(new Answer(question.getQuestionId(), "Prune answer", AUTHOR));
+
+            assertTrue(new ChangeFeed("another-client").prune() >= 1);
+            assertEquals(1, count(conn, "SELECT COUNT(*) FROM change_log WHERE questionId = " + question.getQuestionId()));
+        }
+        dao.deleteAnswersForQuestion(question.getQuestionId());
+    }
+
+    @Test
+    public void testTrustChangesAreLoggedAndDropCachedListsOfOtherClients() throws SQLException {
+        createQuestion("Trust feed question", "Trust feed content");
+        String student = "trustFeedStudent";
+        ChangeFeed otherClient = new ChangeFeed("another-client");
+        otherClient.poll();
+        try {
+            assertTrue(new DatabaseHelper().addTrust(student, AUTHOR));
+            assertEquals(List.of(DataChangeEvent.trust(DataChangeEvent.Kind.CREATED, student)), otherClient.poll());
+            assertTrue(dao.isReviewerTrusted(student, AUTHOR));
+
+            // another client removes the reviewer; only its log row reaches this process
+            try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+                conn.setAutoCommit(false);
+                try (Statement statement = conn.createStatement()) {
+                    statement.executeUpdate("DELETE FROM trusted_reviewers WHERE studentUserName = '" + student + "'");
+                }
+                ChangeLog.append(conn, List.of(DataChangeEvent.trust(DataChangeEvent.Kind.DELETED, student)));
+                conn.commit();
+                conn.setAutoCommit(true);
+            }
+            assertTrue(dao.isReviewerTrusted(student, AUTHOR));
+            assertEquals(1, otherClient.poll().size());
+            assertFalse(dao.isReviewerTrusted(student, AUTHOR));
+        } finally {
+            new DatabaseHelper().removeAllTrusts(student);
+        }
+    }
+
+    // every row the generator hands out, as text
+    private static List<String> generatedRows(DatasetGenerator generator) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        generator.generate((DatasetGenerator.Sink) Proxy.newProxyInstance(DatasetGenerator.Sink.class.getClassLoader(),
+                new Class<?>[] {DatasetGenerator.Sink.class}, (proxy, method, args) -> {
+                    rows.add(method.getName() + Arrays.toString(args));
+                    return null;
+                }));
+        return rows;
+    }
+
+    private static int count(Connection conn, String sql) throws SQLException {
+        try (Statement statement = conn.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    public void testFailedBulkLoadLeavesCommittedRowsUsable() throws SQLException {
+        // stops the load at the twentieth message, after several commits
+        DatasetGenerator failing = new DatasetGenerator() {
+            @Override
+            public void generate(Sink sink) throws SQLException {
+                int[] sent = new int[1];
+                super.generate((Sink) Proxy.newProxyInstance(Sink.class.getClassLoader(), new Class<?>[] {Sink.class},
+                        (proxy, method, args) -> {
+                            if (method.getName().equals("message") && ++sent[0] == 20) {
+                                throw new SQLException("Generator failed");
+                            }
+                            try {
+                                return method.invoke(sink, args);
+                            } catch (java.lang.reflect.InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        }));
+            }
+        }.seed(7).userPrefix("bulkFail").users(20).questions(30).messages(40);
+
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            try {
+                new BulkLoader(conn).commitRows(10).load(failing);
+                fail("The load should have failed");
+            } catch (SQLException e) {
+                assertEquals("Generator failed", e.getMessage());
+            }
+            try (Statement statement = conn.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT questionId FROM questions WHERE authorUserName LIKE 'bulkFail%'")) {
+                while (rs.next()) {
+                    createdQuestions.add(rs.getInt(1));
+                }
+            }
+            try {
+                assertEquals(30, createdQuestions.size());
+                int messages = count(conn, "SELECT COUNT(*) FROM messages WHERE authorUserName LIKE 'bulkFail%'");
+                assertTrue(messages >= 10 && messages < 20);
+
+                //the DAOs hand out ids after the committed rows, and the unread counts match them
+                Question question = createQuestion("After the failed load", "Gets the next id");
+                Answer answer = new Answer(question.getQuestionId(), "Answer after the failed load", AUTHOR);
+                dao.createAnswer(answer);
+                dao.createReply(new Reply(answer.getAnswerId(), "Reply after the failed load", AUTHOR));
+                MessagesDAO messagesDao = new MessagesDAO();
+                assertEquals(count(conn, "SELECT COUNT(*) FROM messages WHERE readAt IS NULL "
+                        + "AND receiverUserName = 'bulkFail0'"), messagesDao.getUnreadCount("bulkFail0"));
+                assertTrue(messagesDao.createMessage(new Message("After", "The failed load", AUTHOR, "bulkFail0")) > 0);
+            } finally {
+                try (Statement statement = conn.createStatement()) {
+                    statement.executeUpdate("DELETE FROM messages WHERE receiverUserName LIKE 'bulkFail%'");
+                    statement.executeUpdate("DELETE FROM unread_counts WHERE userName LIKE 'bulkFail%'");
+                    statement.executeUpdate("DELETE FROM trusted_reviewers WHERE studentUserName LIKE 'bulkFail%'");
+                    statement.executeUpdate("DELETE FROM cse360users WHERE userName LIKE 'bulkFail%'");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBulkLoadedDatasetIsRepeatableAndReadable() throws SQLException {
+        DatasetGenerator dataset = new DatasetGenerator().seed(7).userPrefix("bulkTest").users(20)
+                .questions(30).messages(40);
+        assertEquals(generatedRows(dataset), generatedRows(dataset));
+        assertFalse(generatedRows(dataset).equals(generatedRows(new DatasetGenerator().seed(8)
+                .userPrefix("bulkTest").users(20).questions(30).messages(40))));
+
+        MessagesDAO messages = new MessagesDAO();
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            BulkLoader.Stats stats = new BulkLoader(conn).load(dataset);
+            try (Statement statement = conn.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT questionId FROM questions "
+                         + "WHERE authorUserName LIKE 'bulkTest%' ORDER BY questionId")) {
+                while (rs.next()) {
+                    createdQuestions.add(rs.getInt(1));
+                }
+            }
+            try {
+                assertEquals(30, stats.questions());
+                assertEquals(30, createdQuestions.size());
+                assertEquals(20, count(conn, "SELECT COUNT(*) FROM cse360users WHERE userName LIKE 'bulkTest%'"));
+
+                //the DAOs read the loaded rows like their own
+                int answers = 0;
+                for (int questionId : createdQuestions) {
+                    for (Answer answer : dao.getAnswersForQuestion(questionId).getAllAnswers()) {
+                        answers++;
+                        assertEquals(questionId, answer.getQuestionId());
+                    }
+                }
+                assertEquals(stats.answers(), answers);
+                assertEquals(stats.searchRows(), count(conn, "SELECT COUNT(*) FROM search_index WHERE questionId >= "
+                        + createdQuestions.get(0)));
+                String receiver = dataset.userName(0);
+                assertEquals(count(conn, "SELECT COUNT(*) FROM messages WHERE readAt IS NULL AND receiverUserName = '"
+                        + receiver + "'"), messages.getUnreadCount(receiver));
+
+                //ids handed out afterwards follow the loaded ones
+                createQuestion("After the bulk load", "Gets the next id");
+                assertTrue(createdQuestions.get(createdQuestions.size() - 1) > createdQuestions.get(29));
+            } finally {
+                try (Statement statement = conn.createStatement()) {
+                    statement.executeUpdate("DELETE FROM messages WHERE authorUserName LIKE 'bulkTest%'");
+                    statement.executeUpdate("DELETE FROM unread_counts WHERE userName LIKE 'bulkTest%'");
+                    statement.executeUpdate("DELETE FROM trusted_reviewers WHERE studentUserName LIKE 'bulkTest%'");
+                    statement.executeUpdate("DELETE FROM cse360users WHERE userName LIKE 'bulkTest%'");
+                }
+            }
+        } finally {
+            messages.closeConnection();
+        }
+    }
+}
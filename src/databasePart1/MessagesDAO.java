@@ -4,7 +4,9 @@ import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import application.ConversationSummary;
 import application.Message;
+import application.MessageSummary;
 import application.Messages;
 
 /*******
@@ -14,81 +16,217 @@ import application.Messages;
  * 
  */
 
-//data access object for the message
+//data access object for the message; every call borrows its own pooled connection, so one DAO
+//can be used from many threads at once
 public class MessagesDAO {
-    private Connection connection;
-    private Statement statement;
 
-    //db credentials (from DatabaseHelper)
+    //what the inbox list shows; the content stays in the table until a message is opened
+    private static final String SUMMARY_COLUMNS = "messageId, title, authorUserName, receiverUserName, createdAt, readAt";
 
-    // JDBC driver name and database URL 
-	static final String JDBC_DRIVER = "org.h2.Driver";   
-	static final String DB_URL = "jdbc:h2:~/FoundationDatabase";  
+    //adds one to the unread counter of a user, creating it on the first message
+    private static final String COUNT_UNREAD = "MERGE INTO unread_counts c "
+            + "USING (VALUES (CAST(? AS VARCHAR(255)))) AS m(userName) ON c.userName = m.userName "
+            + "WHEN MATCHED THEN UPDATE SET unread = c.unread + 1 "
+            + "WHEN NOT MATCHED THEN INSERT (userName, unread) VALUES (m.userName, 1)";
 
-	//  Database credentials 
-	static final String USER = "sa"; 
-	static final String PASS = ""; 
+    //characters of the last message shown in the conversation list
+    static final int PREVIEW_LENGTH = 80;
+
+    //a unit of work that runs inside one transaction; it lists what it changed in changes
+    private interface Work<T> {
+        T run(Connection tx, List<DataChangeEvent> changes) throws SQLException;
+    }
 
     //constructor
     public MessagesDAO() throws SQLException {
-        connectToDatabase();
-    }
-    //connect to db 
-    private void connectToDatabase() throws SQLException {
-        try {
-            Class.forName(JDBC_DRIVER);
-            connection = DriverManager.getConnection(DB_URL, USER, PASS);
-            statement = connection.createStatement();
-            createTables();
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("Failed to connect to the database", e);
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            SchemaMigrations.ensureCurrent(conn);
         }
     }
-    //create the tables
-	/**
-	  * This method creates the table to store the messages.
-	  * It also stores the message id, title, content, username of sender/receiver
-	  * and time stamps of when message was created.
-	  */
-    private void createTables() throws SQLException {
-    	//Clear table comment out if not needed
-        //statement.execute("DROP TABLE IF EXISTS messages");
-
-        //messages table.
-        String messageTable = "CREATE TABLE IF NOT EXISTS messages(" +
-        "messageId INT AUTO_INCREMENT PRIMARY KEY," +
-        "title VARCHAR(255) NOT NULL," +
-        "content TEXT NOT NULL," +
-        "authorUserName VARCHAR(255) NOT NULL," +
-        "receiverUserName VARCHAR(255) NOT NULL," +
-        "createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-        "updatedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
-        statement.execute(messageTable);
-    }
     //insert a message 
 	/**
 	  * This method creates a message, and inserts the data into the messages table.
+	  * A message with a parent message joins the parent's conversation; any other
+	  * message starts a conversation of its own.
 	  * 
 	  * @param message			the content of the message to be sent.
 	  * 
 	  */
     public int createMessage(Message message) throws SQLException {
-        String sql = "INSERT INTO messages (title, content, authorUserName, receiverUserName) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, message.getTitle());
-            pstmt.setString(2, message.getContent());
-            pstmt.setString(3, message.getAuthorUserName());
-            pstmt.setString(4, message.getReceiverUserName());
-            pstmt.executeUpdate();
-            //return the message id
-            ResultSet rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
-                int generatedId = rs.getInt(1);
-                message.setMessageId(generatedId);
-                return generatedId;
+        String sql = "INSERT INTO messages (title, content, authorUserName, receiverUserName, conversationId, "
+                + "parentMessageId) VALUES (?, ?, ?, ?, ?, ?)";
+        //the message, the receiver's unread count and the change log row are committed together
+        return inTransaction((tx, changes) -> {
+            int conversationId = 0;
+            if (message.getParentMessageId() > 0) {
+                try (PreparedStatement pstmt = tx.prepareStatement(
+                        "SELECT conversationId FROM messages WHERE messageId = ?")) {
+                    pstmt.setInt(1, message.getParentMessageId());
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new SQLException("The message being replied to does not exist: "
+                                    + message.getParentMessageId());
+                        }
+                        conversationId = rs.getInt(1);
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = tx.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, message.getTitle());
+                pstmt.setString(2, message.getContent());
+                pstmt.setString(3, message.getAuthorUserName());
+                pstmt.setString(4, message.getReceiverUserName());
+                pstmt.setObject(5, conversationId > 0 ? conversationId : null);
+                pstmt.setObject(6, message.getParentMessageId() > 0 ? message.getParentMessageId() : null);
+                pstmt.executeUpdate();
+                //return the message id
+                ResultSet rs = pstmt.getGeneratedKeys();
+                if (rs.next()) {
+                    int generatedId = rs.getInt(1);
+                    if (conversationId == 0) {
+                        //a new conversation is named after its first message
+                        conversationId = generatedId;
+                        try (PreparedStatement update = tx.prepareStatement(
+                                "UPDATE messages SET conversationId = ? WHERE messageId = ?")) {
+                            update.setInt(1, conversationId);
+                            update.setInt(2, generatedId);
+                            update.executeUpdate();
+                        }
+                    }
+                    countUnread(tx, message.getReceiverUserName());
+                    message.setMessageId(generatedId);
+                    message.setConversationId(conversationId);
+                    changes.add(DataChangeEvent.message(DataChangeEvent.Kind.CREATED, generatedId,
+                            message.getReceiverUserName()));
+                    return generatedId;
+                }
             }
-        }
             return -1;
+        });
+        }
+    	/**
+    	  * This method lists one page of a user's inbox without the message content, newest first.
+    	  * Pages are keyset paged on (createdAt, messageId), so a page deep in the inbox costs
+    	  * the same as the first.
+	 	  * 
+	 	  * @param userName		userName to list the messages of
+	 	  * @param unreadOnly	true to list only the messages not opened yet
+	 	  * @param after			cursor of the last message already loaded, or null for the first page
+	 	  * @param limit			maximum number of messages to return
+	 	  * 
+	 	  * @return the messages of the page; fewer than limit means the end was reached
+	 	  */
+        public List<MessageSummary> getInboxPage(String userName, boolean unreadOnly, PageCursor after, int limit)
+                throws SQLException {
+            StringBuilder sql = new StringBuilder("SELECT " + SUMMARY_COLUMNS + " FROM messages WHERE receiverUserName = ?");
+            if (unreadOnly) {
+                sql.append(" AND readAt IS NULL");
+            }
+            if (after != null) {
+                sql.append(" AND (createdAt, messageId) < (?, ?)");
+            }
+            sql.append(" ORDER BY createdAt DESC, messageId DESC LIMIT ?");
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int index = 1;
+                pstmt.setString(index++, userName);
+                if (after != null) {
+                    pstmt.setTimestamp(index++, Timestamp.valueOf(after.getCreatedAt()));
+                    pstmt.setInt(index++, after.getId());
+                }
+                pstmt.setInt(index, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return RowMappers.mapAll(rs, RowMappers.MESSAGE_SUMMARY);
+                }
+            }
+        }
+    	/**
+    	  * This method returns how many messages a user has not opened yet. The count is kept
+    	  * up to date by every send and read, so this is a single primary key lookup.
+	 	  * 
+	 	  * @param userName		userName to count the unread messages of
+	 	  * 
+	 	  */
+        public int getUnreadCount(String userName) throws SQLException {
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT unread FROM unread_counts WHERE userName = ?")) {
+                pstmt.setString(1, userName);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        }
+    	/**
+    	  * This method marks a message as read by its receiver. Reading it again changes nothing.
+    	  * 
+    	  * @param messageId		id of the message that was opened
+    	  * 
+    	  * @return true if the message was unread until now
+    	  */
+        public boolean markRead(int messageId) throws SQLException {
+            boolean marked = inTransaction((tx, changes) -> {
+                String receiver = null;
+                try (PreparedStatement pstmt = tx.prepareStatement(
+                        "SELECT receiverUserName FROM messages WHERE messageId = ? AND readAt IS NULL FOR UPDATE")) {
+                    pstmt.setInt(1, messageId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (rs.next()) {
+                            receiver = rs.getString(1);
+                        }
+                    }
+                }
+                if (receiver == null) {
+                    return false;
+                }
+                try (PreparedStatement pstmt = tx.prepareStatement("UPDATE messages SET readAt = ? WHERE messageId = ?")) {
+                    pstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+                    pstmt.setInt(2, messageId);
+                    pstmt.executeUpdate();
+                }
+                executeUpdate(tx, "UPDATE unread_counts SET unread = unread - 1 WHERE userName = ?", receiver);
+                changes.add(DataChangeEvent.message(DataChangeEvent.Kind.UPDATED, messageId, receiver));
+                return true;
+            });
+            return marked;
+        }
+    	/**
+    	  * This method marks every message of a user's inbox as read.
+    	  * 
+    	  * @param userName		userName whose inbox was read
+    	  * 
+    	  * @return the number of messages that were unread
+    	  */
+        public int markAllRead(String userName) throws SQLException {
+            int marked = inTransaction((tx, changes) -> {
+                //the ids come from the rows this statement changed, so a message sent meanwhile is
+                //either marked and subtracted here or stays unread and counted
+                List<Integer> ids = new ArrayList<>();
+                try (PreparedStatement pstmt = tx.prepareStatement("SELECT messageId FROM FINAL TABLE "
+                        + "(UPDATE messages SET readAt = ? WHERE receiverUserName = ? AND readAt IS NULL)")) {
+                    pstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+                    pstmt.setString(2, userName);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                try (PreparedStatement pstmt = tx.prepareStatement(
+                        "UPDATE unread_counts SET unread = unread - ? WHERE userName = ?")) {
+                    pstmt.setInt(1, ids.size());
+                    pstmt.setString(2, userName);
+                    pstmt.executeUpdate();
+                }
+                for (int id : ids) {
+                    changes.add(DataChangeEvent.message(DataChangeEvent.Kind.UPDATED, id, userName));
+                }
+                return ids.size();
+            });
+            return marked;
         }
         //get all users messages
     	/**
@@ -100,17 +238,112 @@ public class MessagesDAO {
         public Messages getUserMessages(String userName) throws SQLException {
             Messages messages = new Messages();
             String sql = "SELECT * FROM messages WHERE receiverUserName = ? ORDER BY createdAt DESC";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)){
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)){
             	 pstmt.setString(1, userName);
-                 ResultSet rs = pstmt.executeQuery();
-                
-                while (rs.next()) {
-                    Message m = extractMessageFromResultSet(rs);
-                    messages.addMessage(m);
-                }
+                 try (ResultSet rs = pstmt.executeQuery()) {
+                     RowMapper<Message> mapper = RowMappers.MESSAGE.bind(rs);
+                     while (rs.next()) {
+                         messages.addMessage(mapper.map(rs));
+                     }
+                 }
             }
             return messages;
         }
+    	/**
+    	  * This method lists the messages a user received without their content, newest first.
+    	  * The content is read by getConversation once a message is opened.
+	 	  * 
+	 	  * @param userName		userName to list the messages of
+	 	  * 
+	 	  */
+        public List<MessageSummary> getUserMessageSummaries(String userName) throws SQLException {
+            String sql = "SELECT " + SUMMARY_COLUMNS + " FROM messages "
+                    + "WHERE receiverUserName = ? ORDER BY createdAt DESC";
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, userName);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return RowMappers.mapAll(rs, RowMappers.MESSAGE_SUMMARY);
+                }
+            }
+        }
+    	/**
+    	  * This method returns the conversation a message belongs to, oldest first, in one
+    	  * query on the conversation index. A long conversation is cut to its latest messages,
+    	  * but the given message is always among them.
+    	  * 
+    	  * @param messageId		id of any message of the conversation
+    	  * @param limit			maximum number of messages to return
+    	  * 
+    	  * @return the messages of the conversation; empty if the message does not exist
+    	  */
+        public List<Message> getConversation(int messageId, int limit) throws SQLException {
+            String sql = "SELECT * FROM (SELECT * FROM messages WHERE conversationId = "
+                    + "(SELECT conversationId FROM messages WHERE messageId = ?) "
+                    + "ORDER BY messageId = ? DESC, createdAt DESC, messageId DESC LIMIT ?) "
+                    + "ORDER BY createdAt, messageId";
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, messageId);
+                pstmt.setInt(2, messageId);
+                pstmt.setInt(3, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return RowMappers.mapAll(rs, RowMappers.MESSAGE);
+                }
+            }
+        }
+    	/**
+    	  * This method lists the conversations a user sent or received messages in, the most
+    	  * recently active first, each with the start of its last message and its unread count.
+    	  * Everything comes from one aggregated query instead of one query per conversation.
+    	  * 
+    	  * @param userName		userName to list the conversations of
+    	  * @param limit			maximum number of conversations to return
+    	  * 
+    	  */
+        public List<ConversationSummary> getConversations(String userName, int limit) throws SQLException {
+            //ids grow with time, so the highest id of a conversation is its last message
+            String sql = "SELECT c.conversationId, c.messageCount, c.unreadCount, m.messageId AS lastMessageId, m.title, "
+                    + "CASE WHEN m.authorUserName = ? THEN m.receiverUserName ELSE m.authorUserName END AS otherUserName, "
+                    + "m.authorUserName AS lastAuthorUserName, SUBSTRING(m.content, 1, " + PREVIEW_LENGTH + ") AS preview, "
+                    + "m.createdAt AS lastAt "
+                    + "FROM (SELECT conversationId, COUNT(*) AS messageCount, "
+                    + "SUM(CASE WHEN receiverUserName = ? AND readAt IS NULL THEN 1 ELSE 0 END) AS unreadCount, "
+                    + "MAX(messageId) AS lastMessageId FROM messages "
+                    + "WHERE conversationId IN (SELECT conversationId FROM messages WHERE receiverUserName = ? "
+                    + "UNION SELECT conversationId FROM messages WHERE authorUserName = ?) "
+                    + "GROUP BY conversationId) c "
+                    + "JOIN messages m ON m.messageId = c.lastMessageId "
+                    + "ORDER BY m.createdAt DESC, m.messageId DESC LIMIT ?";
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, userName);
+                pstmt.setString(2, userName);
+                pstmt.setString(3, userName);
+                pstmt.setString(4, userName);
+                pstmt.setInt(5, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return RowMappers.mapAll(rs, RowMappers.CONVERSATION_SUMMARY);
+                }
+            }
+        }
+    	/**
+    	  * This method returns the summary of one message, for adding it to an open inbox.
+    	  * 
+    	  * @param messageId		id of the message
+    	  * 
+    	  */
+        public MessageSummary getMessageSummary(int messageId) throws SQLException {
+            String sql = "SELECT " + SUMMARY_COLUMNS + " FROM messages WHERE messageId = ?";
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, messageId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return RowMappers.mapOne(rs, RowMappers.MESSAGE_SUMMARY);
+                }
+            }
+        }
     	/**
     	  * This method returns the message id.
     	  * 
@@ -119,37 +352,57 @@ public class MessagesDAO {
    	  	  */
         public Message getMessageById(int messageId) throws SQLException {
             String sql = "SELECT * FROM messages WHERE messageId = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (Connection conn = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, messageId);
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next()) {
-                    return extractMessageFromResultSet(rs);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return RowMappers.mapOne(rs, RowMappers.MESSAGE);
                 }
             }
-            return null;
         }
         //helper methods for all operations
-        private Message extractMessageFromResultSet(ResultSet rs) throws SQLException {
-            Message m = new Message(
-                rs.getString("title"),
-                rs.getString("content"),
-                rs.getString("authorUserName"),
-                rs.getString("receiverUserName")
-            );
-            m.setMessageId(rs.getInt("messageId"));
-            m.setCreatedAt(rs.getTimestamp("createdAt").toLocalDateTime());
-            m.setUpdatedAt(rs.getTimestamp("updatedAt").toLocalDateTime());
-            return m;
-        }
-
 
-        //finally, close the connection
-        public void closeConnection() {
+        //run work in a transaction on its own pooled connection; the changes are logged with it
+        //and published once it has committed
+        private <T> T inTransaction(Work<T> work) throws SQLException {
+            List<DataChangeEvent> changes = new ArrayList<>();
+            T result;
+            try (Connection tx = ConnectionPool.getInstance().getConnection()) {
+                tx.setAutoCommit(false);
+                try {
+                    result = work.run(tx, changes);
+                    ChangeLog.append(tx, changes);
+                    tx.commit();
+                } catch (SQLException | RuntimeException e) {
+                    tx.rollback();
+                    throw e;
+                }
+            }
+            DataChangeBus.getInstance().publish(changes);
+            return result;
+        }
+        //adds one to the unread counter of a user; when a concurrent first message to the same
+        //user created the counter meanwhile, the insert fails and the counter it created is updated
+        private static void countUnread(Connection tx, String userName) throws SQLException {
             try {
-                if (statement != null) statement.close();
-                if (connection != null) connection.close();
+                executeUpdate(tx, COUNT_UNREAD, userName);
             } catch (SQLException e) {
-                e.printStackTrace();
+                if (e.getErrorCode() != 23505) {
+                    throw e;
+                }
+                executeUpdate(tx, "UPDATE unread_counts SET unread = unread + 1 WHERE userName = ?", userName);
+            }
+        }
+
+        private static int executeUpdate(Connection conn, String sql, Object parameter) throws SQLException {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setObject(1, parameter);
+                return pstmt.executeUpdate();
             }
         }
+
+
+        //no connection is held between calls any more, so there is nothing to return to the pool
+        public void closeConnection() {
+        }
     }
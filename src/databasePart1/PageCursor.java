@@ -0,0 +1,43 @@
+package databasePart1;
+
+import java.time.LocalDateTime;
+
+/**
+ * The PageCursor class marks a position in a list ordered newest first by
+ * (createdAt, id). The next page starts right after it, so paging costs the same
+ * however far down the list the user has scrolled.
+ */
+public final class PageCursor {
+    private final LocalDateTime createdAt;
+    private final int id;
+
+    private PageCursor(LocalDateTime createdAt, int id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * Creates a cursor positioned at the given row.
+     * @param createdAt the creation time of the last row already seen
+     * @param id the id of the last row already seen
+     * @return a cursor for the next page
+     */
+    public static PageCursor after(LocalDateTime createdAt, int id) {
+        if (createdAt == null) {
+            throw new IllegalArgumentException("createdAt is required for a page cursor");
+        }
+        return new PageCursor(createdAt, id);
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor{createdAt=" + createdAt + ", id=" + id + '}';
+    }
+}
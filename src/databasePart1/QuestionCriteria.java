@@ -0,0 +1,174 @@
+package databasePart1;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The QuestionCriteria class describes which questions to list: any combination of a search
+ * keyword, answered status, author, category, questions by the viewer's trusted reviewers and
+ * a creation date range. DiscussionBoardDAO.findQuestions turns it into a single SQL query, so
+ * the filtering happens in the database instead of over a full list in Java.
+ *
+ * <p> Each method sets one condition and returns the criteria, so they can be chained: </p>
+ * <pre>
+ *     new QuestionCriteria().keyword("recursion").answered(false).trustedBy(userName)
+ * </pre>
+ */
+public final class QuestionCriteria {
+    private String keyword;
+    private Boolean answered;
+    private String author;
+    private String category;
+    private String trustedBy;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdBefore;
+
+    /**
+     * Only questions matching the search words, ranked best match first.
+     * A blank keyword means no keyword condition.
+     */
+    public QuestionCriteria keyword(String keyword) {
+        this.keyword = keyword == null || keyword.trim().isEmpty() ? null : keyword.trim();
+        return this;
+    }
+    /**
+     * Only answered (true) or unanswered (false) questions.
+     */
+    public QuestionCriteria answered(boolean answered) {
+        this.answered = answered;
+        return this;
+    }
+    /**
+     * Only questions asked by this user.
+     */
+    public QuestionCriteria author(String authorUserName) {
+        this.author = authorUserName;
+        return this;
+    }
+    /**
+     * Only questions in this category.
+     */
+    public QuestionCriteria category(String category) {
+        this.category = category;
+        return this;
+    }
+    /**
+     * Only questions asked by reviewers this student trusts.
+     */
+    public QuestionCriteria trustedBy(String studentUserName) {
+        this.trustedBy = studentUserName;
+        return this;
+    }
+    /**
+     * Only questions created in [from, before); either end may be null for no bound.
+     */
+    public QuestionCriteria createdBetween(LocalDateTime from, LocalDateTime before) {
+        this.createdFrom = from;
+        this.createdBefore = before;
+        return this;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+    public Boolean getAnswered() {
+        return answered;
+    }
+    public String getAuthor() {
+        return author;
+    }
+    public String getCategory() {
+        return category;
+    }
+    public String getTrustedBy() {
+        return trustedBy;
+    }
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+    public LocalDateTime getCreatedBefore() {
+        return createdBefore;
+    }
+
+    /**
+     * Returns true if no condition is set, so every question matches.
+     */
+    public boolean isEmpty() {
+        return keyword == null && answered == null && author == null && category == null
+                && trustedBy == null && createdFrom == null && createdBefore == null;
+    }
+
+    /**
+     * Builds the query for these criteria, selecting every column of questions.
+     */
+    String toSql(List<Object> params) {
+        return toSql("q.*", params);
+    }
+
+    /**
+     * Builds the query for these criteria. The values to bind are appended to params in
+     * order, followed by the caller's limit and offset.
+     *
+     * <p> Without a keyword the questions come newest first through idx_questions_created.
+     * With one, the search_index matches drive the query and the questions rows are joined to
+     * them; the LEFT JOIN keeps H2 from turning the join around and probing the index once
+     * per question. </p>
+     * @param columns the select list, using q for questions
+     */
+    String toSql(String columns, List<Object> params) {
+        StringBuilder sql = new StringBuilder();
+        List<String> terms = keyword == null ? List.of() : SearchIndex.queryTerms(keyword);
+        boolean ranked = !terms.isEmpty();
+        if (ranked) {
+            sql.append("SELECT ").append(columns).append(" FROM (").append(SearchIndex.matchSql(terms.size())).append(") AS hits ")
+               .append("LEFT JOIN questions q ON q.questionId = hits.questionId WHERE q.questionId IS NOT NULL");
+            for (String term : terms) {
+                params.add(term);
+                params.add(SearchIndex.prefixUpperBound(term));
+            }
+        } else if (keyword != null) {
+            // only stop words or single letters: nothing can match
+            sql.append("SELECT ").append(columns).append(" FROM questions q WHERE FALSE");
+        } else {
+            sql.append("SELECT ").append(columns).append(" FROM questions q WHERE TRUE");
+        }
+        if (answered != null) {
+            sql.append(" AND q.isAnswered = ?");
+            params.add(answered);
+        }
+        if (author != null) {
+            sql.append(" AND q.authorUserName = ?");
+            params.add(author);
+        }
+        if (category != null) {
+            sql.append(" AND q.category = ?");
+            params.add(category);
+        }
+        if (trustedBy != null) {
+            sql.append(" AND q.authorUserName IN "
+                    + "(SELECT reviewerUserName FROM trusted_reviewers WHERE studentUserName = ?)");
+            params.add(trustedBy);
+        }
+        if (createdFrom != null) {
+            sql.append(" AND q.createdAt >= ?");
+            params.add(Timestamp.valueOf(createdFrom));
+        }
+        if (createdBefore != null) {
+            sql.append(" AND q.createdAt < ?");
+            params.add(Timestamp.valueOf(createdBefore));
+        }
+        sql.append(ranked
+                ? " ORDER BY hits.score DESC, q.createdAt DESC, q.questionId DESC"
+                : " ORDER BY q.createdAt DESC, q.questionId DESC");
+        sql.append(" LIMIT ? OFFSET ?");
+        return sql.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "QuestionCriteria{keyword=" + keyword + ", answered=" + answered + ", author=" + author
+                + ", category=" + category + ", trustedBy=" + trustedBy
+                + ", createdFrom=" + createdFrom + ", createdBefore=" + createdBefore + '}';
+    }
+}
@@ -0,0 +1,24 @@
+package databasePart1;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object. A RowMapper is made by a
+ * {@link Shape} for one result set, with the positions of the columns it reads already
+ * looked up, so mapping a row reads columns by index only.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T map(ResultSet rs) throws SQLException;
+
+    /**
+     * The columns a kind of row is read from. bind looks their positions up in one
+     * result set and returns the mapper for its rows.
+     */
+    @FunctionalInterface
+    interface Shape<T> {
+        RowMapper<T> bind(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,211 @@
+package databasePart1;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import application.Answer;
+import application.ConversationSummary;
+import application.Message;
+import application.MessageSummary;
+import application.Question;
+import application.QuestionSummary;
+import application.Reply;
+
+/**
+ * The RowMappers class holds the row shapes of the discussion board and message tables.
+ *
+ * <p> Looking a column up by name costs a search of the result set's column labels on every
+ * row, and reading a timestamp through getTimestamp allocates a java.sql.Timestamp only to
+ * turn it into a LocalDateTime. A shape finds the column positions once per result set, and
+ * its mapper reads timestamps straight into LocalDateTime and builds each object with one
+ * constructor call. </p>
+ */
+public final class RowMappers {
+
+    private RowMappers() {
+    }
+
+    /**
+     * A row of questions (SELECT * or q.*).
+     */
+    public static final RowMapper.Shape<Question> QUESTION = rs -> {
+        int questionId = rs.findColumn("questionId");
+        int title = rs.findColumn("title");
+        int content = rs.findColumn("content");
+        int author = rs.findColumn("authorUserName");
+        int createdAt = rs.findColumn("createdAt");
+        int updatedAt = rs.findColumn("updatedAt");
+        int isAnswered = rs.findColumn("isAnswered");
+        int category = rs.findColumn("category");
+        return row -> new Question(
+                row.getInt(questionId),
+                row.getString(title),
+                row.getString(content),
+                row.getString(author),
+                dateTime(row, createdAt),
+                dateTime(row, updatedAt),
+                row.getBoolean(isAnswered),
+                row.getString(category));
+    };
+
+    /**
+     * A question of the list view, with its answerCount.
+     */
+    public static final RowMapper.Shape<QuestionSummary> QUESTION_SUMMARY = rs -> {
+        int questionId = rs.findColumn("questionId");
+        int title = rs.findColumn("title");
+        int author = rs.findColumn("authorUserName");
+        int isAnswered = rs.findColumn("isAnswered");
+        int category = rs.findColumn("category");
+        int createdAt = rs.findColumn("createdAt");
+        int answerCount = rs.findColumn("answerCount");
+        return row -> new QuestionSummary(
+                row.getInt(questionId),
+                row.getString(title),
+                row.getString(author),
+                row.getBoolean(isAnswered),
+                row.getString(category),
+                dateTime(row, createdAt),
+                row.getInt(answerCount));
+    };
+
+    /**
+     * A row of answers.
+     */
+    public static final RowMapper.Shape<Answer> ANSWER = rs -> {
+        int answerId = rs.findColumn("answerId");
+        int questionId = rs.findColumn("questionId");
+        int content = rs.findColumn("content");
+        int author = rs.findColumn("authorUserName");
+        int createdAt = rs.findColumn("createdAt");
+        int updatedAt = rs.findColumn("updatedAt");
+        int isAccepted = rs.findColumn("isAccepted");
+        int isCorrect = rs.findColumn("isCorrect");
+        return row -> new Answer(
+                row.getInt(answerId),
+                row.getInt(questionId),
+                row.getString(content),
+                row.getString(author),
+                dateTime(row, createdAt),
+                dateTime(row, updatedAt),
+                row.getBoolean(isAccepted),
+                row.getBoolean(isCorrect));
+    };
+
+    /**
+     * A row of replies.
+     */
+    public static final RowMapper.Shape<Reply> REPLY = rs -> {
+        int replyId = rs.findColumn("replyId");
+        int answerId = rs.findColumn("answerId");
+        int content = rs.findColumn("content");
+        int author = rs.findColumn("authorUserName");
+        int createdAt = rs.findColumn("createdAt");
+        int updatedAt = rs.findColumn("updatedAt");
+        return row -> new Reply(
+                row.getInt(replyId),
+                row.getInt(answerId),
+                row.getString(content),
+                row.getString(author),
+                dateTime(row, createdAt),
+                dateTime(row, updatedAt));
+    };
+
+    /**
+     * A row of messages.
+     */
+    public static final RowMapper.Shape<Message> MESSAGE = rs -> {
+        int messageId = rs.findColumn("messageId");
+        int title = rs.findColumn("title");
+        int content = rs.findColumn("content");
+        int author = rs.findColumn("authorUserName");
+        int receiver = rs.findColumn("receiverUserName");
+        int createdAt = rs.findColumn("createdAt");
+        int updatedAt = rs.findColumn("updatedAt");
+        int readAt = rs.findColumn("readAt");
+        int conversationId = rs.findColumn("conversationId");
+        int parentMessageId = rs.findColumn("parentMessageId");
+        return row -> new Message(
+                row.getInt(messageId),
+                row.getString(title),
+                row.getString(content),
+                row.getString(author),
+                row.getString(receiver),
+                dateTime(row, createdAt),
+                dateTime(row, updatedAt),
+                dateTime(row, readAt),
+                row.getInt(conversationId),
+                row.getInt(parentMessageId));
+    };
+
+    /**
+     * A message of the inbox list, without its content.
+     */
+    public static final RowMapper.Shape<MessageSummary> MESSAGE_SUMMARY = rs -> {
+        int messageId = rs.findColumn("messageId");
+        int title = rs.findColumn("title");
+        int author = rs.findColumn("authorUserName");
+        int receiver = rs.findColumn("receiverUserName");
+        int createdAt = rs.findColumn("createdAt");
+        int readAt = rs.findColumn("readAt");
+        return row -> new MessageSummary(
+                row.getInt(messageId),
+                row.getString(title),
+                row.getString(author),
+                row.getString(receiver),
+                dateTime(row, createdAt),
+                dateTime(row, readAt));
+    };
+
+    /**
+     * A conversation of the conversation list, with the start of its last message.
+     */
+    public static final RowMapper.Shape<ConversationSummary> CONVERSATION_SUMMARY = rs -> {
+        int conversationId = rs.findColumn("conversationId");
+        int title = rs.findColumn("title");
+        int other = rs.findColumn("otherUserName");
+        int lastMessageId = rs.findColumn("lastMessageId");
+        int lastAuthor = rs.findColumn("lastAuthorUserName");
+        int preview = rs.findColumn("preview");
+        int lastAt = rs.findColumn("lastAt");
+        int messageCount = rs.findColumn("messageCount");
+        int unreadCount = rs.findColumn("unreadCount");
+        return row -> new ConversationSummary(
+                row.getInt(conversationId),
+                row.getString(title),
+                row.getString(other),
+                row.getInt(lastMessageId),
+                row.getString(lastAuthor),
+                row.getString(preview),
+                dateTime(row, lastAt),
+                row.getInt(messageCount),
+                row.getInt(unreadCount));
+    };
+
+    /**
+     * Maps every remaining row of a result set.
+     */
+    public static <T> List<T> mapAll(ResultSet rs, RowMapper.Shape<T> shape) throws SQLException {
+        RowMapper<T> mapper = shape.bind(rs);
+        List<T> rows = new ArrayList<>();
+        while (rs.next()) {
+            rows.add(mapper.map(rs));
+        }
+        return rows;
+    }
+
+    /**
+     * Maps the next row of a result set, or returns null if there is none.
+     */
+    public static <T> T mapOne(ResultSet rs, RowMapper.Shape<T> shape) throws SQLException {
+        return rs.next() ? shape.bind(rs).map(rs) : null;
+    }
+
+    // a TIMESTAMP column as LocalDateTime, without the java.sql.Timestamp in between
+    static LocalDateTime dateTime(ResultSet rs, int column) throws SQLException {
+        return rs.getObject(column, LocalDateTime.class);
+    }
+}
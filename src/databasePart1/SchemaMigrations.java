@@ -0,0 +1,355 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The SchemaMigrations class owns the database schema. Every change to a table or index is
+ * a numbered migration, and the schema_version table records which ones have been applied.
+ *
+ * <p> DatabaseHelper, DiscussionBoardDAO and MessagesDAO call {@link #ensureCurrent(Connection)}
+ * when they connect; the migrations run the first time and every later call in the same
+ * process returns immediately for that database. </p>
+ *
+ * <p> H2 commits every DDL statement on its own, so a migration that fails part way cannot be
+ * rolled back; only the data changes since its last DDL statement are undone. Every statement
+ * and data step must therefore be safe to run again (IF NOT EXISTS, inserts of seed rows only
+ * when missing, steps that recompute what they fill), and the next start finishes a migration
+ * that was left half applied. Seed rows go after the DDL of their migration. </p>
+ *
+ * <p> Processes that start together against the same database take turns: the version is read
+ * and the migrations applied while a row of schema_lock is locked from a second session, which
+ * DDL on the migrating connection does not release. </p>
+ */
+public class SchemaMigrations {
+
+    private static final List<Migration> MIGRATIONS = new ArrayList<>();
+    // H2 error codes
+    private static final int DUPLICATE_KEY = 23505;
+    private static final int LOCK_TIMEOUT = 50200;
+
+    static {
+        // V1 is the schema the application shipped with, so existing databases adopt it as-is
+        add(1, "baseline tables",
+            "CREATE TABLE IF NOT EXISTS cse360users ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "userName VARCHAR(255) UNIQUE, "
+                + "password VARCHAR(255), "
+                + "role VARCHAR(20))",
+            "CREATE TABLE IF NOT EXISTS InvitationCodes ("
+                + "code VARCHAR(10) PRIMARY KEY, "
+                + "isUsed BOOLEAN DEFAULT FALSE)",
+            "CREATE TABLE IF NOT EXISTS questions("
+                + "questionId INT AUTO_INCREMENT PRIMARY KEY,"
+                + "title VARCHAR(255) NOT NULL,"
+                + "content TEXT NOT NULL,"
+                + "authorUserName VARCHAR(255) NOT NULL,"
+                + "createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                + "updatedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                + "isAnswered BOOLEAN DEFAULT FALSE,"
+                + "category VARCHAR(100))",
+            "CREATE TABLE IF NOT EXISTS answers("
+                + "answerId INT AUTO_INCREMENT PRIMARY KEY,"
+                + "questionId INT NOT NULL,"
+                + "content TEXT NOT NULL,"
+                + "authorUserName VARCHAR(255) NOT NULL,"
+                + "createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                + "updatedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                + "isAccepted BOOLEAN DEFAULT FALSE,"
+                + "isCorrect BOOLEAN DEFAULT FALSE,"
+                + "FOREIGN KEY (questionId) REFERENCES questions(questionId))",
+            "CREATE TABLE IF NOT EXISTS replies("
+                + "replyId INT AUTO_INCREMENT PRIMARY KEY,"
+                + "answerId INT NOT NULL,"
+                + "content TEXT NOT NULL,"
+                + "authorUserName VARCHAR(255) NOT NULL,"
+                + "createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                + "updatedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                + "FOREIGN KEY (answerId) REFERENCES answers(answerId))",
+            "CREATE TABLE IF NOT EXISTS trusted_reviewers("
+                + "id INT AUTO_INCREMENT PRIMARY KEY,"
+                + "studentUserName VARCHAR(255) NOT NULL,"
+                + "reviewerUserName VARCHAR(255) NOT NULL,"
+                + "createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                + "UNIQUE(studentUserName, reviewerUserName))",
+            "CREATE TABLE IF NOT EXISTS messages("
+                + "messageId INT AUTO_INCREMENT PRIMARY KEY,"
+                + "title VARCHAR(255) NOT NULL,"
+                + "content TEXT NOT NULL,"
+                + "authorUserName VARCHAR(255) NOT NULL,"
+                + "receiverUserName VARCHAR(255) NOT NULL,"
+                + "createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                + "updatedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+
+        // DatabaseHelper used to create trusted_reviewers without createdAt
+        add(2, "trusted_reviewers.createdAt",
+            "ALTER TABLE trusted_reviewers ADD COLUMN IF NOT EXISTS createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
+
+        // secondary indexes matching each lookup and ORDER BY
+        add(3, "secondary indexes",
+            "CREATE INDEX IF NOT EXISTS idx_questions_created ON questions(createdAt DESC, questionId DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_questions_author ON questions(authorUserName)",
+            "CREATE INDEX IF NOT EXISTS idx_answers_question ON answers(questionId, isAccepted DESC, createdAt)",
+            "CREATE INDEX IF NOT EXISTS idx_answers_author ON answers(authorUserName)",
+            "CREATE INDEX IF NOT EXISTS idx_replies_answer ON replies(answerId, createdAt)",
+            "CREATE INDEX IF NOT EXISTS idx_replies_author ON replies(authorUserName)",
+            "CREATE INDEX IF NOT EXISTS idx_trusted_reviewer ON trusted_reviewers(reviewerUserName)",
+            "CREATE INDEX IF NOT EXISTS idx_messages_receiver ON messages(receiverUserName, createdAt DESC)");
+
+        // inverted index for full-text search, filled from the existing rows
+        add(4, "search index", SearchIndex::rebuild,
+            "CREATE TABLE IF NOT EXISTS search_index("
+                + "term VARCHAR(64) NOT NULL,"
+                + "questionId INT NOT NULL,"
+                + "sourceType CHAR(1) NOT NULL,"
+                + "sourceId INT NOT NULL,"
+                + "weight INT NOT NULL,"
+                + "PRIMARY KEY (term, questionId, sourceType, sourceId))",
+            "CREATE INDEX IF NOT EXISTS idx_search_source ON search_index(sourceType, sourceId)",
+            "CREATE INDEX IF NOT EXISTS idx_search_question ON search_index(questionId)");
+
+        // filters of the question list, each kept in list order
+        add(5, "question filter indexes",
+            "CREATE INDEX IF NOT EXISTS idx_questions_answered ON questions(isAnswered, createdAt DESC, questionId DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_questions_category ON questions(category, createdAt DESC, questionId DESC)");
+
+        // log of committed changes that clients sharing the database tail by sequence number
+        add(6, "change log",
+            "CREATE TABLE IF NOT EXISTS change_log_seq("
+                + "id INT PRIMARY KEY,"
+                + "seq BIGINT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS change_log("
+                + "seq BIGINT PRIMARY KEY,"
+                + "entity VARCHAR(16) NOT NULL,"
+                + "kind VARCHAR(16) NOT NULL,"
+                + "entityId INT NOT NULL,"
+                + "questionId INT NOT NULL,"
+                + "receiverUserName VARCHAR(255),"
+                + "origin VARCHAR(36) NOT NULL,"
+                + "changedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+            // after the DDL, which commits on its own; keeps the sequence if an earlier attempt seeded it
+            "INSERT INTO change_log_seq (id, seq) SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM change_log_seq WHERE id = 1)");
+
+        // read state of messages and a per-user unread counter, filled from the existing rows
+        add(7, "message read state",
+            "ALTER TABLE messages ADD COLUMN IF NOT EXISTS readAt TIMESTAMP",
+            "CREATE INDEX IF NOT EXISTS idx_messages_unread ON messages(receiverUserName, readAt, createdAt DESC, messageId DESC)",
+            "CREATE TABLE IF NOT EXISTS unread_counts("
+                + "userName VARCHAR(255) PRIMARY KEY,"
+                + "unread INT NOT NULL)",
+            "MERGE INTO unread_counts (userName, unread) KEY(userName) "
+                + "SELECT receiverUserName, COUNT(*) FROM messages WHERE readAt IS NULL GROUP BY receiverUserName");
+
+        // conversations: earlier replies reused the title, so a title between the same two users is one conversation
+        add(8, "message conversations", SchemaMigrations::backfillConversations,
+            "ALTER TABLE messages ADD COLUMN IF NOT EXISTS conversationId INT",
+            "ALTER TABLE messages ADD COLUMN IF NOT EXISTS parentMessageId INT",
+            "CREATE INDEX IF NOT EXISTS idx_messages_conversation ON messages(conversationId, createdAt, messageId)",
+            "CREATE INDEX IF NOT EXISTS idx_messages_author ON messages(authorUserName)");
+
+        // answered now means some answer is accepted; earlier versions set it for any answer
+        add(9, "answered means accepted",
+            "UPDATE questions q SET isAnswered = NOT isAnswered "
+                + "WHERE isAnswered <> (EXISTS(SELECT 1 FROM answers a WHERE a.questionId = q.questionId AND a.isAccepted))");
+
+        // old change_log rows are pruned by age
+        add(10, "change log age index",
+            "CREATE INDEX IF NOT EXISTS idx_change_log_changed ON change_log(changedAt)");
+    }
+
+    // URLs of the databases already brought up to date by this process
+    private static final Set<String> current = ConcurrentHashMap.newKeySet();
+
+    private SchemaMigrations() {
+    }
+
+    private static void add(int version, String description, String... statements) {
+        add(version, description, (Step) null, statements);
+    }
+
+    // a migration whose SQL is followed by a data step written in Java
+    private static void add(int version, String description, Step step, String... statements) {
+        MIGRATIONS.add(new Migration(version, description, step, statements));
+    }
+
+    /**
+     * Brings the schema up to date. Only the first call in a process for each database
+     * touches it.
+     * @param connection a connection to migrate through
+     */
+    public static void ensureCurrent(Connection connection) throws SQLException {
+        String url = connection.getMetaData().getURL();
+        if (current.contains(url)) {
+            return;
+        }
+        synchronized (SchemaMigrations.class) {
+            if (!current.contains(url)) {
+                migrate(connection);
+                current.add(url);
+            }
+        }
+    }
+
+    /**
+     * Returns the highest migration version known to this build.
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    // the lock is held on its own session to the database the connection is on
+    private static void migrate(Connection connection) throws SQLException {
+        DatabaseConfig config = DatabaseConfig.get();
+        String url = connection.getMetaData().getURL();
+        try (Connection lock = DriverManager.getConnection(url, config.getUser(), config.getPassword())) {
+            migrate(connection, lock);
+        }
+    }
+
+    // apply every migration newer than the recorded version, each committed with its version row
+    static void migrate(Connection connection, Connection lock) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_version("
+                    + "version INT PRIMARY KEY,"
+                    + "description VARCHAR(255),"
+                    + "appliedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_lock(id INT PRIMARY KEY)");
+            statement.execute("INSERT INTO schema_lock (id) SELECT 1 WHERE NOT EXISTS (SELECT 1 FROM schema_lock)");
+        } catch (SQLException e) {
+            if (e.getErrorCode() != DUPLICATE_KEY) {
+                throw e; // otherwise another process inserted the row first
+            }
+        }
+        lock.setAutoCommit(false);
+        try {
+            acquire(lock);
+            applyPending(connection);
+        } finally {
+            lock.rollback();
+        }
+    }
+
+    // waits for as long as another process holds the lock; its lock goes when its session does
+    private static void acquire(Connection lock) throws SQLException {
+        while (true) {
+            try (Statement statement = lock.createStatement()) {
+                statement.executeQuery("SELECT id FROM schema_lock WHERE id = 1 FOR UPDATE").close();
+                return;
+            } catch (SQLException e) {
+                if (e.getErrorCode() != LOCK_TIMEOUT) {
+                    throw e;
+                }
+                System.out.println("Waiting for another process to finish migrating the database...");
+            }
+        }
+    }
+
+    private static void applyPending(Connection connection) throws SQLException {
+        int installed = installedVersion(connection);
+
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version <= installed) {
+                    continue;
+                }
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    for (String sql : migration.statements) {
+                        statement.execute(sql);
+                    }
+                    if (migration.step != null) {
+                        migration.step.run(connection);
+                    }
+                    try (PreparedStatement pstmt = connection.prepareStatement(
+                            "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                        pstmt.setInt(1, migration.version);
+                        pstmt.setString(2, migration.description);
+                        pstmt.executeUpdate();
+                    }
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback(); // only the data since the last DDL; a rerun finishes the rest
+                    throw new SQLException("Schema migration V" + migration.version
+                            + " (" + migration.description + ") failed: " + e.getMessage(), e);
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static int installedVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // V8: a conversation is identified by its first message. One pass in id order finds it for every
+    // title and pair of users; a correlated UPDATE would scan the whole table once per message
+    private static void backfillConversations(Connection connection) throws SQLException {
+        Map<String, Integer> firstMessage = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE messages SET conversationId = ? WHERE messageId = ?");
+             ResultSet rs = statement.executeQuery("SELECT messageId, title, authorUserName, receiverUserName, "
+                     + "conversationId FROM messages ORDER BY messageId")) {
+            int pending = 0;
+            while (rs.next()) {
+                int messageId = rs.getInt(1);
+                String author = rs.getString(3);
+                String receiver = rs.getString(4);
+                String key = rs.getString(2) + '\u0000'
+                        + (author.compareTo(receiver) <= 0 ? author + '\u0000' + receiver : receiver + '\u0000' + author);
+                int conversationId = firstMessage.computeIfAbsent(key, k -> messageId);
+                rs.getInt(5);
+                if (rs.wasNull()) {
+                    update.setInt(1, conversationId);
+                    update.setInt(2, messageId);
+                    update.addBatch();
+                    if (++pending == 1_000) {
+                        update.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Data work that runs after a migration's SQL and commits with its version row. Like the
+     * SQL it must be safe to run again.
+     */
+    interface Step {
+        void run(Connection connection) throws SQLException;
+    }
+
+    // one numbered schema change
+    static class Migration {
+        final int version;
+        final String description;
+        final Step step;
+        final String[] statements;
+
+        Migration(int version, String description, Step step, String[] statements) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+            this.statements = statements;
+        }
+    }
+}
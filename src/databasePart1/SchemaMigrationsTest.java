@@ -0,0 +1,115 @@
+package databasePart1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit4 tests for SchemaMigrations, each on a private in-memory database.
+ */
+public class SchemaMigrationsTest {
+
+    private static final String URL = "jdbc:h2:mem:schemaMigrationsTest;DB_CLOSE_DELAY=-1";
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(URL, "sa", "");
+    }
+
+    @After
+    public void shutDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    private static void migrate(Connection connection) throws SQLException {
+        try (Connection lock = DriverManager.getConnection(URL, "sa", "")) {
+            SchemaMigrations.migrate(connection, lock);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    public void testHalfAppliedMigrationsAreFinishedOnTheNextStart() throws SQLException {
+        migrate(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE change_log_seq SET seq = 5");
+            statement.executeUpdate("INSERT INTO messages (title, content, authorUserName, receiverUserName) "
+                    + "VALUES ('Hi', 'Hello', 'alice', 'bob')");
+            // as if the process died after the DDL of V6 had committed
+            statement.executeUpdate("DELETE FROM schema_version WHERE version >= 6");
+        }
+
+        migrate(connection);
+        assertEquals(SchemaMigrations.latestVersion(), queryLong("SELECT MAX(version) FROM schema_version"));
+        assertEquals(5, queryLong("SELECT seq FROM change_log_seq WHERE id = 1"));
+        assertEquals(1, queryLong("SELECT unread FROM unread_counts WHERE userName = 'bob'"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM messages WHERE conversationId IS NOT NULL"));
+    }
+
+    @Test
+    public void testQuestionsAreAnsweredOnlyWithAnAcceptedAnswer() throws SQLException {
+        migrate(connection);
+        try (Statement statement = connection.createStatement()) {
+            // as left by earlier versions, which marked a question answered by any answer
+            statement.executeUpdate("INSERT INTO questions (questionId, title, content, authorUserName, isAnswered) "
+                    + "VALUES (1, 'Answered', 'Content', 'alice', TRUE), (2, 'Accepted', 'Content', 'alice', FALSE)");
+            statement.executeUpdate("INSERT INTO answers (questionId, content, authorUserName, isAccepted) "
+                    + "VALUES (1, 'An answer', 'bob', FALSE), (2, 'The answer', 'bob', TRUE)");
+            statement.executeUpdate("DELETE FROM schema_version WHERE version >= 9");
+        }
+
+        migrate(connection);
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM questions WHERE questionId = 1 AND isAnswered"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM questions WHERE questionId = 2 AND isAnswered"));
+    }
+
+    @Test
+    public void testProcessesStartingTogetherApplyEachVersionOnce() throws Exception {
+        int clients = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            threads.add(new Thread(() -> {
+                try (Connection client = DriverManager.getConnection(URL, "sa", "")) {
+                    start.await();
+                    migrate(client);
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(SchemaMigrations.latestVersion(), queryLong("SELECT COUNT(*) FROM schema_version"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM change_log_seq"));
+    }
+}
@@ -0,0 +1,61 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The ScratchDatabase class points the shared connection pool at a private in-memory
+ * database for a test class, and back at the configured database afterwards, so tests that
+ * load or list whole tables never touch ~/FoundationDatabase.
+ *
+ * <p> Call {@link #use(String)} from a @BeforeClass method and {@link #restore()} from the
+ * matching @AfterClass method. The process-wide caches are emptied both ways, since their
+ * ids belong to the database they were read from. </p>
+ */
+final class ScratchDatabase {
+
+    private static String previousUrl;
+    private static String scratchUrl;
+
+    private ScratchDatabase() {
+    }
+
+    /**
+     * Switches the pool to a new, empty in-memory database.
+     * @param name name of the in-memory database
+     */
+    static synchronized void use(String name) throws SQLException {
+        previousUrl = System.getProperty(DatabaseConfig.URL);
+        scratchUrl = "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+        System.setProperty(DatabaseConfig.URL, scratchUrl);
+        switchPool();
+    }
+
+    /**
+     * Drops the in-memory database and switches the pool back to the configured database.
+     */
+    static synchronized void restore() throws SQLException {
+        if (scratchUrl == null) {
+            return;
+        }
+        try (Connection conn = ConnectionPool.getInstance().getConnection();
+             Statement statement = conn.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        if (previousUrl == null) {
+            System.clearProperty(DatabaseConfig.URL);
+        } else {
+            System.setProperty(DatabaseConfig.URL, previousUrl);
+        }
+        scratchUrl = null;
+        switchPool();
+    }
+
+    private static void switchPool() throws SQLException {
+        DatabaseConfig.reload();
+        ConnectionPool.shutdownShared();
+        ThreadCache.getInstance().invalidateAll();
+        TrustCache.getInstance().invalidateAll();
+    }
+}
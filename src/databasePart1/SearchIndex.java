@@ -0,0 +1,261 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The SearchIndex class keeps an inverted index of the discussion board in the search_index
+ * table. Every distinct word of a question title, question body, answer or reply gets one row
+ * pointing at the question the text belongs to, so a search is an index lookup per word
+ * instead of a scan over every question.
+ *
+ * <p> DiscussionBoardDAO calls the index and remove methods inside the same transaction as
+ * the insert, update or delete they belong to, which keeps the index in step with the tables.
+ * Rows are weighted by where the word appeared (a title counts more than a reply) and by how
+ * often, and a question's score is the sum of the weights of the words that matched. </p>
+ */
+public class SearchIndex {
+
+    // source types stored in search_index.sourceType
+    static final String TITLE = "T";
+    static final String QUESTION = "Q";
+    static final String ANSWER = "A";
+    static final String REPLY = "R";
+
+    // how much one occurrence of a word counts for each kind of text
+    static final int TITLE_WEIGHT = 4;
+    static final int QUESTION_WEIGHT = 2;
+    static final int ANSWER_WEIGHT = 1;
+    static final int REPLY_WEIGHT = 1;
+
+    static final int MIN_TERM_LENGTH = 2;
+    static final int MAX_TERM_LENGTH = 64;
+    static final int MAX_QUERY_TERMS = 8;
+    // rows sent per batch while rebuilding
+    static final int REBUILD_BATCH_SIZE = 1_000;
+
+    // words too common to be worth an index row
+    private static final Set<String> STOP_WORDS = Set.of(
+            "an", "and", "are", "as", "at", "be", "by", "do", "for", "from", "if", "in", "is",
+            "it", "of", "on", "or", "so", "that", "the", "this", "to", "was", "with");
+
+    static final String INSERT_SQL =
+            "INSERT INTO search_index (term, questionId, sourceType, sourceId, weight) VALUES (?, ?, ?, ?, ?)";
+
+    private SearchIndex() {
+    }
+
+    /**
+     * Splits text into lower-case words and counts how often each occurs.
+     * A word is a run of letters and digits; stop words and one-letter words are dropped.
+     * @param text the text to split, may be null
+     * @return word counts in order of first appearance
+     */
+    static Map<String, Integer> termCounts(String text) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        if (text == null) {
+            return counts;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (word.length() < MAX_TERM_LENGTH) {
+                    word.append(Character.toLowerCase(c));
+                }
+            } else if (word.length() > 0) {
+                String term = word.toString();
+                if (term.length() >= MIN_TERM_LENGTH && !STOP_WORDS.contains(term)) {
+                    counts.merge(term, 1, Integer::sum);
+                }
+                word.setLength(0);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Splits a search query into the distinct words to look up.
+     * @param query the text typed by the user
+     * @return at most MAX_QUERY_TERMS words; empty if nothing searchable is left
+     */
+    public static List<String> queryTerms(String query) {
+        List<String> terms = new ArrayList<>(termCounts(query).keySet());
+        return terms.size() > MAX_QUERY_TERMS ? terms.subList(0, MAX_QUERY_TERMS) : terms;
+    }
+
+    /**
+     * (Re)indexes the title and body of a question.
+     */
+    static void indexQuestion(Connection connection, int questionId, String title, String content) throws SQLException {
+        replace(connection, questionId, TITLE, questionId, title, TITLE_WEIGHT);
+        replace(connection, questionId, QUESTION, questionId, content, QUESTION_WEIGHT);
+    }
+
+    /**
+     * (Re)indexes the content of an answer under its question.
+     */
+    static void indexAnswer(Connection connection, int answerId, int questionId, String content) throws SQLException {
+        replace(connection, questionId, ANSWER, answerId, content, ANSWER_WEIGHT);
+    }
+
+    /**
+     * (Re)indexes the content of a reply under the question of its answer.
+     */
+    static void indexReply(Connection connection, int replyId, int answerId, String content) throws SQLException {
+        int questionId;
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT questionId FROM answers WHERE answerId = ?")) {
+            pstmt.setInt(1, answerId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return;
+                }
+                questionId = rs.getInt(1);
+            }
+        }
+        replace(connection, questionId, REPLY, replyId, content, REPLY_WEIGHT);
+    }
+
+    // removal, called before the rows themselves are deleted
+    static void removeQuestion(Connection connection, int questionId) throws SQLException {
+        update(connection, "DELETE FROM search_index WHERE questionId = ?", questionId);
+    }
+    static void removeAnswer(Connection connection, int answerId) throws SQLException {
+        removeSource(connection, ANSWER, answerId);
+    }
+    static void removeReply(Connection connection, int replyId) throws SQLException {
+        removeSource(connection, REPLY, replyId);
+    }
+    static void removeRepliesForAnswer(Connection connection, int answerId) throws SQLException {
+        update(connection, "DELETE FROM search_index WHERE sourceType = 'R' "
+                + "AND sourceId IN (SELECT replyId FROM replies WHERE answerId = ?)", answerId);
+    }
+    static void removeAnswersForQuestion(Connection connection, int questionId) throws SQLException {
+        update(connection, "DELETE FROM search_index WHERE questionId = ? AND sourceType IN ('A', 'R')", questionId);
+    }
+
+    /**
+     * Builds the query that finds the matching questions for the given number of words.
+     * A question matches when every word is a prefix of some indexed word of the question,
+     * its answers or their replies. Parameters: two per word (see
+     * {@link #prefixUpperBound(String)}). Returns questionId and score, one row per question.
+     */
+    static String matchSql(int termCount) {
+        StringBuilder matches = new StringBuilder();
+        for (int i = 0; i < termCount; i++) {
+            if (i > 0) {
+                matches.append(" UNION ALL ");
+            }
+            matches.append("SELECT questionId, SUM(weight) AS score FROM search_index "
+                    + "WHERE term >= ? AND term < ? GROUP BY questionId");
+        }
+        return "SELECT questionId, SUM(score) AS score FROM (" + matches + ") AS matched "
+                + "GROUP BY questionId HAVING COUNT(*) = " + termCount;
+    }
+
+    /**
+     * Returns the smallest string greater than every word starting with prefix. The prefix
+     * match is written as a range because H2 only turns LIKE 'x%' into an index range when
+     * the pattern is a literal, and with a parameter it scans the whole index.
+     */
+    static String prefixUpperBound(String prefix) {
+        return prefix + Character.MAX_VALUE;
+    }
+
+    /**
+     * Throws the index away and rebuilds it from the questions, answers and replies tables.
+     * Used by the migration that introduces the index and after rows were loaded in bulk.
+     */
+    public static void rebuild(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM search_index");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL);
+             Statement statement = connection.createStatement()) {
+            int pending = 0;
+            try (ResultSet rs = statement.executeQuery("SELECT questionId, title, content FROM questions")) {
+                while (rs.next()) {
+                    int questionId = rs.getInt(1);
+                    pending += addRows(insert, questionId, TITLE, questionId, rs.getString(2), TITLE_WEIGHT);
+                    pending += addRows(insert, questionId, QUESTION, questionId, rs.getString(3), QUESTION_WEIGHT);
+                    pending = flushIfFull(insert, pending);
+                }
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT answerId, questionId, content FROM answers")) {
+                while (rs.next()) {
+                    pending += addRows(insert, rs.getInt(2), ANSWER, rs.getInt(1), rs.getString(3), ANSWER_WEIGHT);
+                    pending = flushIfFull(insert, pending);
+                }
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT r.replyId, a.questionId, r.content "
+                    + "FROM replies r JOIN answers a ON a.answerId = r.answerId")) {
+                while (rs.next()) {
+                    pending += addRows(insert, rs.getInt(2), REPLY, rs.getInt(1), rs.getString(3), REPLY_WEIGHT);
+                    pending = flushIfFull(insert, pending);
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+    }
+
+    private static int flushIfFull(PreparedStatement insert, int pending) throws SQLException {
+        if (pending < REBUILD_BATCH_SIZE) {
+            return pending;
+        }
+        insert.executeBatch();
+        return 0;
+    }
+
+    // replace the rows of one piece of text with rows for its current words
+    private static void replace(Connection connection, int questionId, String sourceType, int sourceId,
+                                String text, int weight) throws SQLException {
+        removeSource(connection, sourceType, sourceId);
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+            if (addRows(insert, questionId, sourceType, sourceId, text, weight) > 0) {
+                insert.executeBatch();
+            }
+        }
+    }
+
+    // adds one batched row per distinct word of text; returns how many were added
+    static int addRows(PreparedStatement insert, int questionId, String sourceType, int sourceId,
+                       String text, int weight) throws SQLException {
+        Map<String, Integer> counts = termCounts(text);
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            insert.setString(1, entry.getKey());
+            insert.setInt(2, questionId);
+            insert.setString(3, sourceType);
+            insert.setInt(4, sourceId);
+            insert.setInt(5, entry.getValue() * weight);
+            insert.addBatch();
+        }
+        return counts.size();
+    }
+
+    private static void removeSource(Connection connection, String sourceType, int sourceId) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "DELETE FROM search_index WHERE sourceType = ? AND sourceId = ?")) {
+            pstmt.setString(1, sourceType);
+            pstmt.setInt(2, sourceId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static void update(Connection connection, String sql, int id) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            pstmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package databasePart1;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The StatementCache class keeps the prepared statements of one physical connection so the
+ * same SQL text is parsed and planned by H2 only once.
+ *
+ * <p> Statements are checked out while in use: closing a statement handed out by the cache
+ * puts it back instead of closing it, and a second caller asking for SQL that is already
+ * checked out simply gets a fresh statement. The least recently used statement is closed
+ * once the cache is full. </p>
+ *
+ * <p> A statement goes back with its parameters and pending batch cleared. One whose
+ * settings (max rows, fetch size, query timeout and the like) were changed is closed
+ * instead, so the next caller always gets a statement in its default state. </p>
+ */
+class StatementCache {
+
+    // marker for plain prepareStatement(sql) calls
+    static final int PLAIN = -1;
+    // Statement methods that change how later executions behave
+    private static final Set<String> SETTINGS = Set.of("setMaxRows", "setLargeMaxRows", "setFetchSize",
+            "setFetchDirection", "setQueryTimeout", "setMaxFieldSize", "setEscapeProcessing", "setPoolable",
+            "setCursorName", "closeOnCompletion");
+
+    private final Connection physical;
+    private final int capacity;
+    private final LinkedHashMap<String, PreparedStatement> cached;
+
+    // counters
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    StatementCache(Connection physical, int capacity) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.cached = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a prepared statement for the SQL text, reusing a cached one when available.
+     * @param owner the connection the statement should report as its own
+     * @param sql the SQL text
+     * @param autoGeneratedKeys a Statement generated keys flag, or PLAIN
+     * @return a statement whose close() hands it back to the cache
+     */
+    PreparedStatement prepare(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == PLAIN ? sql : autoGeneratedKeys + "\u0000" + sql;
+        PreparedStatement statement;
+        synchronized (this) {
+            statement = cached.remove(key);
+        }
+        if (statement != null && !statement.isClosed()) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            statement = autoGeneratedKeys == PLAIN
+                    ? physical.prepareStatement(sql)
+                    : physical.prepareStatement(sql, autoGeneratedKeys);
+        }
+        return new CheckedOut(key, statement, owner).proxy;
+    }
+
+    private void giveBack(String key, PreparedStatement statement, boolean settingsChanged) {
+        //a statement whose limits or timeouts were changed is not worth resetting setting by setting
+        if (capacity <= 0 || settingsChanged) {
+            closeQuietly(statement);
+            return;
+        }
+        try {
+            statement.clearParameters();
+            //rows added with addBatch() but never executed must not run for the next borrower
+            statement.clearBatch();
+        } catch (SQLException e) {
+            closeQuietly(statement);
+            return;
+        }
+        PreparedStatement evicted = null;
+        synchronized (this) {
+            if (cached.containsKey(key)) {
+                evicted = statement; // another copy is already cached
+            } else {
+                cached.put(key, statement);
+                if (cached.size() > capacity) {
+                    Iterator<PreparedStatement> eldest = cached.values().iterator();
+                    evicted = eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        if (evicted != null) {
+            evictions.incrementAndGet();
+            closeQuietly(evicted);
+        }
+    }
+
+    /**
+     * Closes every cached statement; called before the physical connection is closed.
+     */
+    synchronized void closeAll() {
+        for (PreparedStatement statement : cached.values()) {
+            closeQuietly(statement);
+        }
+        cached.clear();
+    }
+
+    synchronized int size() {
+        return cached.size();
+    }
+    long getHits() {
+        return hits.get();
+    }
+    long getMisses() {
+        return misses.get();
+    }
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    // formats hit/miss counters, for one cache or summed over the pool
+    static String describe(long hits, long misses, long evictions) {
+        long total = hits + misses;
+        double hitRate = total == 0 ? 0.0 : (double) hits / total;
+        return String.format("StatementCache{hits=%d, misses=%d, evictions=%d, hitRate=%.2f}",
+                hits, misses, evictions, hitRate);
+    }
+
+    @Override
+    public String toString() {
+        return describe(hits.get(), misses.get(), evictions.get());
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // the connection is going away anyway
+        }
+    }
+
+    // a statement lent out by the cache; close() returns it
+    private class CheckedOut implements InvocationHandler {
+        private final String key;
+        private final PreparedStatement statement;
+        private final Connection owner;
+        private final PreparedStatement proxy;
+        private final List<ResultSet> openResults = new ArrayList<>(1);
+        private boolean closed;
+        private boolean settingsChanged;
+
+        CheckedOut(String key, PreparedStatement statement, Connection owner) {
+            this.key = key;
+            this.statement = statement;
+            this.owner = owner;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + statement + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            if (SETTINGS.contains(method.getName())) {
+                settingsChanged = true;
+            }
+            Object result;
+            try {
+                result = method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                openResults.add((ResultSet) result); // closed when the statement goes back
+            }
+            return result;
+        }
+
+        private synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (ResultSet rs : openResults) {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    // already closed
+                }
+            }
+            openResults.clear();
+            giveBack(key, statement, settingsChanged);
+        }
+    }
+}
@@ -164,4 +164,42 @@ public class TP3Test {
         }
     }
 
+    @Test
+    public void testTrustCacheAnswersRepeatLookups() throws SQLException {
+        TrustCache cache = TrustCache.getInstance();
+        dbHelper.addTrust("student1", "reviewer1");
+
+        assertTrue(dao.isReviewerTrusted("student1", "reviewer1"));
+        long misses = cache.getMisses();
+        long hits = cache.getHits();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(dao.isReviewerTrusted("student1", "reviewer1"));
+            assertFalse(dao.isReviewerTrusted("student1", "reviewer2"));
+        }
+        assertEquals(misses, cache.getMisses());
+        assertEquals(hits + 20, cache.getHits());
+
+        // a change through either class must be visible right away
+        assertTrue(dao.removeTrustedReviewer("student1", "reviewer1"));
+        assertFalse(dao.isReviewerTrusted("student1", "reviewer1"));
+    }
+
+    @Test
+    public void testTrustCacheDropsLeastRecentlyUsedStudent() throws SQLException {
+        TrustCache cache = new TrustCache();
+        TrustCache.Loader loader = student -> List.of("reviewerOf" + student);
+        for (int i = 0; i < TrustCache.MAX_STUDENTS; i++) {
+            cache.getTrustedSet("student" + i, loader);
+        }
+        // touch the first student so the second one is the least recently used
+        assertTrue(cache.isTrusted("student0", "reviewerOfstudent0", loader));
+        cache.getTrustedSet("newStudent", loader);
+        assertEquals(TrustCache.MAX_STUDENTS, cache.size());
+
+        long misses = cache.getMisses();
+        cache.getTrustedSet("student0", loader);
+        assertEquals(misses, cache.getMisses());
+        cache.getTrustedSet("student1", loader);
+        assertEquals(misses + 1, cache.getMisses());
+    }
 }
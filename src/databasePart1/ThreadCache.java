@@ -0,0 +1,113 @@
+package databasePart1;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import application.QuestionThread;
+
+/**
+ * The ThreadCache class keeps recently opened discussion threads in memory, so going back to
+ * a question, switching between its answers or opening a prefetched neighbour needs no query.
+ *
+ * <p> Entries hold the question, answers and replies only; trust flags are per viewer and are
+ * added by DiscussionBoardDAO on the way out. Every write to questions, answers or replies
+ * through DiscussionBoardDAO empties the cache, and a load that raced with such a write is not
+ * cached. The least recently used thread is dropped once MAX_THREADS are held. </p>
+ */
+public class ThreadCache {
+
+    static final int MAX_THREADS = 200;
+
+    private static final ThreadCache SHARED = new ThreadCache();
+
+    /**
+     * Loads one thread from the database.
+     */
+    public interface Loader {
+        QuestionThread load(int questionId) throws SQLException;
+    }
+
+    // access-ordered, guarded by this
+    private final Map<Integer, QuestionThread> threads = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, QuestionThread> eldest) {
+            return size() > MAX_THREADS;
+        }
+    };
+    // bumped on every invalidation so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    // counters
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Returns the process-wide cache.
+     */
+    public static ThreadCache getInstance() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the thread of a question, loading it on a miss.
+     * @param questionId The id of the question
+     * @param loader Reads the thread from the database on a miss
+     * @return the thread, or null if the question does not exist
+     */
+    public QuestionThread get(int questionId, Loader loader) throws SQLException {
+        QuestionThread thread;
+        synchronized (this) {
+            thread = threads.get(questionId);
+        }
+        if (thread != null) {
+            hits.incrementAndGet();
+            return thread;
+        }
+        misses.incrementAndGet();
+        long seen = generation.get();
+        thread = loader.load(questionId);
+        if (thread != null) {
+            synchronized (this) {
+                if (generation.get() == seen) {
+                    threads.put(questionId, thread);
+                }
+            }
+        }
+        return thread;
+    }
+
+    /**
+     * Returns true if the thread is cached, without touching its recency.
+     */
+    public synchronized boolean contains(int questionId) {
+        return threads.containsKey(questionId);
+    }
+
+    /**
+     * Drops every cached thread; called after any discussion board write.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        synchronized (this) {
+            threads.clear();
+        }
+    }
+
+    // cache statistics
+    public long getHits() {
+        return hits.get();
+    }
+    public long getMisses() {
+        return misses.get();
+    }
+    public synchronized int size() {
+        return threads.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadCache{threads=" + size() + ", hits=" + hits.get() + ", misses=" + misses.get() + '}';
+    }
+}
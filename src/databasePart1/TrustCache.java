@@ -0,0 +1,150 @@
+package databasePart1;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The TrustCache class keeps each student's trusted reviewers in memory so the list cells
+ * of the discussion board can check trust without a query per cell.
+ *
+ * <p> A student's set is loaded once through {@link Loader} and answered from a hash set
+ * afterwards. DiscussionBoardDAO and DatabaseHelper invalidate a student's entry whenever
+ * they add or remove one of that student's trusted reviewers. The cache is shared by the
+ * whole process so a change made through either class is seen by both. A load that raced
+ * with an invalidation is not cached, and the least recently used student is dropped once
+ * MAX_STUDENTS are held. </p>
+ */
+public class TrustCache {
+
+    // the least recently used student is dropped once this many are held
+    static final int MAX_STUDENTS = 1_000;
+
+    private static final TrustCache SHARED = new TrustCache();
+
+    /**
+     * Loads the trusted reviewer list of one student from the database.
+     */
+    public interface Loader {
+        List<String> load(String studentUserName) throws SQLException;
+    }
+
+    // access-ordered, guarded by this
+    private final Map<String, Set<String>> trustedByStudent = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+            return size() > MAX_STUDENTS;
+        }
+    };
+    // bumped on every invalidation so a load that raced with a change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    // counters
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Returns the process-wide cache.
+     */
+    public static TrustCache getInstance() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the set of reviewers the student trusts, loading it on first use.
+     * @param studentUserName The username of the student
+     * @param loader Reads the list from the database on a miss
+     * @return an unmodifiable set of reviewer usernames
+     */
+    public Set<String> getTrustedSet(String studentUserName, Loader loader) throws SQLException {
+        if (studentUserName == null) {
+            return Collections.emptySet();
+        }
+        Set<String> trusted;
+        synchronized (this) {
+            trusted = trustedByStudent.get(studentUserName);
+        }
+        if (trusted != null) {
+            hits.incrementAndGet();
+            return trusted;
+        }
+        misses.incrementAndGet();
+        long seen = generation.get();
+        trusted = Collections.unmodifiableSet(new HashSet<>(loader.load(studentUserName)));
+        synchronized (this) {
+            if (generation.get() == seen) {
+                trustedByStudent.put(studentUserName, trusted);
+            }
+        }
+        return trusted;
+    }
+
+    /**
+     * Checks whether the student trusts the reviewer.
+     * @param studentUserName The username of the student
+     * @param reviewerUserName The username of the reviewer
+     * @param loader Reads the student's list from the database on a miss
+     * @return true if the reviewer is trusted
+     */
+    public boolean isTrusted(String studentUserName, String reviewerUserName, Loader loader) throws SQLException {
+        if (studentUserName == null || reviewerUserName == null) {
+            return false;
+        }
+        return getTrustedSet(studentUserName, loader).contains(reviewerUserName);
+    }
+
+    /**
+     * Drops the cached set of one student; the next lookup reloads it.
+     * @param studentUserName The username of the student whose trust list changed
+     */
+    public void invalidate(String studentUserName) {
+        invalidations.incrementAndGet();
+        synchronized (this) {
+            generation.incrementAndGet();
+            if (studentUserName != null) {
+                trustedByStudent.remove(studentUserName);
+            }
+        }
+    }
+
+    /**
+     * Drops every cached set.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        synchronized (this) {
+            generation.incrementAndGet();
+            trustedByStudent.clear();
+        }
+    }
+
+    // cache statistics
+    public long getHits() {
+        return hits.get();
+    }
+    public long getMisses() {
+        return misses.get();
+    }
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+    public synchronized int size() {
+        return trustedByStudent.size();
+    }
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TrustCache{students=%d, hits=%d, misses=%d, invalidations=%d, hitRate=%.2f}",
+                size(), hits.get(), misses.get(), invalidations.get(), getHitRate());
+    }
+}
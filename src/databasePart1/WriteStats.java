@@ -0,0 +1,103 @@
+package databasePart1;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The WriteStats class counts what DiscussionBoardDAO.updateQuestion and updateAnswer write,
+ * next to what the same calls would have written as full-row updates. The difference is the
+ * write amplification the dirty-field tracking on Question and Answer saves: a flag toggle
+ * used to rewrite the title and content TEXT columns and reindex them.
+ *
+ * <p> Counters are process-wide and only ever grow until {@link #reset()}. </p>
+ */
+public class WriteStats {
+
+    private static final WriteStats SHARED = new WriteStats();
+
+    // UPDATE statements sent, and calls that had nothing to write
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    // columns and TEXT characters written, and what a full-row update would have written
+    private final AtomicLong columnsWritten = new AtomicLong();
+    private final AtomicLong fullRowColumns = new AtomicLong();
+    private final AtomicLong textWritten = new AtomicLong();
+    private final AtomicLong fullRowText = new AtomicLong();
+    // search index rewrites caused by updates
+    private final AtomicLong reindexes = new AtomicLong();
+
+    /**
+     * Returns the process-wide counters.
+     */
+    public static WriteStats getInstance() {
+        return SHARED;
+    }
+
+    /**
+     * Records one UPDATE statement.
+     * @param columns columns in its SET clause, updatedAt included
+     * @param rowColumns columns a full-row update of the table writes
+     * @param text characters of TEXT values it wrote
+     * @param rowText characters of TEXT values a full-row update would have written
+     * @param reindexed true if the search index rows were rewritten as well
+     */
+    void recordUpdate(int columns, int rowColumns, long text, long rowText, boolean reindexed) {
+        updates.incrementAndGet();
+        columnsWritten.addAndGet(columns);
+        fullRowColumns.addAndGet(rowColumns);
+        textWritten.addAndGet(text);
+        fullRowText.addAndGet(rowText);
+        if (reindexed) {
+            reindexes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records an update call that had no changed fields and so wrote nothing.
+     */
+    void recordSkipped(int rowColumns, long rowText) {
+        skipped.incrementAndGet();
+        fullRowColumns.addAndGet(rowColumns);
+        fullRowText.addAndGet(rowText);
+    }
+
+    public void reset() {
+        updates.set(0);
+        skipped.set(0);
+        columnsWritten.set(0);
+        fullRowColumns.set(0);
+        textWritten.set(0);
+        fullRowText.set(0);
+        reindexes.set(0);
+    }
+
+    // counters
+    public long getUpdates() {
+        return updates.get();
+    }
+    public long getSkipped() {
+        return skipped.get();
+    }
+    public long getColumnsWritten() {
+        return columnsWritten.get();
+    }
+    public long getFullRowColumns() {
+        return fullRowColumns.get();
+    }
+    public long getTextWritten() {
+        return textWritten.get();
+    }
+    public long getFullRowText() {
+        return fullRowText.get();
+    }
+    public long getReindexes() {
+        return reindexes.get();
+    }
+
+    @Override
+    public String toString() {
+        return "WriteStats{updates=" + updates.get() + ", skipped=" + skipped.get()
+                + ", columns=" + columnsWritten.get() + "/" + fullRowColumns.get()
+                + ", textChars=" + textWritten.get() + "/" + fullRowText.get()
+                + ", reindexes=" + reindexes.get() + '}';
+    }
+}
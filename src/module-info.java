@@ -1,6 +1,8 @@
 module FoundationCode {
 	requires javafx.controls;
 	requires java.sql;
+	requires com.h2database;
+	requires jdk.management;
 	requires junit;
 
 	opens application to javafx.graphics, javafx.fxml;
@@ -17,6 +17,8 @@ public class PasswordEvaluationTestingAutomation {
 	
 	static int numPassed = 0;	// Counter of the number of passed tests
 	static int numFailed = 0;	// Counter of the number of failed tests
+	// The same evaluator the JavaFX mainline uses, with its execution trace switched on
+	static PasswordEvaluator evaluator = new PasswordEvaluator(true);
 
 	/*
 	 * This mainline displays a header to the console, performs a sequence of
@@ -68,7 +70,8 @@ public class PasswordEvaluationTestingAutomation {
 		System.out.println("\nFinite state machine execution trace:");
 		
 		/************** Call the recognizer to process the input **************/
-		String resultText= PasswordEvaluator.evaluatePassword(inputText);
+		PasswordEvaluator.Result result = evaluator.evaluate(inputText);
+		String resultText= result.errorMessage();
 		
 		/************** Interpret the result and display that interpreted information **************/
 		System.out.println();
@@ -107,32 +110,32 @@ public class PasswordEvaluationTestingAutomation {
 				numFailed++;
 			}
 		}
-		displayEvaluation();
+		displayEvaluation(result);
 	}
 	
-	private static void displayEvaluation() {
-		if (PasswordEvaluator.foundUpperCase)
+	private static void displayEvaluation(PasswordEvaluator.Result result) {
+		if (result.foundUpperCase())
 			System.out.println("At least one upper case letter - Satisfied");
 		else
 			System.out.println("At least one upper case letter - Not Satisfied");
 
-		if (PasswordEvaluator.foundLowerCase)
+		if (result.foundLowerCase())
 			System.out.println("At least one lower case letter - Satisfied");
 		else
 			System.out.println("At least one lower case letter - Not Satisfied");
 	
 
-		if (PasswordEvaluator.foundNumericDigit)
+		if (result.foundNumericDigit())
 			System.out.println("At least one digit - Satisfied");
 		else
 			System.out.println("At least one digit - Not Satisfied");
 
-		if (PasswordEvaluator.foundSpecialChar)
+		if (result.foundSpecialChar())
 			System.out.println("At least one special character - Satisfied");
 		else
 			System.out.println("At least one special character - Not Satisfied");
 
-		if (PasswordEvaluator.foundLongEnough)
+		if (result.foundLongEnough())
 			System.out.println("At least 8 characters - Satisfied");
 		else
 			System.out.println("At least 8 characters - Not Satisfied");
@@ -49,7 +49,8 @@ public class UserInterface {
     private Label label_NumericDigit = new Label("At least one numeric digit");
     private Label label_SpecialChar = new Label("At least one special character");
     private Label label_LongEnough = new Label("At least eight characters");
-	
+    private PasswordEvaluator evaluator = new PasswordEvaluator();
+
 	/**********************************************************************************************
 
 	Constructors
@@ -192,24 +193,25 @@ public class UserInterface {
 		    noInputFound.setText("No input text found!");
 		else
 		{
-			String errMessage = PasswordEvaluator.evaluatePassword(inputText);
-			updateFlags();
+			PasswordEvaluator.Result result = evaluator.evaluate(inputText);
+			String errMessage = result.errorMessage();
+			updateFlags(result);
 			if (errMessage != "") {
 				System.out.println(errMessage);
 				
-				label_errPassword.setText(PasswordEvaluator.passwordErrorMessage);
-				if (PasswordEvaluator.passwordIndexofError <= -1) return;
-				String input = PasswordEvaluator.passwordInput;
+				label_errPassword.setText("");
+				if (result.indexOfError() <= -1) return;
+				String input = result.input();
 				errPasswordPart1.setText(input.substring(0, 
-						PasswordEvaluator.passwordIndexofError));
+						result.indexOfError()));
 				errPasswordPart2.setText("\u21EB");
 				validPassword.setTextFill(Color.RED);
 				errPasswordPart3.setText("The red arrow points at the character causing the error!");
 				validPassword.setText("Failure! The password is not valid.");
 			}
-			else if (PasswordEvaluator.foundUpperCase && PasswordEvaluator.foundLowerCase &&
-					PasswordEvaluator.foundNumericDigit && PasswordEvaluator.foundSpecialChar &&
-					PasswordEvaluator.foundLongEnough) {
+			else if (result.foundUpperCase() && result.foundLowerCase() &&
+					result.foundNumericDigit() && result.foundSpecialChar() &&
+					result.foundLongEnough()) {
 				
 				System.out.println("Success! The password satisfies the requirements.");
 				validPassword.setTextFill(Color.GREEN);
@@ -249,28 +251,28 @@ public class UserInterface {
 	    errPasswordPart3.setText("");
 	}
 	
-	private void updateFlags() {
-		if (PasswordEvaluator.foundUpperCase) {
+	private void updateFlags(PasswordEvaluator.Result result) {
+		if (result.foundUpperCase()) {
 			label_UpperCase.setText("At least one upper case letter - Satisfied");
 			label_UpperCase.setTextFill(Color.GREEN);
 		}
 
-		if (PasswordEvaluator.foundLowerCase) {
+		if (result.foundLowerCase()) {
 			label_LowerCase.setText("At least one lower case letter - Satisfied");
 			label_LowerCase.setTextFill(Color.GREEN);
 		}
 
-		if (PasswordEvaluator.foundNumericDigit) {
+		if (result.foundNumericDigit()) {
 			label_NumericDigit.setText("At least one numeric digit - Satisfied");
 			label_NumericDigit.setTextFill(Color.GREEN);
 		}
 
-		if (PasswordEvaluator.foundSpecialChar) {
+		if (result.foundSpecialChar()) {
 			label_SpecialChar.setText("At least one special character - Satisfied");
 			label_SpecialChar.setTextFill(Color.GREEN);
 		}
 
-		if (PasswordEvaluator.foundLongEnough) {
+		if (result.foundLongEnough()) {
 			label_LongEnough.setText("At least eight characters - Satisfied");
 			label_LongEnough.setTextFill(Color.GREEN);
 		}